@@ -0,0 +1,84 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.components.SwerveDrive;
+import frc.robot.components.SwerveModule;
+import frc.robot.utilities.Clock;
+
+/**
+ * Benchmarks for the swerve drive control path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DriveBenchmark {
+
+    private SwerveDrive drive;
+    private SwerveModule module;
+    private FakeMotor turnMotor;
+
+    private int step = 0;
+
+    @Setup
+    public void setup() {
+        // The FPGA clock is not available on the desktop
+        Clock.setSource(() -> System.nanoTime() * 1e-9);
+
+        drive = new SwerveDrive(
+            new SwerveModule[] {
+                new FakeSwerveModule(),
+                new FakeSwerveModule(),
+                new FakeSwerveModule(),
+                new FakeSwerveModule()
+            },
+            new Translation2d[] {
+                new Translation2d(1, -1),
+                new Translation2d(1, 1),
+                new Translation2d(-1, 1),
+                new Translation2d(-1, -1)
+            },
+            new FakeEncoder()
+        );
+        module = new FakeSwerveModule();
+        turnMotor = new FakeMotor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Clock.useFPGA();
+    }
+
+    /** Sweeps the input so the benchmark cannot be constant folded. */
+    private double nextInput() {
+        step = (step + 1) & 1023;
+        return step * (2 * Math.PI / 1024.0) - Math.PI;
+    }
+
+    @Benchmark
+    public void swerveDriveSetDesiredSpeeds() {
+        double t = nextInput();
+        drive.setDesiredSpeeds(Math.cos(t), Math.sin(t), 0.5 * t);
+    }
+
+    @Benchmark
+    public void swerveModuleSetDesiredAngle() {
+        module.setDesiredAngle(nextInput());
+    }
+
+    @Benchmark
+    public double positionMotorSetDesiredAngle() {
+        turnMotor.setDesiredAngle(nextInput());
+        return turnMotor.getCurrentPosition();
+    }
+}
@@ -0,0 +1,21 @@
+package frc.robot.benchmarks;
+
+import frc.robot.architecture.PositionEncoder;
+
+/**
+ * An in-memory encoder whose position is set directly by the benchmark.
+ */
+public class FakeEncoder implements PositionEncoder {
+
+    private double position = 0.0;
+
+    @Override
+    public double getCurrentPosition() {
+        return position;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        position = newPosition;
+    }
+}
@@ -0,0 +1,54 @@
+package frc.robot.benchmarks;
+
+import frc.robot.architecture.PositionMotor;
+import frc.robot.architecture.SpeedMotor;
+
+/**
+ * An in-memory motor which instantly reaches whatever it is commanded to.
+ */
+public class FakeMotor implements SpeedMotor, PositionMotor {
+
+    private double speed = 0.0;
+    private double position = 0.0;
+
+    @Override
+    public void init() {}
+
+    @Override
+    public void periodic() {}
+
+    @Override
+    public void setDesiredSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    @Override
+    public double getCurrentSpeed() {
+        return speed;
+    }
+
+    @Override
+    public void setDesiredPosition(double position) {
+        this.position = position;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return position;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        position = newPosition;
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return 0.0;
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return 0.0;
+    }
+}
@@ -0,0 +1,18 @@
+package frc.robot.benchmarks;
+
+import frc.robot.components.SwerveModule;
+
+/**
+ * A {@code SwerveModule} built on {@link FakeMotor}s.
+ */
+public class FakeSwerveModule extends SwerveModule {
+
+    public FakeSwerveModule() {
+        super(new FakeMotor(), new FakeMotor(), 0.31918 / (2 * Math.PI));
+    }
+
+    @Override
+    public void resetZero() {
+        TURN_MOTOR.setPosition(0.0);
+    }
+}
@@ -0,0 +1,126 @@
+package frc.robot.benchmarks;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.robot.math.AngleMath;
+import frc.robot.math.Vectors;
+import frc.robot.utilities.AxisTransforms;
+import frc.robot.utilities.DoubleLookupTable;
+import frc.robot.utilities.InterpolatedLookupTable;
+import frc.robot.utilities.Utils;
+
+/**
+ * Benchmarks for the utility math used by the control loop.
+ *
+ * <p>
+ * The legacy pairs ({@code normalizeAngleLegacy} vs {@code normalizeAngle}, {@code addVectors} vs
+ * {@code vectorsAddPolar}) compare the loops {@code AngleMath} and {@code Vectors} replaced. No JMH
+ * results have been recorded for them yet. A hand-timed loop (not JMH, JDK 17, one desktop core)
+ * gave about 60 ns vs 21 ns for normalizing the same inputs, and no measurable difference for the
+ * vector addition, whose cost is the trigonometry, the port only removed its allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MathBenchmark {
+
+    private final double[] v1 = {0.3, 1.0};
+    private final double[] v2 = {2.1, 0.5};
+    private final double[] polarOut = new double[2];
+
+    private InterpolatedLookupTable<Double, Double> lookupTable;
+    private DoubleLookupTable doubleLookupTable;
+    private DoubleUnaryOperator axisTransform;
+    private DoubleUnaryOperator precompiledAxisTransform;
+
+    private int step = 0;
+
+    @Setup
+    public void setup() {
+        TreeMap<Double, Double> samples = new TreeMap<>();
+        for (int i = 0; i <= 20; i++) {
+            samples.put(i * 0.5, Math.sqrt(i * 0.5));
+        }
+        lookupTable = new InterpolatedLookupTable<>(samples,
+            (t, x1, y1, x2, y2) -> y1 + (y2 - y1) * (t - x1) / (x2 - x1));
+        doubleLookupTable = DoubleLookupTable.fromMap(samples, DoubleLookupTable.EndBehavior.CLAMP);
+
+        // Same chain as the driver sticks in IO
+        axisTransform = AxisTransforms.deadbandTransform(0.1).andThen(AxisTransforms.exponentialTransform(30));
+        precompiledAxisTransform = AxisTransforms.precompile(axisTransform);
+    }
+
+    private double nextInput() {
+        step = (step + 1) & 1023;
+        return step / 1024.0;
+    }
+
+    /** The while-loop normalization Utils.normalizeAngle used before AngleMath. */
+    private static double legacyNormalizeAngle(double angle) {
+        while (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+        while (angle >= 2 * Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        return angle;
+    }
+
+    @Benchmark
+    public double normalizeAngleLegacy() {
+        // Turn positions accumulate without bound, so benchmark a large input
+        return legacyNormalizeAngle(200.0 * Math.PI * nextInput() - 50.0);
+    }
+
+    @Benchmark
+    public double normalizeAngle() {
+        return Utils.normalizeAngle(200.0 * Math.PI * nextInput() - 50.0);
+    }
+
+    @Benchmark
+    public double angleMathShortestDelta() {
+        return AngleMath.shortestDelta(200.0 * Math.PI * nextInput(), 1.0);
+    }
+
+    @Benchmark
+    public double[] addVectors() {
+        v1[0] = nextInput();
+        return Utils.addVectors(v1, v2);
+    }
+
+    @Benchmark
+    public double[] vectorsAddPolar() {
+        Vectors.addPolar(nextInput(), 1.0, 2.1, 0.5, polarOut);
+        return polarOut;
+    }
+
+    @Benchmark
+    public Double interpolatedLookupTableGet() {
+        return lookupTable.get(9.7 * nextInput() + 0.1);
+    }
+
+    @Benchmark
+    public double doubleLookupTableGet() {
+        return doubleLookupTable.get(9.7 * nextInput() + 0.1);
+    }
+
+    @Benchmark
+    public double ioAxisTransform() {
+        return axisTransform.applyAsDouble(2.0 * nextInput() - 1.0);
+    }
+
+    @Benchmark
+    public double ioAxisTransformPrecompiled() {
+        return precompiledAxisTransform.applyAsDouble(2.0 * nextInput() - 1.0);
+    }
+}
@@ -0,0 +1,67 @@
+package frc.robot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import frc.robot.components.SwerveDrive;
+import frc.robot.components.SwerveModule;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.Clock;
+
+/**
+ * Measures how the cost of a drive cycle grows with the number of modules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModuleScalingBenchmark {
+
+    @Param({"2", "4", "6", "8"})
+    public int moduleCount;
+
+    private SwerveDrive drive;
+
+    private int step = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // The FPGA clock is not available on the desktop
+        Clock.setSource(() -> System.nanoTime() * 1e-9);
+
+        SwerveModule[] modules = new SwerveModule[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            modules[i] = new FakeSwerveModule();
+        }
+        drive = new SwerveDrive(modules, Chassis.ringOffsets(moduleCount, Chassis.POD_RADIUS), new FakeEncoder());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Clock.useFPGA();
+    }
+
+    /** Sweeps the input so the benchmark cannot be constant folded. */
+    private double nextInput() {
+        step = (step + 1) & 1023;
+        return step * (2 * Math.PI / 1024.0) - Math.PI;
+    }
+
+    /** One control cycle: inverse kinematics, module setpoints, then odometry. */
+    @Benchmark
+    public double cycle() {
+        double t = nextInput();
+        drive.setDesiredSpeeds(Math.cos(t), Math.sin(t), 0.5 * t);
+        drive.periodic();
+        return drive.getCurrentX();
+    }
+}
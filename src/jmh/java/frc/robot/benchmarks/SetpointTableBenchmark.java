@@ -0,0 +1,111 @@
+package frc.robot.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import frc.robot.components.SwerveDrive;
+import frc.robot.components.SwerveModule;
+import frc.robot.math.Vectors;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.CompiledTrajectory;
+import frc.robot.utilities.ModuleSetpointTable;
+
+/**
+ * Compares following a trajectory through the kinematics with following precomputed module
+ * setpoints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SetpointTableBenchmark {
+
+    /** Records of a 4 s arc at 50 Hz. */
+    private static final int RECORDS = 201;
+    private static final double PERIOD = 0.02;
+
+    private SwerveDrive drive;
+    private CompiledTrajectory trajectory;
+    private ModuleSetpointTable table;
+
+    private final CompiledTrajectory.State state = new CompiledTrajectory.State();
+    private final double[] robotVelocity = new double[2];
+    private ModuleSetpointTable.Setpoint setpoint;
+
+    private int step = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // The FPGA clock is not available on the desktop
+        Clock.setSource(() -> System.nanoTime() * 1e-9);
+
+        SwerveModule[] modules = new SwerveModule[4];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new FakeSwerveModule();
+        }
+        drive = new SwerveDrive(modules, Chassis.ringOffsets(modules.length, Chassis.POD_RADIUS), new FakeEncoder());
+        trajectory = CompiledTrajectory.wrap("arc", arc());
+        table = ModuleSetpointTable.build(trajectory, drive.getKinematics());
+        setpoint = table.createSetpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Clock.useFPGA();
+    }
+
+    /** A quarter circle of radius 2 m at 2 m/s while turning the robot half a turn. */
+    private static ByteBuffer arc() {
+        ByteBuffer buffer = ByteBuffer.allocate(32 + RECORDS * 8 * Float.BYTES).order(CompiledTrajectory.ORDER);
+        buffer.putInt(CompiledTrajectory.MAGIC).putInt(CompiledTrajectory.VERSION).putInt(RECORDS).putInt(8);
+        buffer.putDouble(PERIOD).putDouble((RECORDS - 1) * PERIOD);
+        double duration = (RECORDS - 1) * PERIOD;
+        for (int k = 0; k < RECORDS; k++) {
+            double angle = Math.PI / 2 * k / (RECORDS - 1);
+            buffer.putFloat((float) (2.0 * Math.sin(angle)));
+            buffer.putFloat((float) (2.0 - 2.0 * Math.cos(angle)));
+            buffer.putFloat((float) angle);
+            buffer.putFloat(2.0f);
+            buffer.putFloat(0.0f);
+            buffer.putFloat(0.5f);
+            buffer.putFloat((float) (Math.PI * k / (RECORDS - 1)));
+            buffer.putFloat((float) (Math.PI / duration));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Sweeps the time so the benchmark cannot be constant folded. */
+    private double nextTime() {
+        step = (step + 1) & 255;
+        return step * (trajectory.getDuration() / 256.0);
+    }
+
+    /** Samples the trajectory, then runs the inverse kinematics to reach the modules. */
+    @Benchmark
+    public double kinematics() {
+        trajectory.sample(nextTime(), state);
+        Vectors.rotate(state.getVx(), state.getVy(), -state.rotation, robotVelocity);
+        drive.setDesiredSpeeds(robotVelocity[0], robotVelocity[1], state.rotationRate);
+        return drive.getTargets().speeds[0];
+    }
+
+    /** Interpolates the precomputed module setpoints and sends them with their rates. */
+    @Benchmark
+    public double setpointTable() {
+        table.sample(nextTime(), setpoint);
+        drive.setModuleSetpoints(setpoint.angles, setpoint.speeds, setpoint.steerRates, setpoint.accelerations);
+        return drive.getTargets().speeds[0];
+    }
+}
@@ -0,0 +1,145 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Preferences;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.utilities.AsyncLog;
+
+/**
+ * Named autonomous routines which are only built when they are selected.
+ *
+ * <p>
+ * Registering a routine only stores its factory, so none of the command graphs (or the
+ * subsystems they reach) are created while the robot boots. The routine is picked from a
+ * {@code SendableChooser} on the dashboard. Call {@link #prebuildSelected()} while disabled so the
+ * selected routine is built before {@code autonomousInit()} asks for it. A routine is built at most
+ * once.
+ */
+public class AutoRoutineRegistry {
+
+    /** The dashboard key of the chooser. */
+    public static final String CHOOSER_KEY = "Auto Routine";
+    /** The preference picking the default routine by index, as before the chooser. */
+    public static final String DEFAULT_PREFERENCE = "AUTO_ROUTINE";
+
+    private static final AsyncLog.Channel BUILT = AsyncLog.channel("AutoRoutineRegistry", AsyncLog.Level.INFO,
+        "Built autonomous routine %.0f in %.1f ms", 0.0);
+
+    /** A routine which has not necessarily been built yet. */
+    private static class Entry {
+        final int index;
+        final Pose2d initialPose;
+        final Supplier<Command> factory;
+        Constants.AutonomousRoutine routine;
+
+        Entry(int index, Pose2d initialPose, Supplier<Command> factory) {
+            this.index = index;
+            this.initialPose = initialPose;
+            this.factory = factory;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private SendableChooser<String> chooser;
+    private String prebuilt;
+
+    /**
+     * Adds a routine. Nothing is built until it is selected.
+     *
+     * @param name The name shown on the dashboard.
+     * @param initialPose Where the robot starts the routine.
+     * @param factory Creates the routine's command.
+     * @return This registry, for chaining.
+     */
+    public AutoRoutineRegistry register(String name, Pose2d initialPose, Supplier<Command> factory) {
+        if (entries.putIfAbsent(name, new Entry(entries.size(), initialPose, factory)) != null) {
+            throw new IllegalArgumentException("An autonomous routine named " + name + " is already registered.");
+        }
+        return this;
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Puts the chooser on the dashboard, defaulting to the routine picked by the
+     * {@link #DEFAULT_PREFERENCE} preference. Call once, ex. from {@code robotInit()}.
+     */
+    public void publish() {
+        if (chooser != null || entries.isEmpty()) {
+            return;
+        }
+        List<String> names = getNames();
+        int index = Preferences.getInt(DEFAULT_PREFERENCE, 0);
+        String defaultName = names.get(index >= 0 && index < names.size() ? index : 0);
+
+        chooser = new SendableChooser<>();
+        for (String name : names) {
+            if (name.equals(defaultName)) {
+                chooser.setDefaultOption(name, name);
+            } else {
+                chooser.addOption(name, name);
+            }
+        }
+        SmartDashboard.putData(CHOOSER_KEY, chooser);
+    }
+
+    /**
+     * Returns a routine, building it the first time. The build time is logged by the routine's
+     * index in {@link #getNames()}.
+     *
+     * @param name The name it was registered with.
+     * @return The routine, or null if there is none by that name.
+     */
+    public Constants.AutonomousRoutine get(String name) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.routine == null) {
+            long start = System.nanoTime();
+            entry.routine = new Constants.AutonomousRoutine(entry.factory.get(), entry.initialPose);
+            BUILT.log(entry.index, (System.nanoTime() - start) * 1e-6);
+        }
+        return entry.routine;
+    }
+
+    /**
+     * Returns the name of the routine selected on the dashboard, or the first one if the chooser
+     * has not been published.
+     */
+    public String getSelectedName() {
+        if (chooser != null && chooser.getSelected() != null) {
+            return chooser.getSelected();
+        }
+        return entries.isEmpty() ? null : entries.keySet().iterator().next();
+    }
+
+    /**
+     * Returns the selected routine, building it now if {@link #prebuildSelected()} has not.
+     */
+    public Constants.AutonomousRoutine getSelected() {
+        String name = getSelectedName();
+        return name == null ? null : get(name);
+    }
+
+    /**
+     * Builds the selected routine if the selection changed. Cheap to call every disabled cycle.
+     */
+    public void prebuildSelected() {
+        String name = getSelectedName();
+        if (name != null && !name.equals(prebuilt)) {
+            get(name);
+            prebuilt = name;
+        }
+    }
+}
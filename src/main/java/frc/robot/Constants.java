@@ -2,18 +2,14 @@ package frc.robot;
 
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
 import frc.robot.commands.Aim;
 import frc.robot.commands.DriveToPose;
+import frc.robot.commands.FollowTrajectory;
 import frc.robot.commands.Gather;
-import frc.robot.commands.PathPlannerControllerCommand;
 import frc.robot.commands.Shoot;
-import frc.robot.subsystems.Chassis;
-import frc.robot.utilities.Utils;
-
-import java.util.Map;
-
-import com.pathplanner.lib.PathPlanner;
-import com.pathplanner.lib.PathPlannerTrajectory;
+import frc.robot.utilities.CompiledTrajectory;
+import frc.robot.utilities.TrajectoryLibrary;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -66,41 +62,46 @@ public class Constants {
     public static final double TARGET_OFFSET_ANGLE = Units.degreesToRadians(9.75);
 
     // AUTO PATHS
-    public static final Map<String, PathPlannerTrajectory> AUTO_PATHS = Map.of(
-        "Drive Backwards", PathPlanner.loadPath("Drive Backwards", Chassis.MAX_DRIVE_SPEED, Chassis.MAX_DRIVE_ACCELERATION),
-        "Bottom 2 Ball", PathPlanner.loadPath("Bottom 2 Ball", Chassis.MAX_DRIVE_SPEED, Chassis.MAX_DRIVE_ACCELERATION)
-        
-    );
-    
-    public static final AutonomousRoutine[] AUTO_ROUTINES = {
-        new AutonomousRoutine(
-                new DriveToPose(new Pose2d(4.39, 4.09, new Rotation2d(0.0)), 0.1).andThen(
+    // Compiled from src/main/deploy/pathplanner by `./gradlew compileTrajectories`, mapped in the background
+    public static final TrajectoryLibrary AUTO_PATHS = TrajectoryLibrary.deployed();
+
+    /**
+     * Follows one of the {@link #AUTO_PATHS}, or does nothing if it was not deployed.
+     */
+    private static Command followPath(String name) {
+        CompiledTrajectory trajectory = AUTO_PATHS.get(name);
+        if (trajectory == null) {
+            return new InstantCommand();
+        }
+        return new FollowTrajectory(RobotContainer.CHASSIS, trajectory);
+    }
+
+    // Built the first time they are selected, see AutoRoutineRegistry
+    public static final AutoRoutineRegistry AUTO_ROUTINES = new AutoRoutineRegistry()
+        .register("Taxi and Shoot", new Pose2d(6.09, 4.09, new Rotation2d(0.0)),
+            () -> new DriveToPose(new Pose2d(4.39, 4.09, new Rotation2d(0.0)), 0.1).andThen(
+                new Aim(),
+                new Shoot().deadlineWith(new Aim())))
+        .register("Top 2 Ball", new Pose2d(7.01, 4.74, Rotation2d.fromDegrees(159.04)),
+            () -> new DriveToPose(new Pose2d(5.06, 6.16, Rotation2d.fromDegrees(129.19)), 0.1).alongWith(new Gather(false)).andThen(
+                RobotContainer.CHASSIS.headingCommand(Units.degreesToRadians(340.0)),
+                new Aim(),
+                new Shoot().deadlineWith(new Aim())))
+        .register("Bottom 2 Ball", new Pose2d(7.65, 2.87, Rotation2d.fromDegrees(-110.56 + 360.0)),
+            () -> new DriveToPose(new Pose2d(5.20, 1.92, Rotation2d.fromDegrees(-163.93 + 360.0)), 0.1).alongWith(new Gather(false)).andThen(
+                RobotContainer.CHASSIS.headingCommand(Units.degreesToRadians(40.0)),
                 new Aim(),
-                new Shoot().deadlineWith(new Aim())),
-            new Pose2d(6.09, 4.09, new Rotation2d(0.0))
-        ),
-        new AutonomousRoutine(
-                new DriveToPose(new Pose2d(5.06, 6.16, Rotation2d.fromDegrees(129.19)), 0.1).alongWith(new Gather(false)).andThen(
-                    RobotContainer.CHASSIS.headingCommand(Units.degreesToRadians(340.0)),
-                    new Aim(),
-                    new Shoot().deadlineWith(new Aim())),
-            new Pose2d(7.01, 4.74, Rotation2d.fromDegrees(159.04))
-        ),
-        new AutonomousRoutine(
-                new DriveToPose(new Pose2d(5.20, 1.92, Rotation2d.fromDegrees(-163.93 + 360.0)), 0.1).alongWith(new Gather(false)).andThen(
-                    RobotContainer.CHASSIS.headingCommand(Units.degreesToRadians(40.0)),
-                    new Aim(),
-                    new Shoot().deadlineWith(new Aim())),
-            new Pose2d(7.65, 2.87, Rotation2d.fromDegrees(-110.56 + 360.0))
-        ),
-    };
+                new Shoot().deadlineWith(new Aim())))
+        // Last, so the AUTO_ROUTINE preference still picks the same routines by index
+        .register("Taxi Path", new Pose2d(6.09, 4.09, new Rotation2d(0.0)),
+            () -> followPath("Taxi"));
 
     public static class AutonomousRoutine {
 
         public final Pose2d INITIAL_POSE;
         public final Command COMMAND;
 
-        private AutonomousRoutine(Command command, Pose2d initialPose) {
+        AutonomousRoutine(Command command, Pose2d initialPose) {
             this.COMMAND = command;
             this.INITIAL_POSE = initialPose;
         }
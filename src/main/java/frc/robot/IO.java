@@ -11,51 +11,66 @@ import edu.wpi.first.wpilibj.XboxController;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.GenericHID;
-import edu.wpi.first.wpilibj2.command.button.JoystickButton;
+import edu.wpi.first.wpilibj.DriverStation;
+
+import frc.robot.architecture.TelemetrySource;
+import frc.robot.math.AngleMath;
+import frc.robot.utilities.Clock;
+
+import static frc.robot.utilities.AxisTransforms.deadbandTransform;
+import static frc.robot.utilities.AxisTransforms.exponentialTransform;
+import static frc.robot.utilities.AxisTransforms.precompile;
 
 /**
  * This class is the glue that binds the controls on the physical operator
  * interface to the commands
  * and command groups that allow control of the robot.
+ *
+ * <p>
+ * Every axis, POV and button is read from the Driver Station once per cycle by {@link #latch()},
+ * so everything the robot reads during a cycle comes from the same packet and reading input never
+ * queries the HID again or allocates.
  */
 public final class IO {
 
     private static final double AXIS_CLICK_THRESHOLD = 0.01;
 
+    /** Sample the axis transforms into lookup tables instead of evaluating them every cycle. */
+    private static final boolean PRECOMPILE_TRANSFORMS = true;
+
     public enum Button {
-        DriverA(DRIVER, XboxController.Button.kA.value),
-        DriverB(DRIVER, XboxController.Button.kB.value),
-        DriverX(DRIVER, XboxController.Button.kX.value),
-        DriverY(DRIVER, XboxController.Button.kY.value),
-        DriverLeftBumper(DRIVER, XboxController.Button.kLeftBumper.value),
-        DriverRightBumper(DRIVER, XboxController.Button.kRightBumper.value),
-        DriverLeftStick(DRIVER, XboxController.Button.kLeftStick.value),
-        DriverRightStick(DRIVER, XboxController.Button.kRightStick.value),
-        DriverStart(DRIVER, XboxController.Button.kStart.value),
-        DriverBack(DRIVER, XboxController.Button.kBack.value),
+        DriverA(Controller.Driver, XboxController.Button.kA.value),
+        DriverB(Controller.Driver, XboxController.Button.kB.value),
+        DriverX(Controller.Driver, XboxController.Button.kX.value),
+        DriverY(Controller.Driver, XboxController.Button.kY.value),
+        DriverLeftBumper(Controller.Driver, XboxController.Button.kLeftBumper.value),
+        DriverRightBumper(Controller.Driver, XboxController.Button.kRightBumper.value),
+        DriverLeftStick(Controller.Driver, XboxController.Button.kLeftStick.value),
+        DriverRightStick(Controller.Driver, XboxController.Button.kRightStick.value),
+        DriverStart(Controller.Driver, XboxController.Button.kStart.value),
+        DriverBack(Controller.Driver, XboxController.Button.kBack.value),
         DriverLeftTrigger(IO.Axis.DriverLeftTrigger::get),
         DriverRightTrigger(IO.Axis.DriverRightTrigger::get),
-        ManipulatorA(MANIPULATOR, XboxController.Button.kA.value),
-        ManipulatorB(MANIPULATOR, XboxController.Button.kB.value),
-        ManipulatorX(MANIPULATOR, XboxController.Button.kX.value),
-        ManipulatorY(MANIPULATOR, XboxController.Button.kY.value),
-        ManipulatorLeftBumper(MANIPULATOR, XboxController.Button.kLeftBumper.value),
-        ManipulatorRightBumper(MANIPULATOR, XboxController.Button.kRightBumper.value),
-        ManipulatorLeftStick(MANIPULATOR, XboxController.Button.kLeftStick.value),
-        ManipulatorRightStick(MANIPULATOR, XboxController.Button.kRightStick.value),
-        ManipulatorStart(MANIPULATOR, XboxController.Button.kStart.value),
-        ManipulatorBack(MANIPULATOR, XboxController.Button.kBack.value),
+        ManipulatorA(Controller.Manipulator, XboxController.Button.kA.value),
+        ManipulatorB(Controller.Manipulator, XboxController.Button.kB.value),
+        ManipulatorX(Controller.Manipulator, XboxController.Button.kX.value),
+        ManipulatorY(Controller.Manipulator, XboxController.Button.kY.value),
+        ManipulatorLeftBumper(Controller.Manipulator, XboxController.Button.kLeftBumper.value),
+        ManipulatorRightBumper(Controller.Manipulator, XboxController.Button.kRightBumper.value),
+        ManipulatorLeftStick(Controller.Manipulator, XboxController.Button.kLeftStick.value),
+        ManipulatorRightStick(Controller.Manipulator, XboxController.Button.kRightStick.value),
+        ManipulatorStart(Controller.Manipulator, XboxController.Button.kStart.value),
+        ManipulatorBack(Controller.Manipulator, XboxController.Button.kBack.value),
         ManipulatorLeftTrigger(IO.Axis.ManipulatorLeftTrigger::get),
         ManipulatorRightTrigger(IO.Axis.ManipulatorRightTrigger::get);
 
         public final edu.wpi.first.wpilibj2.command.button.Button value;
 
-        Button(GenericHID hid, int buttonId) {
-            value = new JoystickButton(hid, buttonId);
+        Button(Controller controller, int buttonId) {
+            this(() -> controller.isPressed(buttonId));
         }
 
         Button(DoubleSupplier axis) {
@@ -67,6 +82,42 @@ public final class IO {
         }
     }
 
+    /** The buttons and POV of each controller, as latched this cycle. */
+    public enum Controller {
+        Driver(0),
+        Manipulator(1);
+
+        public final int PORT;
+
+        private int buttons = 0;
+        private int pov = -1;
+
+        Controller(int port) {
+            PORT = port;
+        }
+
+        private void latch() {
+            buttons = DriverStation.getStickButtons(PORT);
+            pov = DriverStation.getStickPOV(PORT, 0);
+        }
+
+        /**
+         * Returns whether a button was held when input was latched.
+         *
+         * @param buttonId The button number, starting at 1.
+         */
+        public boolean isPressed(int buttonId) {
+            return (buttons & (1 << (buttonId - 1))) != 0;
+        }
+
+        /**
+         * Returns the angle of the POV (degrees clockwise from up), or -1 if it is not pressed.
+         */
+        public int getPOV() {
+            return pov;
+        }
+    }
+
     public enum Axis {
         /** Increasing to the right */
         DriverLeftX(DRIVER::getLeftX),
@@ -93,26 +144,94 @@ public final class IO {
         /** Positive only */
         ManipulatorRightTrigger(MANIPULATOR::getRightTriggerAxis);
 
+        private final DoubleSupplier hardwareSupplier;
         private DoubleSupplier valueSupplier;
-        private DoubleSupplier outputSupplier;
+        private DoubleUnaryOperator transform = DoubleUnaryOperator.identity();
+
+        // Latched once per cycle
+        private double raw = 0.0;
+        private double value = 0.0;
 
         Axis(DoubleSupplier value) {
+            this.hardwareSupplier = value;
             this.valueSupplier = value;
-            this.outputSupplier = valueSupplier;
         }
 
-        private void addTransform(Function<Double, Double> transform) {
-            this.outputSupplier = () -> transform.apply(this.valueSupplier.getAsDouble());
+        private void addTransform(DoubleUnaryOperator transform) {
+            this.transform = PRECOMPILE_TRANSFORMS ? precompile(transform) : transform;
+        }
+
+        /**
+         * Applies a deadband, then a continuous transform. The deadband is never sampled into a
+         * table, so a stick resting inside it reads exactly 0.
+         */
+        private void addTransform(double deadband, DoubleUnaryOperator transform) {
+            this.transform = PRECOMPILE_TRANSFORMS ? precompile(deadband, transform)
+                : deadbandTransform(deadband).andThen(transform);
+        }
+
+        private void latch() {
+            raw = valueSupplier.getAsDouble();
+            value = transform.applyAsDouble(raw);
         }
 
+        /**
+         * Returns the transformed value latched this cycle.
+         */
         public double get() {
-            return outputSupplier.getAsDouble();
+            return value;
+        }
+
+        /**
+         * Returns the value latched this cycle before any transforms are applied.
+         */
+        public double getRaw() {
+            return raw;
+        }
+
+        /**
+         * Replaces the controller as the source of raw values (ex. to replay a log). Transforms
+         * are still applied.
+         *
+         * @param source A supplier of raw axis values.
+         */
+        public void setSource(DoubleSupplier source) {
+            this.valueSupplier = source;
+        }
+
+        /**
+         * Reads raw values from the controller again.
+         */
+        public void useController() {
+            this.valueSupplier = hardwareSupplier;
         }
     }
 
-    /** 
-     * An enum holding references to joysticks which obey the robot coordinate system 
-     * 
+    /** Records the raw value of every axis, so a run can be replayed through the transforms. */
+    public static final TelemetrySource AXIS_TELEMETRY = new TelemetrySource() {
+
+        @Override
+        public String[] getTelemetryColumns() {
+            Axis[] axes = Axis.values();
+            String[] columns = new String[axes.length];
+            for (int i = 0; i < axes.length; i++) {
+                columns[i] = "axis/" + axes[i].name();
+            }
+            return columns;
+        }
+
+        @Override
+        public int getTelemetry(double[] row, int offset) {
+            for (Axis axis : AXES) {
+                row[offset++] = axis.getRaw();
+            }
+            return offset;
+        }
+    };
+
+    /**
+     * An enum holding references to joysticks which obey the robot coordinate system
+     *
      * x is forward
      * y is leftward
      * angles are in radians increasing counter-clockwise
@@ -120,41 +239,49 @@ public final class IO {
     public enum Joystick {
         DriverLeft(() -> -IO.Axis.DriverLeftY.get(), () -> -IO.Axis.DriverLeftX.get(), true),
         DriverRight(() -> -IO.Axis.DriverRightY.get(), () -> -IO.Axis.DriverRightX.get(), true),
-        DriverDPad(() -> -DRIVER.getPOV() != -1 ? Math.cos(Units.degreesToRadians(-DRIVER.getPOV())) : 0, () -> -DRIVER.getPOV() != -1 ? Math.sin(Units.degreesToRadians(-DRIVER.getPOV())) : 0, false),
+        DriverDPad(() -> povX(Controller.Driver), () -> povY(Controller.Driver), false),
         ManipulatorLeft(() -> -IO.Axis.ManipulatorLeftY.get(), () -> -IO.Axis.ManipulatorLeftX.get(), true),
         ManipulatorRight(() -> -IO.Axis.ManipulatorRightY.get(), () -> -IO.Axis.ManipulatorRightX.get(), true),
-        ManipulatorDPad(() -> -MANIPULATOR.getPOV() != -1 ? Math.cos(Units.degreesToRadians(-MANIPULATOR.getPOV())) : 0, () -> -MANIPULATOR.getPOV() != -1 ? Math.sin(Units.degreesToRadians(-MANIPULATOR.getPOV())) : 0, false);
+        ManipulatorDPad(() -> povX(Controller.Manipulator), () -> povY(Controller.Manipulator), false);
 
-        private DoubleSupplier xSupplier, ySupplier;
+        private final DoubleSupplier xSupplier, ySupplier;
+        private final boolean remap;
 
+        // Latched once per cycle
         private double x, y;
 
         /**
          * Constructs a joystick with built-in normalization and a standard cooridnate system.
-         * 
+         *
          * @param x forward [-1, 1]
          * @param y leftward [-1, 1]
          * @param remap whether to remap cooridates to a circle
          */
         Joystick(DoubleSupplier x, DoubleSupplier y, boolean remap) {
+            this.xSupplier = x;
+            this.ySupplier = y;
+            this.remap = remap;
+        }
+
+        /**
+         * Reads both coordinates together, after the axes have been latched.
+         */
+        private void latch() {
+            double rawX = xSupplier.getAsDouble();
+            double rawY = ySupplier.getAsDouble();
             if (remap) {
-                xSupplier = () -> remap(x.getAsDouble(), y.getAsDouble());
-                ySupplier = () -> remap(y.getAsDouble(), x.getAsDouble());
+                x = remap(rawX, rawY);
+                y = remap(rawY, rawX);
             } else {
-                xSupplier = x;
-                ySupplier = y;
+                x = rawX;
+                y = rawY;
             }
         }
 
-        private void update() {
-            x = xSupplier.getAsDouble();
-            y = ySupplier.getAsDouble();
-        }
-
         /**
          * @return the circular remapping of `a` with reference to `b`
          */
-        private double remap(double a, double b) {
+        private static double remap(double a, double b) {
             return a * Math.sqrt(1 - b * b / 2);
         }
 
@@ -162,7 +289,6 @@ public final class IO {
          * @return the displacement forward
          */
         public double getForward() {
-            update();
             return x;
         }
 
@@ -170,35 +296,50 @@ public final class IO {
          * @return the displacement leftward
          */
         public double getLeftward() {
-            update();
             return y;
         }
 
         /**
-         * @return the angle counter-clockwise from the x-axis [0, 2pi]
+         * @return the angle counter-clockwise from the x-axis [0, 2pi)
          */
         public double getAngle() {
-            update();
-            return Math.atan2(y, x) + y > 0 ? 0 : 2 * Math.PI;
+            return AngleMath.normalize(Math.atan2(y, x));
         }
 
         public double getMagnitude() {
-            update();
             return Math.sqrt(x*x + y*y);
         }
     }
 
+    private static double povX(Controller controller) {
+        int pov = controller.getPOV();
+        return pov != -1 ? Math.cos(Units.degreesToRadians(-pov)) : 0;
+    }
+
+    private static double povY(Controller controller) {
+        int pov = controller.getPOV();
+        return pov != -1 ? Math.sin(Units.degreesToRadians(-pov)) : 0;
+    }
+
     private static boolean initialized = false;
 
     public static final XboxController DRIVER = new XboxController(0);
     public static final XboxController MANIPULATOR = new XboxController(1);
 
+    /** Cached, since {@code values()} allocates. Must come after the controllers. */
+    private static final Axis[] AXES = Axis.values();
+    private static final Controller[] CONTROLLERS = Controller.values();
+    private static final Joystick[] JOYSTICKS = Joystick.values();
+
+    private static double latchTimestamp = 0.0;
+    private static long latchNanos = 0;
+
     public IO() {
         if (!initialized) {
-            Axis.DriverLeftX.addTransform(deadbandTransform(0.1).andThen(exponentialTransform(30)));
-            Axis.DriverLeftY.addTransform(deadbandTransform(0.1).andThen(exponentialTransform(30)));
-            Axis.DriverRightX.addTransform(deadbandTransform(0.1).andThen(exponentialTransform(30)));
-            Axis.DriverRightY.addTransform(deadbandTransform(0.1).andThen(exponentialTransform(30)));
+            Axis.DriverLeftX.addTransform(0.1, exponentialTransform(30));
+            Axis.DriverLeftY.addTransform(0.1, exponentialTransform(30));
+            Axis.DriverRightX.addTransform(0.1, exponentialTransform(30));
+            Axis.DriverRightY.addTransform(0.1, exponentialTransform(30));
             Axis.ManipulatorLeftTrigger.addTransform(exponentialTransform(10));
             Axis.ManipulatorRightTrigger.addTransform(exponentialTransform(10));
 
@@ -208,23 +349,36 @@ public final class IO {
         }
     }
 
-    /** Create a transform which includes deadband.
-     * 
-     * f(x) = { x if |x| >= a else 0 }
-     * 
-     * @param deadband a
+    /**
+     * Samples every axis, POV and button. Call once at the start of each cycle, before the
+     * scheduler polls buttons and runs commands.
+     */
+    public static void latch() {
+        latchNanos = System.nanoTime();
+        latchTimestamp = Clock.now();
+        for (Axis axis : AXES) {
+            axis.latch();
+        }
+        for (Controller controller : CONTROLLERS) {
+            controller.latch();
+        }
+        for (Joystick joystick : JOYSTICKS) {
+            joystick.latch();
+        }
+    }
+
+    /**
+     * Returns when input was last latched (s, same time base as {@code Clock}).
      */
-    private Function<Double, Double> deadbandTransform(double deadband) {
-        return (value) -> Math.abs(value) > deadband ? value : 0;
+    public static double getLatchTimestamp() {
+        return latchTimestamp;
     }
 
-    /** Create a transform which makes the magnitude exponential which retaining a range [-1, 1]
-     * 
-     * f(x) = x/|x| * (a^|x| - 1) / (a - 1)
-     * 
-     * @param exponent a
+    /**
+     * Returns when input was last latched, from {@code System.nanoTime()}, to start a
+     * {@code LatencyTracer} trace.
      */
-    private Function<Double, Double> exponentialTransform(double exponent) {
-        return (value) -> Math.signum(value) * ((Math.pow(exponent, Math.abs(value)) - 1) / (exponent - 1));
+    public static long getLatchNanos() {
+        return latchNanos;
     }
 }
@@ -24,6 +24,8 @@ public final class Main {
    * If you change your main robot class, change the parameter type.
    */
   public static void main(String... args) {
-    RobotBase.startRobot(Robot::new);
+    // Startup is timed from here, the JVM boot before it is reported separately
+    long mainNanos = System.nanoTime();
+    RobotBase.startRobot(() -> new Robot(mainNanos));
   }
 }
@@ -7,9 +7,19 @@
 
 package frc.robot;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.components.MotorConfigurator;
+import frc.robot.utilities.AllocationMonitor;
+import frc.robot.utilities.CachedDouble;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.TelemetryLog;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -19,17 +29,56 @@ import edu.wpi.first.wpilibj2.command.CommandScheduler;
  */
 public class Robot extends TimedRobot {
 
+    private static final LatencyHistogram PERIODIC_TIME = LoopProfiler.histogram("Robot.robotPeriodic");
+    private static final LatencyHistogram SCHEDULER_TIME = LoopProfiler.histogram("CommandScheduler.run");
+    private static final RuntimeMXBean RUNTIME = ManagementFactory.getRuntimeMXBean();
+
     private Command m_autonomousCommand;
 
+    /** When {@code Main} started, from {@code System.nanoTime()}. */
+    private final long mainNanos;
+
     private RobotContainer robotContainer = new RobotContainer();
-    
+
+    /** Counts the garbage made by each cycle of the main robot thread. */
+    private final AllocationMonitor allocations = new AllocationMonitor();
+
+    /**
+     * Creates the robot.
+     *
+     * @param mainNanos When {@code Main} started, from {@code System.nanoTime()}, so startup is
+     *        timed from there.
+     */
+    public Robot(long mainNanos) {
+        this.mainNanos = mainNanos;
+    }
+
     /**
      * This function is run when the robot is first started up and should be used for any
      * initialization code.
      */
     @Override
     public void robotInit() {
+        long start = System.nanoTime();
+        // Map the compiled autonomous paths in the background while everything else starts
+        Constants.AUTO_PATHS.preload();
         robotContainer.init();
+        MotorConfigurator.report();
+        LoopProfiler.publish();
+        SmartDashboard.putData("Allocations", allocations);
+        RobotContainer.CHASSIS.startTelemetry(TelemetryLog.defaultDirectory(), IO.AXIS_TELEMETRY, allocations);
+        Constants.AUTO_ROUTINES.publish();
+
+        // From Main to here, the JVM boot before Main is out of the robot code's hands
+        long end = System.nanoTime();
+        double total = (end - mainNanos) * 1e-6;
+        double init = (end - start) * 1e-6;
+        double jvm = RUNTIME.getUptime() - total;
+        System.out.printf("Startup took %.0f ms from Main, %.0f ms of it in robotInit (JVM boot %.0f ms before Main)%n",
+            total, init, jvm);
+        SmartDashboard.putNumber("Startup/Total (ms)", total);
+        SmartDashboard.putNumber("Startup/robotInit (ms)", init);
+        SmartDashboard.putNumber("Startup/JVM boot (ms)", jvm);
     }
 
     /**
@@ -42,11 +91,22 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
+        long start = System.nanoTime();
+        allocations.cycle();
+
+        // Sensors are sampled at most once per cycle, start a new one.
+        CachedDouble.nextCycle();
+        // Operator input is sampled once per cycle too, before buttons are polled.
+        IO.latch();
+
         // Runs the Scheduler. This is responsible for polling buttons, adding newly-scheduled
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods. This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
+        long schedulerStart = System.nanoTime();
         CommandScheduler.getInstance().run();
+        SCHEDULER_TIME.recordSince(schedulerStart);
+        PERIODIC_TIME.recordSince(start);
     }
 
     /**
@@ -63,7 +123,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledPeriodic() {
-
+        // Build the routine picked on the dashboard now rather than in autonomousInit
+        Constants.AUTO_ROUTINES.prebuildSelected();
     }
 
     /**
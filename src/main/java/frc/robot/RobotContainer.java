@@ -8,7 +8,6 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.GenericHID;
-import edu.wpi.first.wpilibj.Preferences;
 import edu.wpi.first.wpilibj.XboxController;
 import frc.robot.commands.DriveWithJoysticks;
 import frc.robot.subsystems.Chassis;
@@ -27,10 +26,9 @@ public class RobotContainer {
     @SuppressWarnings("unused")
     private static final IO _IO = new IO();
 
-    public static final Chassis CHASSIS = new Chassis();
+    public static final Chassis CHASSIS = Chassis.createRobotChassis();
 
     public static final PowerDistribution POWER_DISTRIBUTION = new PowerDistribution();
-    public static final Constants.AutonomousRoutine AUTONOMOUS_ROUTINE = Constants.AUTO_ROUTINES[Preferences.getInt("AUTO_ROUTINE", 0)];
 
     private final DriveWithJoysticks DRIVE_COMMAND = new DriveWithJoysticks(true);
     /**
@@ -46,6 +44,7 @@ public class RobotContainer {
      * @return the command to run in autonomous
      */
     public Command getAutonomousCommand() {
-        return AUTONOMOUS_ROUTINE.COMMAND;
+        Constants.AutonomousRoutine routine = Constants.AUTO_ROUTINES.getSelected();
+        return routine != null ? routine.COMMAND : null;
     }
 }
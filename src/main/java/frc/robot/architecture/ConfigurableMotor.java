@@ -0,0 +1,80 @@
+package frc.robot.architecture;
+
+/**
+ * Defines the configuration shared by motors with an onboard PID controller, such as a SparkMax.
+ *
+ * Gains are in the output shaft units used by {@code SpeedMotor} and {@code PositionMotor}
+ * (radians and rad/s), with the controller output as duty cycle [-1, 1].
+ */
+public interface ConfigurableMotor extends SpeedMotor, PositionMotor {
+
+    @Override
+    public default void init() {}
+
+    @Override
+    public default void periodic() {}
+
+    @Override
+    public double getAppliedOutput();
+
+    @Override
+    public double getOutputCurrent();
+
+    public void setP(double gain, int pidSlot);
+
+    public void setI(double gain, int pidSlot);
+
+    public void setD(double gain, int pidSlot);
+
+    public void setFF(double gain, int pidSlot);
+
+    public void setIZone(double iZone, int pidSlot);
+
+    public void setIMaxAccum(double iMaxAccum, int pidSlot);
+
+    public void setOutputRange(double min, double max, int pidSlot);
+
+    /**
+     * Sets the ratio from the motor shaft to the output shaft.
+     *
+     * @param gearRatio the ratio motor_shaft_rotations / output_shaft_rotations
+     */
+    public void setGearRatio(double gearRatio);
+
+    public double getGearRatio();
+
+    public void setInverted(boolean inverted);
+
+    /**
+     * Sets whether the motor brakes or coasts when not driven.
+     *
+     * @param brake true to brake, false to coast
+     */
+    public void setBrakeMode(boolean brake);
+
+    /**
+     * Sets the current limit, scaling from the stall limit at zero speed to the free limit.
+     *
+     * @param stallLimit the current limit (Amps) at zero speed
+     * @param freeLimit the current limit (Amps) at free speed
+     */
+    public void setCurrentLimit(int stallLimit, int freeLimit);
+
+    /**
+     * Returns whether the setters wait on the hardware, ex. for a SparkMax to acknowledge each
+     * setting over CAN, so they are worth applying on another thread.
+     */
+    public default boolean isConfigurationBlocking() {
+        return false;
+    }
+
+    /**
+     * Returns the PID slot currently being used for velocity commands.
+     */
+    public int getSpeedPid();
+
+    /**
+     * Returns the PID slot currently being used for position commands.
+     */
+    public int getPositionPid();
+}
@@ -4,11 +4,12 @@
 
 package frc.robot.architecture;
 
-import edu.wpi.first.wpilibj.geometry.Pose2d;
-import edu.wpi.first.wpilibj.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
 /** Provides a base from which all {@code Drive} systems must inherit. */
-public abstract class Drive {
+public abstract class Drive implements TelemetrySource {
 
     /**
      * Requests the {@code Drive} to move at the desired speeds.
@@ -60,5 +61,53 @@ public abstract class Drive {
      */
     public abstract Pose2d getCurrentPose();
 
+    /**
+     * Looks up where odometry placed the robot at a past time, interpolating between samples.
+     * 
+     * @param timestamp The time (s, same time base as {@code Clock}) to look up.
+     * @param pose Output array of {x, y, theta}.
+     * @return false if there is no history, in which case {@code pose} is untouched.
+     */
+    public abstract boolean samplePoseAt(double timestamp, double[] pose);
+
+    /**
+     * Looks up where odometry placed the robot at a past time, ex. when a vision frame was taken.
+     * 
+     * @param timestamp The time (s, same time base as {@code Clock}) to look up.
+     * @return The interpolated pose, or the current pose if there is no history.
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        double[] pose = new double[3];
+        if (!samplePoseAt(timestamp, pose)) {
+            return getCurrentPose();
+        }
+        return new Pose2d(pose[0], pose[1], new Rotation2d(pose[2]));
+    }
+
+    /**
+     * Creates a holder sized for this {@code Drive}, to be reused with {@link #readState}.
+     *
+     * @return A new {@code DriveState}.
+     */
+    public abstract DriveState createState();
+
+    /**
+     * Copies the most recently published pose, chassis speeds and module states into the given
+     * holder. Safe to call from any thread, and never blocks the thread updating the {@code Drive}.
+     *
+     * @param state A holder created by {@link #createState()}.
+     */
+    public abstract void readState(DriveState state);
+
+    @Override
+    public String[] getTelemetryColumns() {
+        return new String[0];
+    }
+
+    @Override
+    public int getTelemetry(double[] row, int offset) {
+        return offset;
+    }
+
     public abstract void reset();
 }
@@ -0,0 +1,127 @@
+package frc.robot.architecture;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.utilities.SeqLock;
+
+/**
+ * A mutable holder for a snapshot of the state of a {@code Drive} system: the pose, the chassis
+ * speeds and the measured state of each module, all from the same sample.
+ *
+ * Create one per reader and reuse it, see {@link Drive#readState(DriveState)}.
+ */
+public class DriveState {
+
+    private static final int HEADER_SIZE = 7;
+
+    /** Where the pose is in a published state, to read one value with {@link SeqLock#read(int)}. */
+    public static final int X_INDEX = 1, Y_INDEX = 2, THETA_INDEX = 3;
+
+    /** The time the state was sampled (s). */
+    public double timestamp;
+
+    /** Field-relative pose, x forward (m), y leftward (m), theta counter-clockwise (rad). */
+    public double x, y, theta;
+
+    /** Robot-relative chassis speeds (m/s, m/s, rad/s). */
+    public double vx, vy, omega;
+
+    /** The measured angle (rad) of each module. */
+    public final double[] moduleAngles;
+
+    /** The measured speed (m/s) of each module. */
+    public final double[] moduleSpeeds;
+
+    /** The version of the published state this was copied from. */
+    public long version;
+
+    private final double[] buffer;
+
+    public DriveState(int moduleCount) {
+        moduleAngles = new double[moduleCount];
+        moduleSpeeds = new double[moduleCount];
+        buffer = new double[payloadSize(moduleCount)];
+    }
+
+    /**
+     * Returns the number of doubles needed to store the state of a drive with the given number of
+     * modules.
+     */
+    public static int payloadSize(int moduleCount) {
+        return HEADER_SIZE + 2 * moduleCount;
+    }
+
+    /**
+     * Serializes this state into a flat array of {@link #payloadSize(int)} doubles.
+     */
+    public void writeTo(double[] payload) {
+        payload[0] = timestamp;
+        payload[X_INDEX] = x;
+        payload[Y_INDEX] = y;
+        payload[THETA_INDEX] = theta;
+        payload[4] = vx;
+        payload[5] = vy;
+        payload[6] = omega;
+        int n = moduleAngles.length;
+        System.arraycopy(moduleAngles, 0, payload, HEADER_SIZE, n);
+        System.arraycopy(moduleSpeeds, 0, payload, HEADER_SIZE + n, n);
+    }
+
+    /**
+     * Deserializes this state from a flat array written by {@link #writeTo(double[])}.
+     */
+    public void readFrom(double[] payload) {
+        timestamp = payload[0];
+        x = payload[X_INDEX];
+        y = payload[Y_INDEX];
+        theta = payload[THETA_INDEX];
+        vx = payload[4];
+        vy = payload[5];
+        omega = payload[6];
+        int n = moduleAngles.length;
+        System.arraycopy(payload, HEADER_SIZE, moduleAngles, 0, n);
+        System.arraycopy(payload, HEADER_SIZE + n, moduleSpeeds, 0, n);
+    }
+
+    /**
+     * Publishes this state through a {@code SeqLock} of {@link #payloadSize(int)} doubles. Writers
+     * must be serialized.
+     */
+    public void publishTo(SeqLock lock) {
+        double[] payload = lock.beginWrite();
+        writeTo(payload);
+        lock.endWrite();
+    }
+
+    /**
+     * Copies the most recently published state out of a {@code SeqLock} without blocking the writer.
+     */
+    public void readFrom(SeqLock lock) {
+        version = lock.read(buffer);
+        readFrom(buffer);
+    }
+
+    /**
+     * Copies this state into another holder.
+     */
+    public void copyTo(DriveState other) {
+        writeTo(other.buffer);
+        other.readFrom(other.buffer);
+        other.version = version;
+    }
+
+    /**
+     * Creates a {@code Pose2d} from this state. Allocates.
+     */
+    public Pose2d toPose() {
+        return new Pose2d(x, y, new Rotation2d(theta));
+    }
+
+    /**
+     * Creates a {@code ChassisSpeeds} from this state. Allocates.
+     */
+    public ChassisSpeeds toChassisSpeeds() {
+        return new ChassisSpeeds(vx, vy, omega);
+    }
+}
@@ -0,0 +1,14 @@
+package frc.robot.architecture;
+
+/**
+ * Defines a sensor which measures the heading of the robot.
+ *
+ * Positions are in radians and speeds in rad/s, both increasing counter-clockwise.
+ */
+public interface Gyro extends PositionEncoder, SpeedEncoder {
+
+    /**
+     * Calibrates the sensor. The robot must be still while this runs.
+     */
+    public default void calibrate() {}
+}
@@ -1,5 +1,7 @@
 package frc.robot.architecture;
 
+import frc.robot.math.AngleMath;
+
 public interface PositionEncoder {
 
 
@@ -17,7 +19,7 @@ public interface PositionEncoder {
      * @return The current angle the output shaft is facing in radians [0, 2PI).
      */
     public default double getCurrentAngle() {
-        return getCurrentPosition() % (2* Math.PI);
+        return AngleMath.normalize(getCurrentPosition());
     };
     
     /**
@@ -1,6 +1,6 @@
 package frc.robot.architecture;
 
-import frc.robot.utilities.Utils;
+import frc.robot.math.AngleMath;
 
 /**
  * Defines the methods for motors which can turn to a specific position.
@@ -30,18 +30,26 @@ public interface PositionMotor extends PositionEncoder {
      * @param angle The angle to face in radians [0, 2PI).
      */
     public default void setDesiredAngle(double angle) {
-        double currentHeading = Utils.normalizeAngle(getCurrentPosition());
-        double desiredHeading = Utils.normalizeAngle(angle);
-        double desiredPosition = getCurrentPosition();
-        if (Math.abs(currentHeading - desiredHeading) < Math.PI) {
-            desiredPosition += desiredHeading - currentHeading;
-        } else if (currentHeading > Math.PI) {
-            desiredPosition += (2 * Math.PI) + desiredHeading - currentHeading;
-        } else {
-            desiredPosition += -(2 * Math.PI) + desiredHeading - currentHeading;
-        }
-        
-        setDesiredPosition(desiredPosition);  
+        // Turn the shortest way from wherever the output shaft has wound up to
+        setDesiredPosition(AngleMath.nearestEquivalent(getCurrentPosition(), angle));
     };
+
+    /**
+     * Returns the duty cycle currently applied to the motor, for telemetry.
+     *
+     * @return The applied output [-1, 1], or 0 if the motor cannot report it.
+     */
+    public default double getAppliedOutput() {
+        return 0.0;
+    }
+
+    /**
+     * Returns the current drawn by the motor, for telemetry.
+     *
+     * @return The current (Amps), or 0 if the motor cannot report it.
+     */
+    public default double getOutputCurrent() {
+        return 0.0;
+    }
 }
 
@@ -22,4 +22,22 @@ public interface SpeedMotor extends SpeedEncoder {
      */
     public void setDesiredSpeed(double speed);
 
+    /**
+     * Returns the duty cycle currently applied to the motor, for telemetry.
+     *
+     * @return The applied output [-1, 1], or 0 if the motor cannot report it.
+     */
+    public default double getAppliedOutput() {
+        return 0.0;
+    }
+
+    /**
+     * Returns the current drawn by the motor, for telemetry.
+     *
+     * @return The current (Amps), or 0 if the motor cannot report it.
+     */
+    public default double getOutputCurrent() {
+        return 0.0;
+    }
+
 }
@@ -0,0 +1,21 @@
+package frc.robot.architecture;
+
+/**
+ * Defines the methods for anything which contributes columns to a {@code TelemetryLog}.
+ */
+public interface TelemetrySource {
+
+    /**
+     * Returns the names of the values written by {@link #getTelemetry(double[], int)}.
+     */
+    public String[] getTelemetryColumns();
+
+    /**
+     * Copies this cycle's telemetry into a row. Must not allocate.
+     *
+     * @param row The row to write into.
+     * @param offset The index of the first value to write.
+     * @return The index after the last value written.
+     */
+    public int getTelemetry(double[] row, int offset);
+}
@@ -9,18 +9,37 @@ package frc.robot.commands;
 
 import frc.robot.IO;
 import frc.robot.RobotContainer;
+import frc.robot.architecture.DriveState;
 import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.LatencyTracer;
+import frc.robot.utilities.LoopProfiler;
 
 public class DriveWithJoysticks extends CommandBase {
+
+    private static final LatencyHistogram EXECUTE_TIME = LoopProfiler.histogram("DriveWithJoysticks.execute");
     
     double lastAngular = 0.0;
     boolean fieldOrient = true;
 
+    private final Chassis chassis;
+    private final DriveState state;
+
     /**
      * Creates a new RobotDriveWithJoysticks.
      */
     public DriveWithJoysticks(boolean fieldOrient) {
-        addRequirements(RobotContainer.CHASSIS);
+        this(RobotContainer.CHASSIS, fieldOrient);
+    }
+
+    /**
+     * Creates a new RobotDriveWithJoysticks which drives the given chassis (ex. during a replay).
+     */
+    public DriveWithJoysticks(Chassis chassis, boolean fieldOrient) {
+        this.chassis = chassis;
+        this.fieldOrient = fieldOrient;
+        this.state = chassis.createState();
+        addRequirements(chassis);
     }
 
     // Called when the command is initially scheduled.
@@ -32,7 +51,10 @@ public class DriveWithJoysticks extends CommandBase {
     // Called every time the scheduler runs while the command is scheduled.
     @Override
     public void execute() {
-        
+        long start = System.nanoTime();
+        long input = IO.getLatchNanos();
+        LatencyTracer.record(LatencyTracer.Stage.COMMAND, input);
+
         double forward = IO.Joystick.DriverLeft.getForward();
         double leftward = IO.Joystick.DriverLeft.getLeftward();
         double angular = IO.Joystick.DriverRight.getLeftward();
@@ -42,15 +64,17 @@ public class DriveWithJoysticks extends CommandBase {
         angular *= Chassis.MAX_TURN_SPEED;
         
         if (lastAngular != 0.0 && angular == 0.0) {
-            RobotContainer.CHASSIS.setHeading(RobotContainer.CHASSIS.getCurrentPose().getRotation().getRadians(), true);
+            chassis.readState(state);
+            chassis.setHeading(state.theta, true);
         }
 
         lastAngular = angular;
         if (fieldOrient) {
-            RobotContainer.CHASSIS.fieldDrive(forward, leftward, angular);
+            chassis.fieldDrive(forward, leftward, angular, input);
         } else {
-            RobotContainer.CHASSIS.robotDrive(forward, leftward, angular);
+            chassis.robotDrive(forward, leftward, angular, input);
         }
+        EXECUTE_TIME.recordSince(start);
     }
 
     public void toggleMode() {
@@ -0,0 +1,158 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.architecture.DriveState;
+import frc.robot.math.AngleMath;
+import frc.robot.math.Vectors;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.CompiledTrajectory;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.ModuleSetpointTable;
+import frc.robot.utilities.SwerveKinematics;
+
+/**
+ * Follows a {@link CompiledTrajectory} by sending precomputed module setpoints.
+ *
+ * <p>
+ * The module angles and speeds are looked up in a {@link ModuleSetpointTable} built when the
+ * command is created. Each cycle only interpolates the table and adds a proportional correction of
+ * the pose error to each module, so no kinematics run while following. The steering rates and
+ * accelerations the modules lead their setpoints by are the table's, plus how fast the correction
+ * changed since the last cycle.
+ */
+public class FollowTrajectory extends CommandBase {
+
+    private static final LatencyHistogram EXECUTE_TIME = LoopProfiler.histogram("FollowTrajectory.execute");
+
+    /** The correction (m/s) per meter of position error. */
+    public static final double TRANSLATION_P = 2.0;
+    /** The correction (rad/s) per radian of rotation error. */
+    public static final double ROTATION_P = 2.0;
+    /** How close (m) to the end to finish. */
+    public static final double POSITION_TOLERANCE = 0.05;
+    /** How long (s) past the end of the trajectory to keep correcting before giving up. */
+    public static final double SETTLE_TIME = 0.5;
+
+    private final Chassis chassis;
+    private final ModuleSetpointTable table;
+    private final SwerveKinematics kinematics;
+    private final ModuleSetpointTable.Setpoint setpoint;
+    private final DriveState state;
+    private final double[] correction = new double[2];
+
+    // The table's setpoints this cycle, before the correction
+    private final double[] tableAngles;
+    private final double[] tableSpeeds;
+    // The correction of each module last cycle
+    private final double[] lastAngleCorrections;
+    private final double[] lastSpeedCorrections;
+    private final boolean[] lastFlipped;
+    private double lastTime;
+    private boolean haveLast;
+
+    private double startTime;
+    private double positionError;
+
+    /**
+     * Creates a command which follows a trajectory, precomputing its module setpoints.
+     *
+     * @param chassis The chassis to drive.
+     * @param trajectory The trajectory to follow.
+     */
+    public FollowTrajectory(Chassis chassis, CompiledTrajectory trajectory) {
+        this(chassis, chassis.createSetpointTable(trajectory));
+    }
+
+    /**
+     * Creates a command which follows precomputed module setpoints.
+     *
+     * @param chassis The chassis to drive.
+     * @param table Module setpoints built for this chassis.
+     */
+    public FollowTrajectory(Chassis chassis, ModuleSetpointTable table) {
+        this.chassis = chassis;
+        this.table = table;
+        this.kinematics = chassis.getKinematics();
+        this.setpoint = table.createSetpoint();
+        this.state = chassis.createState();
+        this.tableAngles = new double[table.getModuleCount()];
+        this.tableSpeeds = new double[table.getModuleCount()];
+        this.lastAngleCorrections = new double[table.getModuleCount()];
+        this.lastSpeedCorrections = new double[table.getModuleCount()];
+        this.lastFlipped = new boolean[table.getModuleCount()];
+        addRequirements(chassis);
+    }
+
+    @Override
+    public void initialize() {
+        startTime = Clock.now();
+        table.sample(0.0, setpoint);
+        positionError = Double.POSITIVE_INFINITY;
+        haveLast = false;
+    }
+
+    @Override
+    public void execute() {
+        long start = System.nanoTime();
+        double time = Clock.now() - startTime;
+        table.sample(time, setpoint);
+        System.arraycopy(setpoint.angles, 0, tableAngles, 0, tableAngles.length);
+        System.arraycopy(setpoint.speeds, 0, tableSpeeds, 0, tableSpeeds.length);
+        chassis.readState(state);
+
+        // Correct the pose error in the robot's frame
+        double errorX = setpoint.x - state.x;
+        double errorY = setpoint.y - state.y;
+        positionError = Math.sqrt(errorX * errorX + errorY * errorY);
+        Vectors.rotate(TRANSLATION_P * errorX, TRANSLATION_P * errorY, -state.theta, correction);
+        double omega = ROTATION_P * AngleMath.shortestDelta(state.theta, setpoint.rotation);
+        kinematics.addChassisSpeeds(correction[0], correction[1], omega, setpoint.angles, setpoint.speeds);
+        addCorrectionRates(time);
+
+        chassis.setModuleSetpoints(setpoint);
+        EXECUTE_TIME.recordSince(start);
+    }
+
+    /**
+     * Adds the rate of the correction to the table's rates, which only describe the uncorrected
+     * setpoints. The correction is measured along the table's wheel direction, since it may flip a
+     * module around to drive the other way. The first cycle, and a cycle where a module flips, only
+     * have the table's rates.
+     */
+    private void addCorrectionRates(double time) {
+        double dt = time - lastTime;
+        boolean differentiate = haveLast && dt > 0.0;
+        for (int i = 0; i < tableAngles.length; i++) {
+            boolean flipped = Math.abs(AngleMath.shortestDelta(tableAngles[i], setpoint.angles[i])) > Math.PI / 2;
+            double angleCorrection = ModuleSetpointTable.steerDelta(tableAngles[i], setpoint.angles[i]);
+            double speedCorrection = (flipped ? -setpoint.speeds[i] : setpoint.speeds[i]) - tableSpeeds[i];
+            double acceleration = setpoint.accelerations[i];
+            if (differentiate && flipped == lastFlipped[i]) {
+                setpoint.steerRates[i] += (angleCorrection - lastAngleCorrections[i]) / dt;
+                acceleration += (speedCorrection - lastSpeedCorrections[i]) / dt;
+            }
+            setpoint.accelerations[i] = flipped ? -acceleration : acceleration;
+            lastAngleCorrections[i] = angleCorrection;
+            lastSpeedCorrections[i] = speedCorrection;
+            lastFlipped[i] = flipped;
+        }
+        lastTime = time;
+        haveLast = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        double time = Clock.now() - startTime;
+        return time >= table.getDuration()
+            && (positionError < POSITION_TOLERANCE || time >= table.getDuration() + SETTLE_TIME);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        chassis.robotDrive(0.0, 0.0, 0.0);
+        // Hold the final rotation of the trajectory
+        chassis.setHeading(AngleMath.normalize(setpoint.rotation), true);
+    }
+}
@@ -3,13 +3,17 @@ package frc.robot.components;
 import com.kauailabs.navx.frc.AHRS;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.SPI;
-import frc.robot.architecture.PositionEncoder;
-import frc.robot.architecture.SpeedEncoder;
+import frc.robot.architecture.Gyro;
+import frc.robot.utilities.CachedDouble;
 
-public class AHRSGyroEncoder implements PositionEncoder, SpeedEncoder {
+public class AHRSGyroEncoder implements Gyro {
 
     public final AHRS SENSOR;
 
+    // Readings, sampled once per cycle
+    private final CachedDouble angle;
+    private final CachedDouble rate;
+
     public AHRSGyroEncoder() {
         /* Communicate w/navX-MXP via the MXP SPI Bus. */
         /* Alternatively: I2C.Port.kMXP, SerialPort.Port.kMXP or SerialPort.Port.kUSB */
@@ -18,21 +22,30 @@ public class AHRSGyroEncoder implements PositionEncoder, SpeedEncoder {
             */
         
         SENSOR = new AHRS(SPI.Port.kMXP);
+        angle = new CachedDouble(SENSOR::getAngle);
+        rate = new CachedDouble(SENSOR::getRate);
+    }
+
+    @Override
+    public void calibrate() {
+        SENSOR.calibrate();
+        angle.invalidate();
     }
 
     @Override
     public double getCurrentPosition() {
-        return fromNative(SENSOR.getAngle());
+        return fromNative(angle.get());
     }
 
     @Override
     public void setPosition(double newPosition) {
         SENSOR.setAngleAdjustment(toNative(newPosition) + SENSOR.getAngleAdjustment() - SENSOR.getAngle());
+        angle.invalidate();
     }
 
     @Override
     public double getCurrentSpeed() {
-        return fromNative(SENSOR.getRate());
+        return fromNative(rate.get());
     }
 
     private double toNative(double outputAngle) {
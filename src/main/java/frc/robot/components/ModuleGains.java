@@ -0,0 +1,160 @@
+package frc.robot.components;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * The drive and turn PID gains of a swerve module.
+ *
+ * <p>
+ * Each module type has hand-tuned defaults which can be overridden, ex. by the output of
+ * {@code GainSweep}, through {@link #FILE_NAME} in the deploy directory. Keys are the module type
+ * and the gain, ex. {@code SwerveModule2020.TURN_P}, and any gain which is missing keeps its
+ * default. Load the overrides once, ex. while building the chassis, and pass them to each module.
+ *
+ * <p>
+ * A gain of NaN is not set: it is not written to the controller, which keeps the value burned into
+ * its flash, and it is not swept or stored.
+ */
+public class ModuleGains {
+
+    /** The overrides file in the deploy directory. */
+    public static final String FILE_NAME = "module-gains.properties";
+
+    private static final String[] NAMES = {
+        "DRIVE_P", "DRIVE_I", "DRIVE_D", "DRIVE_FF", "TURN_P", "TURN_I", "TURN_D", "TURN_I_MAX_ACCUM"
+    };
+
+    public final double DRIVE_P;
+    public final double DRIVE_I;
+    public final double DRIVE_D;
+    public final double DRIVE_FF;
+    public final double TURN_P;
+    public final double TURN_I;
+    public final double TURN_D;
+    public final double TURN_I_MAX_ACCUM;
+
+    public ModuleGains(double driveP, double driveI, double driveD, double driveFF, double turnP, double turnI,
+            double turnD, double turnIMaxAccum) {
+        DRIVE_P = driveP;
+        DRIVE_I = driveI;
+        DRIVE_D = driveD;
+        DRIVE_FF = driveFF;
+        TURN_P = turnP;
+        TURN_I = turnI;
+        TURN_D = turnD;
+        TURN_I_MAX_ACCUM = turnIMaxAccum;
+    }
+
+    /**
+     * Creates gains from an array in the order of {@link #toArray()}.
+     */
+    public static ModuleGains fromArray(double[] gains) {
+        return new ModuleGains(gains[0], gains[1], gains[2], gains[3], gains[4], gains[5], gains[6], gains[7]);
+    }
+
+    /**
+     * Returns the gains in the order drive P, I, D, FF, then turn P, I, D, IMaxAccum.
+     */
+    public double[] toArray() {
+        return new double[] { DRIVE_P, DRIVE_I, DRIVE_D, DRIVE_FF, TURN_P, TURN_I, TURN_D, TURN_I_MAX_ACCUM };
+    }
+
+    /**
+     * Returns the name of each gain, in the order of {@link #toArray()}.
+     */
+    public static String[] getNames() {
+        return NAMES.clone();
+    }
+
+    /**
+     * Loads the overrides for a module type from the deploy directory.
+     *
+     * @param module The module type, ex. {@code "SwerveModule2020"}.
+     * @param defaults The gains to use where there is no override.
+     */
+    public static ModuleGains load(String module, ModuleGains defaults) {
+        return load(Filesystem.getDeployDirectory().toPath().resolve(FILE_NAME), module, defaults);
+    }
+
+    /**
+     * Loads the overrides for a module type from a file.
+     *
+     * @param path The overrides file. If it does not exist the defaults are returned.
+     * @param module The module type, ex. {@code "SwerveModule2020"}.
+     * @param defaults The gains to use where there is no override.
+     */
+    public static ModuleGains load(Path path, String module, ModuleGains defaults) {
+        if (!Files.exists(path)) {
+            return defaults;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not read module gains from " + path + ": " + e.getMessage());
+            return defaults;
+        }
+
+        double[] gains = defaults.toArray();
+        for (int i = 0; i < NAMES.length; i++) {
+            String value = properties.getProperty(module + "." + NAMES[i]);
+            if (value != null) {
+                try {
+                    gains[i] = Double.parseDouble(value.trim());
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring " + module + "." + NAMES[i] + " = " + value);
+                }
+            }
+        }
+        return fromArray(gains);
+    }
+
+    /**
+     * Writes these gains as the overrides of a module type, keeping the overrides of other types.
+     *
+     * @param path The overrides file.
+     * @param module The module type, ex. {@code "SwerveModule2020"}.
+     * @param comment A comment for the top of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void store(Path path, String module, String comment) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+        }
+        double[] gains = toArray();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (Double.isNaN(gains[i])) {
+                properties.remove(module + "." + NAMES[i]);
+            } else {
+                properties.setProperty(module + "." + NAMES[i], Double.toString(gains[i]));
+            }
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        double[] gains = toArray();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(NAMES[i]).append('=').append(String.format("%.6g", gains[i]));
+        }
+        return builder.toString();
+    }
+}
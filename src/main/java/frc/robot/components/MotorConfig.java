@@ -0,0 +1,158 @@
+package frc.robot.components;
+
+import java.util.Arrays;
+
+import frc.robot.architecture.ConfigurableMotor;
+
+/**
+ * The settings of one motor controller, described up front instead of set call by call.
+ *
+ * <p>
+ * Only the settings which were given are applied, in a fixed order: gear ratio, PID slots,
+ * inversion, idle mode, then current limit. Building a config never talks to the controller, so
+ * a config can be made on any thread and applied later by {@link MotorConfigurator}.
+ */
+public class MotorConfig {
+
+    /** The number of PID slots of a SparkMax. */
+    public static final int PID_SLOTS = 4;
+
+    private double gearRatio = Double.NaN;
+    private Boolean inverted;
+    private Boolean brake;
+    private int stallLimit = -1;
+    private int freeLimit = -1;
+
+    // Indexed by PID slot, NaN when not set
+    private final double[] p = unset();
+    private final double[] i = unset();
+    private final double[] d = unset();
+    private final double[] ff = unset();
+    private final double[] iZone = unset();
+    private final double[] iMaxAccum = unset();
+    private final double[] outputMin = unset();
+    private final double[] outputMax = unset();
+
+    private static double[] unset() {
+        double[] values = new double[PID_SLOTS];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    public MotorConfig setP(double gain, int pidSlot) {
+        p[pidSlot] = gain;
+        return this;
+    }
+
+    public MotorConfig setI(double gain, int pidSlot) {
+        i[pidSlot] = gain;
+        return this;
+    }
+
+    public MotorConfig setD(double gain, int pidSlot) {
+        d[pidSlot] = gain;
+        return this;
+    }
+
+    public MotorConfig setFF(double gain, int pidSlot) {
+        ff[pidSlot] = gain;
+        return this;
+    }
+
+    public MotorConfig setIZone(double iZone, int pidSlot) {
+        this.iZone[pidSlot] = iZone;
+        return this;
+    }
+
+    public MotorConfig setIMaxAccum(double iMaxAccum, int pidSlot) {
+        this.iMaxAccum[pidSlot] = iMaxAccum;
+        return this;
+    }
+
+    public MotorConfig setOutputRange(double min, double max, int pidSlot) {
+        outputMin[pidSlot] = min;
+        outputMax[pidSlot] = max;
+        return this;
+    }
+
+    /**
+     * Sets the ratio from the motor shaft to the output shaft.
+     *
+     * @param gearRatio the ratio motor_shaft_rotations / output_shaft_rotations
+     */
+    public MotorConfig setGearRatio(double gearRatio) {
+        this.gearRatio = gearRatio;
+        return this;
+    }
+
+    public MotorConfig setInverted(boolean inverted) {
+        this.inverted = inverted;
+        return this;
+    }
+
+    /**
+     * Sets whether the motor brakes or coasts when not driven.
+     *
+     * @param brake true to brake, false to coast
+     */
+    public MotorConfig setBrakeMode(boolean brake) {
+        this.brake = brake;
+        return this;
+    }
+
+    /**
+     * Sets the current limit, scaling from the stall limit at zero speed to the free limit.
+     *
+     * @param stallLimit the current limit (Amps) at zero speed
+     * @param freeLimit the current limit (Amps) at free speed
+     */
+    public MotorConfig setCurrentLimit(int stallLimit, int freeLimit) {
+        this.stallLimit = stallLimit;
+        this.freeLimit = freeLimit;
+        return this;
+    }
+
+    /**
+     * Applies the settings which were given. Each one is a blocking call on a SparkMax, so prefer
+     * {@link MotorConfigurator#configure(ConfigurableMotor, MotorConfig)}.
+     *
+     * @param motor The motor to configure.
+     */
+    public void applyTo(ConfigurableMotor motor) {
+        if (!Double.isNaN(gearRatio)) {
+            motor.setGearRatio(gearRatio);
+        }
+        for (int slot = 0; slot < PID_SLOTS; slot++) {
+            if (!Double.isNaN(p[slot])) {
+                motor.setP(p[slot], slot);
+            }
+            if (!Double.isNaN(i[slot])) {
+                motor.setI(i[slot], slot);
+            }
+            if (!Double.isNaN(d[slot])) {
+                motor.setD(d[slot], slot);
+            }
+            if (!Double.isNaN(ff[slot])) {
+                motor.setFF(ff[slot], slot);
+            }
+            if (!Double.isNaN(iZone[slot])) {
+                motor.setIZone(iZone[slot], slot);
+            }
+            if (!Double.isNaN(iMaxAccum[slot])) {
+                motor.setIMaxAccum(iMaxAccum[slot], slot);
+            }
+            if (!Double.isNaN(outputMin[slot])) {
+                motor.setOutputRange(outputMin[slot], outputMax[slot], slot);
+            }
+        }
+        if (inverted != null) {
+            motor.setInverted(inverted);
+        }
+        if (brake != null) {
+            motor.setBrakeMode(brake);
+        }
+        if (stallLimit >= 0) {
+            motor.setCurrentLimit(stallLimit, freeLimit);
+        }
+    }
+}
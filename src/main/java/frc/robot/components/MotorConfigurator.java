@@ -0,0 +1,133 @@
+package frc.robot.components;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.architecture.ConfigurableMotor;
+import frc.robot.utilities.AsyncLog;
+
+/**
+ * Applies {@link MotorConfig}s to motor controllers in the background, all controllers at once.
+ *
+ * <p>
+ * Every setting of a SparkMax waits for the controller to acknowledge it over CAN, so configuring
+ * the eight swerve controllers one setting after another used to stall robot startup. Configs
+ * given to {@link #configure(ConfigurableMotor, MotorConfig)} return immediately; the configs of
+ * each controller are applied in order on a background thread, while different controllers are
+ * configured concurrently. Wait for a controller with {@link #whenConfigured(ConfigurableMotor)}
+ * before driving it, and call {@link #report()} once startup is done to see how long it took.
+ *
+ * <p>
+ * Motors whose configuration does not block (ex. simulated motors) are configured on the calling
+ * thread and are not reported.
+ */
+public class MotorConfigurator {
+
+    private static final String DASHBOARD_PREFIX = "Motor Config/";
+
+    private static final AsyncLog.Channel CONFIGURED_LOG = AsyncLog.channel("MotorConfigurator", AsyncLog.Level.INFO,
+        "Configured %.0f motor controllers in %.1f ms (%.1f ms one at a time)");
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "MotorConfigurator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final CompletableFuture<Void> CONFIGURED = CompletableFuture.completedFuture(null);
+
+    /** The last config queued for each controller. */
+    private static final Map<ConfigurableMotor, CompletableFuture<Void>> pending = new IdentityHashMap<>();
+    /** The time (ns) spent configuring each controller. */
+    private static final Map<String, Long> times = new LinkedHashMap<>();
+
+    private static long firstQueued = 0;
+    private static long lastApplied = 0;
+
+    private MotorConfigurator() {}
+
+    /**
+     * Queues a config, after any config already queued for the same motor.
+     *
+     * @param motor The motor to configure.
+     * @param config The settings to apply.
+     * @return Completes once the config has been applied.
+     */
+    public static synchronized CompletableFuture<Void> configure(ConfigurableMotor motor, MotorConfig config) {
+        if (!motor.isConfigurationBlocking()) {
+            config.applyTo(motor);
+            return whenConfigured(motor);
+        }
+        if (times.isEmpty() && pending.isEmpty()) {
+            firstQueued = System.nanoTime();
+        }
+        CompletableFuture<Void> future = pending.getOrDefault(motor, CONFIGURED)
+            .thenRunAsync(() -> apply(motor, config), EXECUTOR);
+        pending.put(motor, future);
+        return future;
+    }
+
+    private static void apply(ConfigurableMotor motor, MotorConfig config) {
+        long start = System.nanoTime();
+        try {
+            config.applyTo(motor);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to configure " + motor + ": " + e);
+        }
+        long end = System.nanoTime();
+        synchronized (MotorConfigurator.class) {
+            times.merge(String.valueOf(motor), end - start, Long::sum);
+            lastApplied = Math.max(lastApplied, end);
+        }
+    }
+
+    /**
+     * Returns a future which completes once every config queued so far for a motor is applied.
+     */
+    public static synchronized CompletableFuture<Void> whenConfigured(ConfigurableMotor motor) {
+        return pending.getOrDefault(motor, CONFIGURED);
+    }
+
+    /**
+     * Blocks until every queued config is applied.
+     */
+    public static void await() {
+        CompletableFuture<?>[] futures;
+        synchronized (MotorConfigurator.class) {
+            futures = pending.values().toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * Waits for every queued config, then logs how long configuring all of them took and publishes
+     * that and the time of each controller to the dashboard.
+     */
+    public static void report() {
+        await();
+        Map<String, Long> snapshot;
+        long total;
+        synchronized (MotorConfigurator.class) {
+            snapshot = new LinkedHashMap<>(times);
+            total = lastApplied - firstQueued;
+        }
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        long serial = 0;
+        for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+            serial += entry.getValue();
+            SmartDashboard.putNumber(DASHBOARD_PREFIX + entry.getKey() + " (ms)", entry.getValue() * 1e-6);
+        }
+        SmartDashboard.putNumber(DASHBOARD_PREFIX + "Total (ms)", total * 1e-6);
+        SmartDashboard.putNumber(DASHBOARD_PREFIX + "Serial (ms)", serial * 1e-6);
+
+        CONFIGURED_LOG.log(snapshot.size(), total * 1e-6, serial * 1e-6);
+    }
+}
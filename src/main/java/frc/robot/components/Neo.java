@@ -12,11 +12,14 @@ import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import edu.wpi.first.wpilibj2.command.Subsystem;
-import frc.robot.architecture.PositionMotor;
-import frc.robot.architecture.SpeedMotor;
+import frc.robot.architecture.ConfigurableMotor;
+import frc.robot.utilities.AsyncLog;
+import frc.robot.utilities.CachedDouble;
+import frc.robot.utilities.LatencyTracer;
+import frc.robot.utilities.SetpointFilter;
 import frc.robot.utilities.Utils;
 
-public class Neo implements SpeedMotor, PositionMotor, Sendable {
+public class Neo implements ConfigurableMotor, Sendable {
 
     public static final String PART_NAME = "REV-21-1650";
 
@@ -24,12 +27,23 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
     public static final double STALL_CURRENT = 105; // The stall current (Amps)
     public static final double STALL_TORQUE = 2.5; // The stall torque (Nm)
 
+    /** The smallest setpoint change worth a CAN frame (rad or rad/s). */
+    public static final double SETPOINT_EPSILON = 1e-3;
+    /** The longest time (s) between setpoint frames, even if nothing changed. */
+    public static final double SETPOINT_KEEP_ALIVE = 0.25;
+
     public final int CAN_ID;
     public final CANSparkMax CONTROLLER;
     public final SparkMaxPIDController PID;
 
     /** Exposed for advanced controls, for most applications do not mess with this. */
     private final RelativeEncoder ENCODER;
+
+    // Encoder readings, sampled once per cycle
+    private final CachedDouble velocity;
+    private final CachedDouble position;
+    private final CachedDouble appliedOutput;
+    private final CachedDouble outputCurrent;
    
     /** Gear ratio is defined as motor_shaft_rotations:output_shaft_rotations */
     private double gearRatio = 1.0;
@@ -38,20 +52,85 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
     private double desiredSpeed = 0.0;
     private double desiredPosition = 0.0;
 
+    /** The current limit (Amps) of {@link #defaultConfig()}. */
+    private final int defaultCurrentLimit;
+
+    private static final AsyncLog.Channel SATURATED = AsyncLog.channel("Neo", AsyncLog.Level.WARNING,
+        "Tried to exceed max speed: %.2f rad/s (max is %.2f rad/s)");
+    private static final AsyncLog.Channel POSITION_COMMAND = AsyncLog.channel("Neo", AsyncLog.Level.DEBUG,
+        "Setting position %.3f rad");
+    private static final AsyncLog.Channel POSITION_REACHED = AsyncLog.channel("Neo", AsyncLog.Level.DEBUG,
+        "Position reached", 0.0);
+    private static final AsyncLog.Channel VELOCITY_COMMAND = AsyncLog.channel("Neo", AsyncLog.Level.DEBUG,
+        "Setting velocity %.3f rad/s");
+    private static final AsyncLog.Channel VELOCITY_REACHED = AsyncLog.channel("Neo", AsyncLog.Level.DEBUG,
+        "Velocity reached", 0.0);
+
+    /** Suppresses redundant setReference frames. */
+    private final SetpointFilter setpointFilter = new SetpointFilter(SETPOINT_EPSILON, SETPOINT_KEEP_ALIVE);
+
+    /**
+     * Creates a Neo and queues its default configuration (radians, 40 A) on the
+     * {@link MotorConfigurator} without waiting for it.
+     * @param canId
+     */
+    public static Neo create(int canId) {
+        return queueDefaults(new Neo(canId));
+    }
+
+    /**
+     * Queues the default configuration of a fully constructed Neo.
+     */
+    protected static <T extends Neo> T queueDefaults(T neo) {
+        MotorConfigurator.configure(neo, neo.defaultConfig());
+        return neo;
+    }
+
     /**
-     * Creates an instance of Neo which refers to a Neo or a Neo550 attached to a SparkMax.
-     * Update the PID and motor configuration before use.
+     * Creates an instance of Neo which refers to a Neo attached to a SparkMax. Nothing is
+     * configured, so only {@link #create(int)} calls it.
      * @param canId
      */
-    public Neo(int canId) {
+    Neo(int canId) {
+        this(canId, 40);
+    }
+
+    /**
+     * Nothing is configured, a subclass must queue its defaults with {@link #queueDefaults(Neo)}
+     * from its own {@code create}, as {@link Neo550#create(int)} does.
+     * @param canId
+     * @param currentLimit the current limit (Amps) of {@link #defaultConfig()}
+     */
+    protected Neo(int canId, int currentLimit) {
         CAN_ID = canId;
         CONTROLLER = new CANSparkMax(CAN_ID, MotorType.kBrushless);
         ENCODER = CONTROLLER.getEncoder();
-        ENCODER.setPositionConversionFactor(2 * Math.PI);
-        ENCODER.setVelocityConversionFactor(2 * Math.PI / 60.0);
+        velocity = new CachedDouble(ENCODER::getVelocity);
+        position = new CachedDouble(ENCODER::getPosition);
+        appliedOutput = new CachedDouble(CONTROLLER::getAppliedOutput);
+        outputCurrent = new CachedDouble(CONTROLLER::getOutputCurrent);
         PID = CONTROLLER.getPIDController();
+        defaultCurrentLimit = currentLimit;
+    }
+
+    /**
+     * Returns the default configuration: radians and rad/s at the motor shaft until a gear ratio
+     * is set, and the default current limit.
+     */
+    public MotorConfig defaultConfig() {
+        return new MotorConfig()
+            .setGearRatio(1.0)
+            .setCurrentLimit(defaultCurrentLimit, defaultCurrentLimit);
+    }
+
+    @Override
+    public boolean isConfigurationBlocking() {
+        return true;
+    }
 
-        CONTROLLER.setSmartCurrentLimit(40);
+    @Override
+    public String toString() {
+        return "SparkMax " + CAN_ID;
     }
 
     @Override
@@ -78,6 +157,11 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
         builder.addDoubleProperty("Position", this::getCurrentPosition, this::setPosition);
         builder.addDoubleProperty("Speed", this::getCurrentSpeed, (value) -> {});
         builder.addBooleanProperty("BURN", () -> false, (value) -> {if (value) CONTROLLER.burnFlash();});
+
+        builder.addDoubleProperty("Frames Sent", () -> setpointFilter.getFramesSent(), (value) -> {});
+        builder.addDoubleProperty("Frames Suppressed", () -> setpointFilter.getFramesSuppressed(), (value) -> {});
+        builder.addDoubleProperty("Setpoint Epsilon", setpointFilter::getEpsilon, setpointFilter::setEpsilon);
+        builder.addDoubleProperty("Setpoint Keep Alive", setpointFilter::getKeepAlive, setpointFilter::setKeepAlive);
     }
     
     /**
@@ -86,34 +170,43 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
      * @param power approximate speed [-1.0, 1.0]
      */
     public void setPower(double power) {
-        PID.setReference(power, ControlType.kDutyCycle);
+        sendReference(power, ControlType.kDutyCycle, 0);
     } 
 
     public void setDesiredSpeed(double speed) {
         double maxSpeed = getMaxSpeed();
         if (speed > maxSpeed) {
-            System.err.println("Tried to exceed max speed: " + speed + "rad/s (max is "
-                    + maxSpeed + "rad/s)");
+            SATURATED.log(speed, maxSpeed);
             speed = maxSpeed;
         }
         desiredSpeed = speed;
-        PID.setReference(speed, ControlType.kVelocity, speedPid);
+        sendReference(speed, ControlType.kVelocity, speedPid);
     }
 
     @Override
     public double getCurrentSpeed() {
-        return ENCODER.getVelocity();
+        return velocity.get();
     }
 
     @Override
     public void setDesiredPosition(double position) {
         desiredPosition = position;
-        PID.setReference(position, ControlType.kPosition, positionPid);
+        sendReference(position, ControlType.kPosition, positionPid);
     }
 
     @Override
     public double getCurrentPosition() {
-        return ENCODER.getPosition();
+        return position.get();
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return appliedOutput.get();
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return outputCurrent.get();
     }
 
     /**
@@ -128,6 +221,7 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
     /** 
      * Returns the PID slot currently being used for position commands.
      */
+    @Override
     public int getPositionPid() {
         return positionPid;
     }
@@ -141,31 +235,125 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
         speedPid = pidSlot;
     }
 
+    @Override
     public int getSpeedPid() {
         return speedPid;
     }
 
+    @Override
     public double getGearRatio() {
         return gearRatio;
     }
 
     /**
-     * Sets the ratio from the motor shaft to the output shaft.
+     * Sets the ratio from the motor shaft to the output shaft. The conversion factors are set
+     * outright rather than read back and rescaled, which would cost two more CAN round trips.
      * @param gearRatio the ratio motor_shaft_rotations / output_shaft_rotations
      */
+    @Override
     public void setGearRatio(double gearRatio) {
-        ENCODER.setPositionConversionFactor(ENCODER.getPositionConversionFactor() * this.gearRatio / gearRatio);
-        ENCODER.setVelocityConversionFactor(ENCODER.getVelocityConversionFactor() * this.gearRatio / gearRatio);
+        ENCODER.setPositionConversionFactor(2 * Math.PI / gearRatio);
+        ENCODER.setVelocityConversionFactor(2 * Math.PI / 60.0 / gearRatio);
         this.gearRatio = gearRatio;
+        setpointFilter.invalidate();
+        velocity.invalidate();
+        position.invalidate();
+    }
+
+    @Override
+    public void setP(double gain, int pidSlot) {
+        PID.setP(gain, pidSlot);
+    }
+
+    @Override
+    public void setI(double gain, int pidSlot) {
+        PID.setI(gain, pidSlot);
+    }
+
+    @Override
+    public void setD(double gain, int pidSlot) {
+        PID.setD(gain, pidSlot);
+    }
+
+    @Override
+    public void setFF(double gain, int pidSlot) {
+        PID.setFF(gain, pidSlot);
+    }
+
+    @Override
+    public void setIZone(double iZone, int pidSlot) {
+        PID.setIZone(iZone, pidSlot);
+    }
+
+    @Override
+    public void setIMaxAccum(double iMaxAccum, int pidSlot) {
+        PID.setIMaxAccum(iMaxAccum, pidSlot);
+    }
+
+    @Override
+    public void setOutputRange(double min, double max, int pidSlot) {
+        PID.setOutputRange(min, max, pidSlot);
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {
+        CONTROLLER.setInverted(inverted);
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        CONTROLLER.setIdleMode(brake ? IdleMode.kBrake : IdleMode.kCoast);
+    }
+
+    @Override
+    public void setCurrentLimit(int stallLimit, int freeLimit) {
+        CONTROLLER.setSmartCurrentLimit(stallLimit, freeLimit);
     }
 
     public void setPosition(double newPosition) {
-        PID.setReference(newPosition, ControlType.kPosition, positionPid);
+        setpointFilter.invalidate();
+        sendReference(newPosition, ControlType.kPosition, positionPid);
         ENCODER.setPosition(newPosition);
+        position.invalidate();
+    }
+
+    /**
+     * Sends a setpoint to the controller, unless it would repeat the last frame.
+     */
+    private void sendReference(double value, ControlType type, int pidSlot) {
+        if (setpointFilter.shouldSend(value, type.ordinal(), pidSlot)) {
+            PID.setReference(value, type, pidSlot);
+            LatencyTracer.mark(LatencyTracer.Stage.FRAME);
+        }
+    }
+
+    /**
+     * Configures when setpoint frames are suppressed.
+     * 
+     * @param epsilon the smallest setpoint change worth sending (rad or rad/s)
+     * @param keepAlive the longest time (s) between frames
+     */
+    public void setSetpointFilter(double epsilon, double keepAlive) {
+        setpointFilter.setEpsilon(epsilon);
+        setpointFilter.setKeepAlive(keepAlive);
+    }
+
+    /**
+     * Returns the number of setpoint frames sent to the controller.
+     */
+    public long getFramesSent() {
+        return setpointFilter.getFramesSent();
+    }
+
+    /**
+     * Returns the number of redundant setpoint frames which were not sent.
+     */
+    public long getFramesSuppressed() {
+        return setpointFilter.getFramesSuppressed();
     }
     
     protected double getMaxSpeed(double nativeMaxSpeed) {
-        return nativeMaxSpeed * ENCODER.getVelocityConversionFactor();
+        return nativeMaxSpeed * 2 * Math.PI / 60.0 / gearRatio;
     }
 
     public double getMaxSpeed() {
@@ -186,12 +374,12 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
             @Override
             public void initialize() {
                 setDesiredPosition(position.getAsDouble());
-                System.out.println(desiredPosition);
+                POSITION_COMMAND.log(desiredPosition);
             }
 
             @Override
             public void execute() {
-                System.out.println("Setting Position " + position);
+                POSITION_COMMAND.log(desiredPosition);
             }
 
             @Override
@@ -202,7 +390,7 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
             @Override
             public void end(boolean interrupted) {
                 if (!interrupted)
-                    System.out.println("Position Reached");
+                    POSITION_REACHED.log();
             }
         };
         command.addRequirements(requirements);
@@ -223,7 +411,7 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
 
             @Override
             public void execute() {
-                System.out.println("Setting Velocity: " + velocity);
+                VELOCITY_COMMAND.log(desiredSpeed);
             }
 
             @Override
@@ -234,7 +422,7 @@ public class Neo implements SpeedMotor, PositionMotor, Sendable {
             @Override
             public void end(boolean interrupted) {
                 if (!interrupted)
-                    System.out.println("Velocity Reached");
+                    VELOCITY_REACHED.log();
             }
         };
         command.addRequirements(requirements);
@@ -8,14 +8,23 @@ public class Neo550 extends Neo {
     public static final double STALL_CURRENT = 100;
     public static final double STALL_TORQUE = 0.97;
 
+    /**
+     * Creates a Neo550 and queues its default configuration (radians, 30 A) on the
+     * {@link MotorConfigurator} without waiting for it.
+     * @param canId
+     */
+    public static Neo550 create(int canId) {
+        return queueDefaults(new Neo550(canId));
+    }
+
     /**
      * Creates an instance of the Neo550 which refers to a Neo550 attached to a SparkMax.
-     * Update the PID and motor configuration before use.
+     * Nothing is configured, so only {@link #create(int)} calls it. The default current limit is
+     * 30 A.
      * @param canId
      */
-    public Neo550(int canId) {
-        super(canId);
-        CONTROLLER.setSmartCurrentLimit(30);
+    Neo550(int canId) {
+        super(canId, 30);
     }
 
     @Override
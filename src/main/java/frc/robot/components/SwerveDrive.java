@@ -1,32 +1,106 @@
 package frc.robot.components;
 
+import java.util.Arrays;
+
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.Notifier;
 import frc.robot.architecture.Drive;
+import frc.robot.architecture.DriveState;
 import frc.robot.architecture.PositionEncoder;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.LatencyTracer;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.ModuleStates;
+import frc.robot.utilities.OdometrySampleBuffer;
+import frc.robot.utilities.PoseHistory;
+import frc.robot.utilities.SeqLock;
+import frc.robot.utilities.SwerveKinematics;
 
 /**
- * Implements a standard Swerve Drive system.
+ * Implements a standard Swerve Drive system with any number of modules.
+ *
+ * <p>
+ * Module targets and measurements are kept as {@link ModuleStates}, parallel primitive arrays
+ * which the kinematics and odometry loop over directly, so the control loop
+ * ({@code setDesiredSpeeds} and {@code periodic}) costs a small constant per module and does not
+ * produce garbage. {@code Pose2d} and {@code ChassisSpeeds} objects are only created when they are
+ * requested.
+ *
+ * <p>
+ * By default odometry is updated once per {@code periodic()}. Setting an odometry frequency moves
+ * sampling and pose integration onto a dedicated {@code Notifier} so the pose error does not grow
+ * with the 20 ms loop period. The pose is integrated from how far each wheel travelled between
+ * samples, rather than from the speeds at the instant of a sample, so a sample which lands during
+ * a speed change does not bias the whole period.
+ *
+ * <p>
+ * Every odometry update publishes a {@code DriveState} through a {@code SeqLock} so other threads
+ * can read a consistent pose without locking, see {@link #readState(DriveState)}. The pose getters
+ * and {@link #samplePoseAt(double, double[])} are lock-free too, only the odometry writers
+ * serialize on a lock.
  */
 public class SwerveDrive extends Drive {
 
-    private final SwerveDriveKinematics kinematics;
+    /** The number of odometry samples kept, 1 s at 250 Hz. */
+    private static final int ODOMETRY_HISTORY = 250;
+    /** The number of poses kept for latency compensation, 1.5 s at 250 Hz. */
+    private static final int POSE_HISTORY = 375;
+
+    /** The telemetry logged for each module, see {@link #getTelemetry(double[], int)}. */
+    private static final String[] TELEMETRY_COLUMNS = {
+        "desiredAngle", "angle", "desiredSpeed", "speed", "distance", "driveOutput", "turnOutput",
+        "driveCurrent", "turnCurrent"
+    };
+
+    private static final LatencyHistogram PERIODIC_TIME = LoopProfiler.histogram("SwerveDrive.periodic");
+    private static final LatencyHistogram SET_SPEEDS_TIME = LoopProfiler.histogram("SwerveDrive.setDesiredSpeeds");
+    private static final LatencyHistogram SET_SETPOINTS_TIME = LoopProfiler.histogram("SwerveDrive.setModuleSetpoints");
+    private static final LatencyHistogram ODOMETRY_TIME = LoopProfiler.histogram("SwerveDrive.odometry");
+
+    private final SwerveKinematics kinematics;
     private final PositionEncoder gyro;
-    private final SwerveDriveOdometry odometry;
     private final SwerveModule[] modules;
+    private final LatencyHistogram[] modulePeriodicTimes;
+
+    // Reusable buffers for the control loop
+    private final ModuleStates targets;
+    private final ModuleStates measurements;
+    private final double[] chassisSpeeds = new double[3];
+
+    // Buffers owned by the odometry thread
+    private final ModuleStates odometryMeasurements;
+    private final double[] odometryChassisSpeeds = new double[3];
+    private final OdometrySampleBuffer odometrySamples;
+    /** The newest odometry sample, copied out by the control loop. */
+    private final OdometrySampleBuffer.Sample latestSample;
+
+    // Odometry state, guarded by odometryLock
+    private final Object odometryLock = new Object();
+    private double poseX, poseY, poseTheta;
+    private double gyroOffset;
+    private double lastGyroPosition;
+    private double lastTimestamp = -1.0;
+    private final double[] lastPositions;
+    private final double[] positionDeltas;
+    private final double[] twist = new double[3];
 
-    private Pose2d odometricPose;
+    /** Written with odometryLock held, read lock-free from any thread. */
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY);
 
+    // Published state, written with odometryLock held
+    private final SeqLock stateLock;
+    private final DriveState publishedState;
+
+    private double odometryFrequency = 0.0;
+    private Notifier odometryNotifier;
 
     /**
      * Creates a new instance of {@code SwerveDrive}.
-     * 
-     * @param modules An array of {@code SwerveModules}.
+     *
+     * @param modules An array of any number of {@code SwerveModules}.
      * @param offsets An array describing the offset of each {@code SwerveModule} from the center of
      *        the robot.
      * @param gyro A reference to a {@code Gyro} to use during odometry.
@@ -37,7 +111,7 @@ public class SwerveDrive extends Drive {
 
     /**
      * Creates a new instance of {@code SwerveDrive}.
-     * 
+     *
      * @param modules An array of {@code SwerveModules}.
      * @param offsets An array describing the offset of each {@code SwerveModule} from the center of
      *        the robot.
@@ -46,15 +120,45 @@ public class SwerveDrive extends Drive {
      */
     public SwerveDrive(SwerveModule[] modules, Translation2d[] offsets, PositionEncoder gyro,
             Pose2d initialPose) {
-        assert modules.length == offsets.length;
+        if (modules.length != offsets.length) {
+            throw new IllegalArgumentException("Every module needs an offset.");
+        }
 
-        this.kinematics = new SwerveDriveKinematics(offsets);
+        double[] offsetX = new double[offsets.length];
+        double[] offsetY = new double[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsetX[i] = offsets[i].getX();
+            offsetY[i] = offsets[i].getY();
+        }
+        this.kinematics = new SwerveKinematics(offsetX, offsetY);
         this.modules = modules;
+        this.modulePeriodicTimes = new LatencyHistogram[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            modulePeriodicTimes[i] = LoopProfiler.histogram("SwerveModule[" + i + "].periodic");
+        }
+
+        this.targets = new ModuleStates(modules.length);
+        this.measurements = new ModuleStates(modules.length);
+        this.odometryMeasurements = new ModuleStates(modules.length);
+        this.odometrySamples = new OdometrySampleBuffer(ODOMETRY_HISTORY, modules.length);
+        this.latestSample = odometrySamples.createSample();
+        this.lastPositions = new double[modules.length];
+        this.positionDeltas = new double[modules.length];
+        this.stateLock = new SeqLock(DriveState.payloadSize(modules.length));
+        this.publishedState = new DriveState(modules.length);
 
         this.gyro = gyro;
-        this.odometricPose = initialPose;
-        this.odometry = new SwerveDriveOdometry(kinematics,
-                new Rotation2d(gyro.getCurrentAngle()), initialPose);
+        resetPose(initialPose);
+    }
+
+    /**
+     * Sets how often odometry is sampled on its own thread. Must be called before {@code init()}.
+     *
+     * @param frequency The sample rate (Hz), 200 to 250 Hz is recommended. Zero or less updates
+     *        odometry from {@code periodic()} instead.
+     */
+    public void setOdometryFrequency(double frequency) {
+        odometryFrequency = frequency;
     }
 
     @Override
@@ -62,46 +166,334 @@ public class SwerveDrive extends Drive {
         for (SwerveModule module : modules) {
             module.init();
         }
+        if (odometryFrequency > 0.0 && odometryNotifier == null) {
+            odometryNotifier = new Notifier(this::sampleOdometry);
+            odometryNotifier.setName("Odometry");
+            odometryNotifier.startPeriodic(1.0 / odometryFrequency);
+        }
     }
 
     @Override
     public void periodic() {
-        for (SwerveModule module : modules) {
-            module.periodic();
+        long start = System.nanoTime();
+        for (int i = 0; i < modules.length; i++) {
+            long moduleStart = System.nanoTime();
+            modules[i].periodic();
+            modulePeriodicTimes[i].recordSince(moduleStart);
         }
-        odometricPose =
-                odometry.update(new Rotation2d(gyro.getCurrentAngle()), getCurrentModuleStates());
+        if (odometryNotifier == null) {
+            double timestamp = Clock.now();
+            sampleModules(measurements, timestamp);
+            integrateOdometry(timestamp, gyro.getCurrentPosition(), measurements, chassisSpeeds);
+        } else {
+            copyLatestSample(measurements);
+        }
+        PERIODIC_TIME.recordSince(start);
+    }
+
+    /**
+     * Copies the newest sample taken by the odometry thread, retrying if the odometry thread
+     * overwrote it while it was being copied.
+     */
+    private void copyLatestSample(ModuleStates states) {
+        long sequence;
+        do {
+            sequence = odometrySamples.getCount() - 1;
+            if (sequence < 0) {
+                return;
+            }
+        } while (!odometrySamples.read(sequence, latestSample));
+
+        System.arraycopy(latestSample.angles, 0, states.angles, 0, modules.length);
+        System.arraycopy(latestSample.speeds, 0, states.speeds, 0, modules.length);
+        System.arraycopy(latestSample.positions, 0, states.positions, 0, modules.length);
+        Arrays.fill(states.timestamps, latestSample.timestamp);
+    }
+
+    /**
+     * Samples the sensors and integrates the pose. Runs on the odometry thread.
+     */
+    private void sampleOdometry() {
+        double timestamp = Clock.now();
+        double gyroPosition = gyro.getCurrentPosition();
+        sampleModules(odometryMeasurements, timestamp);
+        odometrySamples.add(timestamp, gyroPosition, odometryMeasurements);
+        integrateOdometry(timestamp, gyroPosition, odometryMeasurements, odometryChassisSpeeds);
+    }
+
+    public int getModuleCount() {
+        return modules.length;
+    }
+
+    /**
+     * Returns the module targets set by the last {@code setDesiredSpeeds}. Only valid on the thread
+     * running the control loop, and must not be modified.
+     */
+    public ModuleStates getTargets() {
+        return targets;
+    }
+
+    /**
+     * Returns the module measurements as of the last {@code periodic()}. Only valid on the thread
+     * running the control loop, and must not be modified. When odometry runs on its own thread
+     * these are a copy of the newest odometry sample rather than read by the control loop, so they
+     * may be up to one odometry period old.
+     */
+    public ModuleStates getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * Returns the most recent odometry samples, readable from any thread. Only populated when
+     * odometry runs on its own thread.
+     */
+    public OdometrySampleBuffer getOdometrySamples() {
+        return odometrySamples;
     }
 
     @Override
-    public void setDesiredSpeeds(ChassisSpeeds speeds) {
-        SwerveModuleState[] moduleStates = kinematics.toSwerveModuleStates(speeds);
+    public void setDesiredSpeeds(double vx, double vy, double omega) {
+        long start = System.nanoTime();
+        kinematics.toModuleStates(vx, vy, omega, Clock.now(), targets);
+        LatencyTracer.mark(LatencyTracer.Stage.KINEMATICS);
+        double[] angles = targets.angles;
+        double[] speeds = targets.speeds;
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setDesiredState(angles[i], speeds[i]);
+        }
+        SET_SPEEDS_TIME.recordSince(start);
+    }
+
+    /**
+     * Sends precomputed setpoints straight to the modules, skipping the kinematics, ex. from a
+     * {@code ModuleSetpointTable}.
+     *
+     * @param angles The angle (rad) of each module.
+     * @param speeds The speed (m/s) of each module.
+     * @param steerRates The rate (rad/s) each angle is changing at.
+     * @param accelerations The rate (m/s^2) each speed is changing at.
+     */
+    public void setModuleSetpoints(double[] angles, double[] speeds, double[] steerRates, double[] accelerations) {
+        long start = System.nanoTime();
+        double timestamp = Clock.now();
         for (int i = 0; i < modules.length; i++) {
-            modules[i].setDesiredState(moduleStates[i]);
+            targets.angles[i] = angles[i];
+            targets.speeds[i] = speeds[i];
+            targets.timestamps[i] = timestamp;
+            modules[i].setDesiredState(angles[i], speeds[i], steerRates[i], accelerations[i]);
         }
+        SET_SETPOINTS_TIME.recordSince(start);
+    }
+
+    /**
+     * Returns the kinematics of this drive's module layout.
+     */
+    public SwerveKinematics getKinematics() {
+        return kinematics;
     }
 
+    @Override
+    public void setDesiredSpeeds(ChassisSpeeds speeds) {
+        setDesiredSpeeds(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+    }
+
+    /**
+     * Returns the chassis speeds of the last published state. Safe from any thread, but allocates,
+     * prefer {@link #readState(DriveState)}.
+     */
     @Override
     public ChassisSpeeds getCurrentSpeeds() {
-        return kinematics.toChassisSpeeds(getCurrentModuleStates());
+        DriveState snapshot = createState();
+        readState(snapshot);
+        return snapshot.toChassisSpeeds();
+    }
+
+    private void sampleModules(ModuleStates states, double timestamp) {
+        double[] angles = states.angles;
+        double[] speeds = states.speeds;
+        double[] positions = states.positions;
+        double[] timestamps = states.timestamps;
+        for (int i = 0; i < modules.length; i++) {
+            SwerveModule module = modules[i];
+            angles[i] = module.getCurrentAngle();
+            speeds[i] = module.getCurrentSpeed();
+            positions[i] = module.getCurrentDistance();
+            timestamps[i] = timestamp;
+        }
+    }
+
+    /**
+     * Integrates how far each wheel travelled since the last sample into the field-relative pose,
+     * using the gyro for heading. A module which cannot report its position falls back to its speed
+     * over the elapsed time.
+     *
+     * @param timestamp The time the sample was taken (s).
+     * @param gyroPosition The gyro position (rad).
+     * @param states The measured state of each module.
+     * @param chassisSpeeds Scratch space for the chassis speeds.
+     */
+    private void integrateOdometry(double timestamp, double gyroPosition, ModuleStates states,
+            double[] chassisSpeeds) {
+        long start = System.nanoTime();
+        kinematics.toChassisSpeeds(states, chassisSpeeds);
+
+        synchronized (odometryLock) {
+            boolean first = lastTimestamp < 0.0;
+            double dt = first ? 0.0 : timestamp - lastTimestamp;
+            lastTimestamp = timestamp;
+
+            // The robot-relative displacement which best fits every wheel's displacement
+            double[] positions = states.positions;
+            double[] speeds = states.speeds;
+            for (int i = 0; i < modules.length; i++) {
+                double position = positions[i];
+                if (Double.isNaN(position)) {
+                    positionDeltas[i] = speeds[i] * dt;
+                } else {
+                    positionDeltas[i] = first ? 0.0 : position - lastPositions[i];
+                    lastPositions[i] = position;
+                }
+            }
+            kinematics.toChassisSpeeds(states.angles, positionDeltas, twist);
+
+            double dx = twist[0];
+            double dy = twist[1];
+            double dTheta = gyroPosition - lastGyroPosition;
+            lastGyroPosition = gyroPosition;
+
+            // Pose exponential, see Pose2d.exp()
+            double s, c;
+            if (Math.abs(dTheta) < 1e-9) {
+                s = 1.0 - dTheta * dTheta / 6.0;
+                c = 0.5 * dTheta;
+            } else {
+                s = Math.sin(dTheta) / dTheta;
+                c = (1.0 - Math.cos(dTheta)) / dTheta;
+            }
+            double localX = dx * s - dy * c;
+            double localY = dx * c + dy * s;
+            double cos = Math.cos(poseTheta);
+            double sin = Math.sin(poseTheta);
+            poseX += localX * cos - localY * sin;
+            poseY += localX * sin + localY * cos;
+            poseTheta = gyroPosition + gyroOffset;
+            poseHistory.add(timestamp, poseX, poseY, poseTheta);
+
+            publishedState.timestamp = timestamp;
+            publishedState.vx = chassisSpeeds[0];
+            publishedState.vy = chassisSpeeds[1];
+            publishedState.omega = chassisSpeeds[2];
+            System.arraycopy(states.angles, 0, publishedState.moduleAngles, 0, modules.length);
+            System.arraycopy(states.speeds, 0, publishedState.moduleSpeeds, 0, modules.length);
+            publishPose();
+        }
+        ODOMETRY_TIME.recordSince(start);
+    }
+
+    /**
+     * Publishes the current pose along with the last measured speeds. Call with odometryLock held.
+     */
+    private void publishPose() {
+        publishedState.x = poseX;
+        publishedState.y = poseY;
+        publishedState.theta = poseTheta;
+        publishedState.publishTo(stateLock);
     }
 
-    private SwerveModuleState[] getCurrentModuleStates() {
-        SwerveModuleState[] moduleStates = new SwerveModuleState[modules.length];
-        for (int i = 0; i < moduleStates.length; i++) {
-            moduleStates[i] = modules[i].getCurrentState();
+    @Override
+    public String[] getTelemetryColumns() {
+        String[] columns = new String[modules.length * TELEMETRY_COLUMNS.length];
+        for (int i = 0; i < modules.length; i++) {
+            for (int j = 0; j < TELEMETRY_COLUMNS.length; j++) {
+                columns[i * TELEMETRY_COLUMNS.length + j] = "module" + i + "/" + TELEMETRY_COLUMNS[j];
+            }
         }
-        return moduleStates;
+        return columns;
     }
 
+    @Override
+    public int getTelemetry(double[] row, int offset) {
+        for (int i = 0; i < modules.length; i++) {
+            SwerveModule module = modules[i];
+            row[offset++] = targets.angles[i];
+            row[offset++] = module.getCurrentAngle();
+            row[offset++] = targets.speeds[i];
+            row[offset++] = module.getCurrentSpeed();
+            row[offset++] = module.getCurrentDistance();
+            row[offset++] = module.getDriveOutput();
+            row[offset++] = module.getTurnOutput();
+            row[offset++] = module.getDriveCurrent();
+            row[offset++] = module.getTurnCurrent();
+        }
+        return offset;
+    }
+
+    @Override
+    public boolean samplePoseAt(double timestamp, double[] pose) {
+        return poseHistory.sample(timestamp, pose);
+    }
+
+    @Override
+    public DriveState createState() {
+        return new DriveState(modules.length);
+    }
+
+    @Override
+    public void readState(DriveState state) {
+        state.readFrom(stateLock);
+    }
+
+    /**
+     * Returns the pose of the last published state. Safe from any thread, but allocates, prefer
+     * {@link #readState(DriveState)}.
+     */
     @Override
     public Pose2d getCurrentPose() {
-        return odometricPose;
+        DriveState snapshot = createState();
+        readState(snapshot);
+        return snapshot.toPose();
+    }
+
+    /**
+     * Returns the x component of the last published pose without allocating a {@code Pose2d}.
+     *
+     * @return The forward distance (m) from the field origin.
+     */
+    public double getCurrentX() {
+        return stateLock.read(DriveState.X_INDEX);
+    }
+
+    /**
+     * Returns the y component of the last published pose without allocating a {@code Pose2d}.
+     *
+     * @return The leftward distance (m) from the field origin.
+     */
+    public double getCurrentY() {
+        return stateLock.read(DriveState.Y_INDEX);
+    }
+
+    /**
+     * Returns the heading of the last published pose without allocating a {@code Pose2d}.
+     *
+     * @return The heading in radians, counter-clockwise.
+     */
+    public double getCurrentHeading() {
+        return stateLock.read(DriveState.THETA_INDEX);
     }
 
     @Override
     public void resetPose(Pose2d newPose) {
-        odometry.resetPosition(newPose, new Rotation2d(gyro.getCurrentAngle()));
+        synchronized (odometryLock) {
+            lastGyroPosition = gyro.getCurrentPosition();
+            gyroOffset = newPose.getRotation().getRadians() - lastGyroPosition;
+            poseX = newPose.getX();
+            poseY = newPose.getY();
+            poseTheta = newPose.getRotation().getRadians();
+            // The next sample restarts the wheel positions
+            lastTimestamp = -1.0;
+            poseHistory.clear();
+            publishPose();
+        }
     }
 
     @Override
@@ -2,17 +2,29 @@ package frc.robot.components;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.architecture.ConfigurableMotor;
+import frc.robot.architecture.PositionEncoder;
 import frc.robot.architecture.PositionMotor;
 import frc.robot.architecture.SpeedMotor;
+import frc.robot.math.AngleMath;
 
 /** A class which implements the boilerplate code for running a typical swerve module. */
 public abstract class SwerveModule {
 
+    /**
+     * How far ahead (s) setpoints with known rates are led, half of a 20 ms robot period. This is
+     * a lead of the setpoint, not a feedforward term added to the motor output.
+     */
+    public static final double SETPOINT_LEAD = 0.01;
+
     protected final double METERS_PER_RAD;
 
     protected final SpeedMotor DRIVE_MOTOR;
     protected final PositionMotor TURN_MOTOR;
 
+    /** The drive motor, if it can also report its position. */
+    private final PositionEncoder driveEncoder;
+
     private double lastAngle;
     private boolean flipFlag = false;
 
@@ -30,15 +42,24 @@ public abstract class SwerveModule {
         this.DRIVE_MOTOR = driveMotor;
         this.TURN_MOTOR = turnMotor;
         this.METERS_PER_RAD = metersPerRad;
+        this.driveEncoder = driveMotor instanceof PositionEncoder ? (PositionEncoder) driveMotor : null;
         this.state = new SwerveModuleState();
     }
 
-    /** Initializes both motors. */
+    /** Waits for any configuration still being applied, then initializes both motors. */
     public void init() {
+        awaitConfiguration(DRIVE_MOTOR);
+        awaitConfiguration(TURN_MOTOR);
         DRIVE_MOTOR.init();
         TURN_MOTOR.init();
     }
 
+    private static void awaitConfiguration(Object motor) {
+        if (motor instanceof ConfigurableMotor) {
+            MotorConfigurator.whenConfigured((ConfigurableMotor) motor).join();
+        }
+    }
+
     /** Calls `.periodic()` on both motors. */
     public void periodic() {
         DRIVE_MOTOR.periodic();
@@ -51,8 +72,33 @@ public abstract class SwerveModule {
      * @param state A `SwerveModuleState` describing the desired state.
      */
     public void setDesiredState(SwerveModuleState state) {
-        setDesiredAngle(state.angle.getRadians());
-        setDesiredSpeed(state.speedMetersPerSecond);
+        setDesiredState(state.angle.getRadians(), state.speedMetersPerSecond);
+    }
+
+    /**
+     * Convenience function to set Speed and Angle at the same time.
+     *
+     * @param angle The angle to face in radians.
+     * @param speed The speed to drive in m/s.
+     */
+    public void setDesiredState(double angle, double speed) {
+        setDesiredAngle(angle);
+        setDesiredSpeed(speed);
+    }
+
+    /**
+     * Sets speed and angle along with the rates they are changing at, ex. from a precomputed
+     * trajectory. Each setpoint is extrapolated {@link #SETPOINT_LEAD} ahead along its rate so it
+     * is right halfway through the cycle it is held for instead of at its start.
+     *
+     * @param angle The angle to face in radians.
+     * @param speed The speed to drive in m/s.
+     * @param steerRate The rate the angle is changing at in rad/s.
+     * @param acceleration The rate the speed is changing at in m/s^2.
+     */
+    public void setDesiredState(double angle, double speed, double steerRate, double acceleration) {
+        setDesiredAngle(angle + steerRate * SETPOINT_LEAD);
+        setDesiredSpeed(speed + acceleration * SETPOINT_LEAD);
     }
 
     /**
@@ -73,17 +119,17 @@ public abstract class SwerveModule {
      * @param angle The angle to face in radians.
      */
     public void setDesiredAngle(double angle) {
-        angle %= 2 * Math.PI;
-        double errorAngle = Math.abs(angle - lastAngle);
+        angle = AngleMath.normalize(angle);
+        double errorAngle = Math.abs(AngleMath.shortestDelta(lastAngle, angle));
         lastAngle = angle;
 
-        if (errorAngle > Math.PI / 2 && errorAngle < 3 * Math.PI / 2) {
+        if (errorAngle > Math.PI / 2) {
             // TODO: Re-enable flipFlag
             flipFlag = !flipFlag;
         }
 
         if (flipFlag) {
-            angle = (angle + Math.PI) % (2 * Math.PI);
+            angle = AngleMath.normalize(angle + Math.PI);
         }
 
         TURN_MOTOR.setDesiredAngle(angle);
@@ -91,12 +137,77 @@ public abstract class SwerveModule {
 
     /**
      * Returns the current Speed and Angle in a `SwerveModuleState`.
+     *
+     * @apiNote This allocates a new `Rotation2d`, prefer `getCurrentAngle()` and
+     *          `getCurrentSpeed()` inside the control loop.
      */
     public SwerveModuleState getCurrentState() {
-        state.angle = new Rotation2d(TURN_MOTOR.getCurrentAngle());
-        state.speedMetersPerSecond = DRIVE_MOTOR.getCurrentSpeed() * METERS_PER_RAD;
+        state.angle = new Rotation2d(getCurrentAngle());
+        state.speedMetersPerSecond = getCurrentSpeed();
         return state;
     }
 
+    /**
+     * Returns the angle the module is currently facing.
+     *
+     * @return The angle in radians.
+     */
+    public double getCurrentAngle() {
+        return TURN_MOTOR.getCurrentAngle();
+    }
+
+    /**
+     * Returns the speed the module is currently driving at.
+     *
+     * @return The speed in m/s.
+     */
+    public double getCurrentSpeed() {
+        return DRIVE_MOTOR.getCurrentSpeed() * METERS_PER_RAD;
+    }
+
+    /**
+     * Returns the distance the wheel has travelled.
+     *
+     * @return The distance in meters, or NaN if the drive motor cannot report its position.
+     */
+    public double getCurrentDistance() {
+        return driveEncoder != null ? driveEncoder.getCurrentPosition() * METERS_PER_RAD : Double.NaN;
+    }
+
+    /**
+     * Returns the conversion from drive motor radians to meters travelled.
+     */
+    public double getMetersPerRad() {
+        return METERS_PER_RAD;
+    }
+
+    /**
+     * Returns the duty cycle applied to the drive motor.
+     */
+    public double getDriveOutput() {
+        return DRIVE_MOTOR.getAppliedOutput();
+    }
+
+    /**
+     * Returns the duty cycle applied to the turn motor.
+     */
+    public double getTurnOutput() {
+        return TURN_MOTOR.getAppliedOutput();
+    }
+
+    /**
+     * Returns the current (Amps) drawn by the drive motor.
+     */
+    public double getDriveCurrent() {
+        return DRIVE_MOTOR.getOutputCurrent();
+    }
+
+    /**
+     * Returns the current (Amps) drawn by the turn motor.
+     */
+    public double getTurnCurrent() {
+        return TURN_MOTOR.getOutputCurrent();
+    }
+
     public abstract void resetZero();
 }
@@ -1,6 +1,6 @@
 package frc.robot.components;
 
-import com.revrobotics.CANSparkMax.IdleMode;
+import frc.robot.architecture.ConfigurableMotor;
 
 public class SwerveModule2020 extends SwerveModule {
 
@@ -10,57 +10,93 @@ public class SwerveModule2020 extends SwerveModule {
     private static final double DRIVE_FF = 0.005;
 
     private static final double DRIVE_GEAR_RATIO = 1.0 / 0.1875;
-    private static final IdleMode DRIVE_IDLE_MODE = IdleMode.kCoast;
+    private static final boolean DRIVE_BRAKE = false; // Coast
 
     private static final double TURN_P = 0.5;
     private static final double TURN_I = 0.004;
     private static final double TURN_D = 0.7;
     private static final double TURN_I_MAX_ACCUM = 0.5;
 
+    /** The hand-tuned gains, see {@link ModuleGains#load(String, ModuleGains)} to override them. */
+    public static final ModuleGains DEFAULT_GAINS = new ModuleGains(DRIVE_P, DRIVE_I, DRIVE_D, DRIVE_FF, TURN_P, TURN_I,
+        TURN_D, TURN_I_MAX_ACCUM);
+
     private static final double TURN_GEAR_RATIO = 60.0;
     private static final boolean TURN_INVERTED = false;
 
-    private final Neo DRIVE_MOTOR;
-    private final Neo550 TURN_MOTOR;
+    private final ConfigurableMotor DRIVE_MOTOR;
+    private final ConfigurableMotor TURN_MOTOR;
+
+    /**
+     * Creates a module on SparkMax controllers.
+     * 
+     * @param driveCanId The CAN ID of the drive motor's controller.
+     * @param turnCanId The CAN ID of the turn motor's controller.
+     * @param inverted Whether the drive motor is mounted inverted.
+     * @param gains The drive and turn PID gains, ex. loaded once by
+     *        {@link ModuleGains#load(String, ModuleGains)} for every module.
+     */
+    public SwerveModule2020(int driveCanId, int turnCanId, boolean inverted, ModuleGains gains) {
+        this(Neo.create(driveCanId), Neo550.create(turnCanId), inverted, gains);
+    }
+
+    /**
+     * Creates a module with the default gains on top of any configurable motors (ex. simulated
+     * motors).
+     * 
+     * @param driveMotor The motor which drives the wheel.
+     * @param turnMotor The motor which steers the module.
+     * @param inverted Whether the drive motor is mounted inverted.
+     */
+    public SwerveModule2020(ConfigurableMotor driveMotor, ConfigurableMotor turnMotor, boolean inverted) {
+        this(driveMotor, turnMotor, inverted, DEFAULT_GAINS);
+    }
 
-    public SwerveModule2020(int driveCanId, int turnCanId, boolean inverted) {
+    /**
+     * Creates a module on top of any configurable motors with the given gains (ex. to tune them).
+     * 
+     * @param driveMotor The motor which drives the wheel.
+     * @param turnMotor The motor which steers the module.
+     * @param inverted Whether the drive motor is mounted inverted.
+     * @param gains The drive and turn PID gains.
+     */
+    public SwerveModule2020(ConfigurableMotor driveMotor, ConfigurableMotor turnMotor, boolean inverted,
+            ModuleGains gains) {
         super(
-            new Neo(driveCanId),
-            new Neo550(turnCanId),
+            driveMotor,
+            turnMotor,
             0.31918 / (2 * Math.PI)
         );
 
-        // Set up the drive motor
-        DRIVE_MOTOR = (Neo) super.DRIVE_MOTOR;
+        // Set up the drive motor, the configs are applied in the background by MotorConfigurator
+        DRIVE_MOTOR = driveMotor;
         int speedPid = DRIVE_MOTOR.getSpeedPid();
-        DRIVE_MOTOR.PID.setP(DRIVE_P, speedPid);
-        DRIVE_MOTOR.PID.setI(DRIVE_I, speedPid);
-        DRIVE_MOTOR.PID.setD(DRIVE_D, speedPid);
-        DRIVE_MOTOR.PID.setFF(DRIVE_FF, speedPid);
-        DRIVE_MOTOR.PID.setIZone(0.0, speedPid);
-        DRIVE_MOTOR.PID.setOutputRange(-1.0, 1.0);
-
-        DRIVE_MOTOR.setGearRatio(DRIVE_GEAR_RATIO);
-
-        DRIVE_MOTOR.CONTROLLER.setInverted(!inverted);
-        DRIVE_MOTOR.CONTROLLER.setIdleMode(DRIVE_IDLE_MODE);
-        DRIVE_MOTOR.CONTROLLER.setSmartCurrentLimit(40, 30);
+        MotorConfigurator.configure(DRIVE_MOTOR, new MotorConfig()
+            .setP(gains.DRIVE_P, speedPid)
+            .setI(gains.DRIVE_I, speedPid)
+            .setD(gains.DRIVE_D, speedPid)
+            .setFF(gains.DRIVE_FF, speedPid)
+            .setIZone(0.0, speedPid)
+            .setOutputRange(-1.0, 1.0, speedPid)
+            .setGearRatio(DRIVE_GEAR_RATIO)
+            .setInverted(!inverted)
+            .setBrakeMode(DRIVE_BRAKE)
+            .setCurrentLimit(40, 30));
 
         // Make settings persistent
         // DRIVE_MOTOR.CONTROLLER.burnFlash();
 
         // Set up the Turn Motor
-        TURN_MOTOR = (Neo550) super.TURN_MOTOR;
+        TURN_MOTOR = turnMotor;
         int positionPid = TURN_MOTOR.getPositionPid();
-        TURN_MOTOR.PID.setP(TURN_P, positionPid);
-        TURN_MOTOR.PID.setI(TURN_I, positionPid);
-        TURN_MOTOR.PID.setD(TURN_D, positionPid);
-        TURN_MOTOR.PID.setIMaxAccum(TURN_I_MAX_ACCUM, positionPid);
-        
-        TURN_MOTOR.setGearRatio(TURN_GEAR_RATIO);
-
-        TURN_MOTOR.CONTROLLER.setInverted(TURN_INVERTED);
-        TURN_MOTOR.CONTROLLER.setSmartCurrentLimit(30, 20);
+        MotorConfigurator.configure(TURN_MOTOR, new MotorConfig()
+            .setP(gains.TURN_P, positionPid)
+            .setI(gains.TURN_I, positionPid)
+            .setD(gains.TURN_D, positionPid)
+            .setIMaxAccum(gains.TURN_I_MAX_ACCUM, positionPid)
+            .setGearRatio(TURN_GEAR_RATIO)
+            .setInverted(TURN_INVERTED)
+            .setCurrentLimit(30, 20));
 
         // Make settings persistent
         // TURN_MOTOR.CONTROLLER.burnFlash();
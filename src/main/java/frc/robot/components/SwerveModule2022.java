@@ -1,6 +1,7 @@
 package frc.robot.components;
 
-import com.revrobotics.CANSparkMax.IdleMode;
+import frc.robot.architecture.ConfigurableMotor;
+import frc.robot.architecture.PositionEncoder;
 
 public class SwerveModule2022 extends SwerveModule {
     
@@ -9,59 +10,106 @@ public class SwerveModule2022 extends SwerveModule {
     private static final double DRIVE_D = 0.0;
 
     private static final double DRIVE_GEAR_RATIO = 1.0 / 0.1875;
-    private static final IdleMode DRIVE_IDLE_MODE = IdleMode.kCoast;
+    private static final boolean DRIVE_BRAKE = false; // Coast
 
     private static final double TURN_P = 0.4;
     private static final double TURN_I = 0.000667;
     private static final double TURN_D = 0.1;
     private static final double TURN_I_MAX_ACCUM = 0.5;
 
+    /**
+     * The hand-tuned gains, see {@link ModuleGains#load(String, ModuleGains)} to override them. The
+     * drive FF is not set, so the value burned into the SparkMax is kept unless overridden.
+     */
+    public static final ModuleGains DEFAULT_GAINS = new ModuleGains(DRIVE_P, DRIVE_I, DRIVE_D, Double.NaN, TURN_P,
+        TURN_I, TURN_D, TURN_I_MAX_ACCUM);
+
     private static final double TURN_GEAR_RATIO = 10.0;
     
     private static final boolean TURN_INVERTED = false;
 
-    private final Neo DRIVE_MOTOR;
-    private final Neo550 TURN_MOTOR;
-    private final ThroughboreEncoder THROUGHBORE_ENCODER;
+    private final ConfigurableMotor DRIVE_MOTOR;
+    private final ConfigurableMotor TURN_MOTOR;
+    private final PositionEncoder THROUGHBORE_ENCODER;
+
+    /**
+     * Creates a module on SparkMax controllers and a Throughbore encoder.
+     * 
+     * @param driveCanId The CAN ID of the drive motor's controller.
+     * @param turnCanId The CAN ID of the turn motor's controller.
+     * @param throughborePin The DIO pin of the absolute encoder.
+     * @param inverted Whether the drive motor is mounted inverted.
+     * @param gains The drive and turn PID gains, ex. loaded once by
+     *        {@link ModuleGains#load(String, ModuleGains)} for every module.
+     */
+    public SwerveModule2022(int driveCanId, int turnCanId, int throughborePin, boolean inverted,
+            ModuleGains gains) {
+        this(Neo.create(driveCanId), Neo550.create(turnCanId), new ThroughboreEncoder(throughborePin), inverted,
+            gains);
+    }
+
+    /**
+     * Creates a module with the default gains on top of any configurable motors and absolute
+     * encoder (ex. simulated hardware).
+     * 
+     * @param driveMotor The motor which drives the wheel.
+     * @param turnMotor The motor which steers the module.
+     * @param absoluteEncoder An absolute encoder on the module's steering axis.
+     * @param inverted Whether the drive motor is mounted inverted.
+     */
+    public SwerveModule2022(ConfigurableMotor driveMotor, ConfigurableMotor turnMotor,
+            PositionEncoder absoluteEncoder, boolean inverted) {
+        this(driveMotor, turnMotor, absoluteEncoder, inverted, DEFAULT_GAINS);
+    }
 
-    public SwerveModule2022(int driveCanId, int turnCanId, int throughborePin, boolean inverted) {
+    /**
+     * Creates a module on top of any configurable motors and absolute encoder with the given gains
+     * (ex. to tune them).
+     * 
+     * @param driveMotor The motor which drives the wheel.
+     * @param turnMotor The motor which steers the module.
+     * @param absoluteEncoder An absolute encoder on the module's steering axis.
+     * @param inverted Whether the drive motor is mounted inverted.
+     * @param gains The drive and turn PID gains.
+     */
+    public SwerveModule2022(ConfigurableMotor driveMotor, ConfigurableMotor turnMotor,
+            PositionEncoder absoluteEncoder, boolean inverted, ModuleGains gains) {
         super(
-            new Neo(driveCanId),
-            new Neo550(turnCanId),
+            driveMotor,
+            turnMotor,
             0.31918 / (2 * Math.PI)
         );
 
         // Set up the absolute encoder
-        THROUGHBORE_ENCODER = new ThroughboreEncoder(throughborePin);
+        THROUGHBORE_ENCODER = absoluteEncoder;
 
-        // Set up the drive motor
-        DRIVE_MOTOR = (Neo) super.DRIVE_MOTOR;
+        // Set up the drive motor, the configs are applied in the background by MotorConfigurator
+        DRIVE_MOTOR = driveMotor;
         int speedPid = DRIVE_MOTOR.getSpeedPid();
-        DRIVE_MOTOR.PID.setP(DRIVE_P, speedPid);
-        DRIVE_MOTOR.PID.setI(DRIVE_I, speedPid);
-        DRIVE_MOTOR.PID.setD(DRIVE_D, speedPid);
-
-        DRIVE_MOTOR.setGearRatio(DRIVE_GEAR_RATIO);
-
-        DRIVE_MOTOR.CONTROLLER.setInverted(!inverted);
-        DRIVE_MOTOR.CONTROLLER.setIdleMode(DRIVE_IDLE_MODE); // TODO: Switch back to kCoast
-        DRIVE_MOTOR.CONTROLLER.setSmartCurrentLimit(40, 30);
+        MotorConfigurator.configure(DRIVE_MOTOR, new MotorConfig()
+            .setP(gains.DRIVE_P, speedPid)
+            .setI(gains.DRIVE_I, speedPid)
+            .setD(gains.DRIVE_D, speedPid)
+            .setFF(gains.DRIVE_FF, speedPid)
+            .setGearRatio(DRIVE_GEAR_RATIO)
+            .setInverted(!inverted)
+            .setBrakeMode(DRIVE_BRAKE) // TODO: Switch back to kCoast
+            .setCurrentLimit(40, 30));
 
         // Make settings persistent
         // DRIVE_MOTOR.CONTROLLER.burnFlash();
 
         // Set up the Turn Motor
-        TURN_MOTOR = (Neo550) super.TURN_MOTOR;
+        TURN_MOTOR = turnMotor;
         int positionPid = TURN_MOTOR.getPositionPid();
-        TURN_MOTOR.PID.setP(TURN_P, positionPid);
-        TURN_MOTOR.PID.setI(TURN_I, positionPid);
-        TURN_MOTOR.PID.setD(TURN_D, positionPid);
-        TURN_MOTOR.PID.setIMaxAccum(TURN_I_MAX_ACCUM, positionPid);
-
-        TURN_MOTOR.setGearRatio(TURN_GEAR_RATIO);
-        
-        TURN_MOTOR.CONTROLLER.setInverted(TURN_INVERTED);
-        TURN_MOTOR.CONTROLLER.setSmartCurrentLimit(30, 20);
+        MotorConfigurator.configure(TURN_MOTOR, new MotorConfig()
+            .setP(gains.TURN_P, positionPid)
+            .setI(gains.TURN_I, positionPid)
+            .setD(gains.TURN_D, positionPid)
+            .setIMaxAccum(gains.TURN_I_MAX_ACCUM, positionPid)
+            .setGearRatio(TURN_GEAR_RATIO)
+            .setInverted(TURN_INVERTED)
+            .setCurrentLimit(30, 20));
 
         // Make settings persistent
         // TURN_MOTOR.CONTROLLER.burnFlash();
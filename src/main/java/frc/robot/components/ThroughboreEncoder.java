@@ -4,6 +4,7 @@ import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.DutyCycle;
 import edu.wpi.first.wpilibj.Preferences;
 import frc.robot.architecture.PositionEncoder;
+import frc.robot.utilities.CachedDouble;
 import frc.robot.utilities.Utils;
 
 public class ThroughboreEncoder implements PositionEncoder {
@@ -13,12 +14,14 @@ public class ThroughboreEncoder implements PositionEncoder {
     public final int DIO_PIN;
 
     private final DutyCycle DUTY_CYCLE;
+    private final CachedDouble output;
 
     private double offset;
 
     public ThroughboreEncoder(int dioPin) {
         DIO_PIN = dioPin;
         DUTY_CYCLE = new DutyCycle(new DigitalInput(dioPin));
+        output = new CachedDouble(DUTY_CYCLE::getOutput);
 
         offset = Preferences.getDouble(PART_NAME + "[" + DIO_PIN + "]/offset", 0.0);
         System.out.println(PART_NAME + "[" + DIO_PIN + "]:  " + offset);
@@ -26,12 +29,12 @@ public class ThroughboreEncoder implements PositionEncoder {
 
     @Override
     public double getCurrentPosition() {
-        return Utils.normalizeAngle(DUTY_CYCLE.getOutput() * 2 * Math.PI + offset);
+        return Utils.normalizeAngle(output.get() * 2 * Math.PI + offset);
     }
 
     @Override
     public void setPosition(double newPosition) {
-        offset = newPosition - DUTY_CYCLE.getOutput() * 2 * Math.PI;
+        offset = newPosition - output.get() * 2 * Math.PI;
         Preferences.setDouble(PART_NAME + "[" + DIO_PIN + "]/offset", offset);
     }
 }
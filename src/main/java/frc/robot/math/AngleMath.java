@@ -0,0 +1,61 @@
+package frc.robot.math;
+
+/**
+ * Constant-time angle arithmetic. All angles are in radians.
+ *
+ * <p>
+ * Unlike repeatedly adding or subtracting 2PI, these functions take the same time no matter how
+ * far the input has wound up, which matters for turn motor positions that accumulate without bound.
+ */
+public final class AngleMath {
+
+    public static final double TWO_PI = 2.0 * Math.PI;
+
+    private AngleMath() {}
+
+    /**
+     * Normalizes an angle to the range [0, 2PI).
+     *
+     * @param angle The angle to normalize.
+     * @return The equivalent angle in [0, 2PI).
+     */
+    public static double normalize(double angle) {
+        double result = angle - TWO_PI * Math.floor(angle / TWO_PI);
+        // Rounding can push tiny negative inputs up to exactly 2PI
+        return result < TWO_PI ? result : 0.0;
+    }
+
+    /**
+     * Normalizes an angle to the range (-PI, PI].
+     *
+     * @param angle The angle to normalize.
+     * @return The equivalent angle in (-PI, PI].
+     */
+    public static double normalizeSigned(double angle) {
+        double result = angle - TWO_PI * Math.ceil((angle - Math.PI) / TWO_PI);
+        return result > -Math.PI ? result : result + TWO_PI;
+    }
+
+    /**
+     * Returns the shortest signed rotation from one angle to another.
+     *
+     * @param from The starting angle.
+     * @param to The target angle.
+     * @return The rotation in (-PI, PI], positive counter-clockwise.
+     */
+    public static double shortestDelta(double from, double to) {
+        return normalizeSigned(to - from);
+    }
+
+    /**
+     * Returns the unbounded position closest to {@code position} which faces {@code angle}. Useful
+     * for turning a wound-up motor to a heading by the shortest path.
+     *
+     * @param position The current unbounded position.
+     * @param angle The desired angle.
+     * @return An unbounded position within PI of {@code position}.
+     */
+    public static double nearestEquivalent(double position, double angle) {
+        return position + shortestDelta(position, angle);
+    }
+}
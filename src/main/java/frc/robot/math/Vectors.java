@@ -0,0 +1,67 @@
+package frc.robot.math;
+
+/**
+ * Allocation-free 2D vector operations which write their results into output parameters.
+ *
+ * Polar vectors are stored as {theta, magnitude} and cartesian vectors as {x, y}, matching
+ * {@code Utils.addVectors}.
+ */
+public final class Vectors {
+
+    private Vectors() {}
+
+    /**
+     * Converts a polar vector to cartesian coordinates.
+     *
+     * @param theta The angle (rad).
+     * @param magnitude The magnitude.
+     * @param out Output array of {x, y}.
+     */
+    public static void toCartesian(double theta, double magnitude, double[] out) {
+        out[0] = magnitude * Math.cos(theta);
+        out[1] = magnitude * Math.sin(theta);
+    }
+
+    /**
+     * Converts a cartesian vector to polar coordinates.
+     *
+     * @param x The x component.
+     * @param y The y component.
+     * @param out Output array of {theta, magnitude}, theta in [0, 2PI).
+     */
+    public static void toPolar(double x, double y, double[] out) {
+        out[0] = AngleMath.normalize(Math.atan2(y, x));
+        out[1] = Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Adds two polar vectors.
+     *
+     * @param theta1 The angle of the first vector (rad).
+     * @param magnitude1 The magnitude of the first vector.
+     * @param theta2 The angle of the second vector (rad).
+     * @param magnitude2 The magnitude of the second vector.
+     * @param out Output array of {theta, magnitude}, theta in [0, 2PI).
+     */
+    public static void addPolar(double theta1, double magnitude1, double theta2, double magnitude2,
+            double[] out) {
+        double x = magnitude1 * Math.cos(theta1) + magnitude2 * Math.cos(theta2);
+        double y = magnitude1 * Math.sin(theta1) + magnitude2 * Math.sin(theta2);
+        toPolar(x, y, out);
+    }
+
+    /**
+     * Rotates a cartesian vector counter-clockwise.
+     *
+     * @param x The x component.
+     * @param y The y component.
+     * @param angle The angle to rotate by (rad).
+     * @param out Output array of {x, y}. May not alias the inputs' storage.
+     */
+    public static void rotate(double x, double y, double angle, double[] out) {
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        out[0] = x * cos - y * sin;
+        out[1] = x * sin + y * cos;
+    }
+}
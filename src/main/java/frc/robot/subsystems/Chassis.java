@@ -1,25 +1,52 @@
 package frc.robot.subsystems;
 
-import javax.xml.crypto.dsig.keyinfo.RetrievalMethod;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
 
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.architecture.Drive;
+import frc.robot.architecture.DriveState;
+import frc.robot.architecture.Gyro;
+import frc.robot.architecture.TelemetrySource;
 import frc.robot.components.AHRSGyroEncoder;
+import frc.robot.components.ModuleGains;
 import frc.robot.components.SwerveDrive;
 import frc.robot.components.SwerveModule;
 import frc.robot.components.SwerveModule2020;
+import frc.robot.math.Vectors;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.CompiledTrajectory;
+import frc.robot.utilities.HeadingController;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.LatencyTracer;
+import frc.robot.utilities.LoopProfiler;
+import frc.robot.utilities.ModuleSetpointTable;
+import frc.robot.utilities.SeqLock;
+import frc.robot.utilities.SwerveKinematics;
+import frc.robot.utilities.TelemetryLog;
 
 /**
  * Subsystem to control the entire drive base
+ *
+ * <p>
+ * Commands only post requests (speeds and heading goals, or precomputed module setpoints) through
+ * {@code SeqLock}s. The heading controller and module setpoints run from {@code periodic()}, or
+ * with a control period set, on a dedicated high priority {@code Notifier} so the drive tracks at
+ * 5 or 10 ms regardless of the 20 ms robot loop. Telemetry of the module targets may then be
+ * from either side of an update.
  */
 public class Chassis extends SubsystemBase {
 
@@ -28,44 +55,238 @@ public class Chassis extends SubsystemBase {
     public static final double MAX_TURN_SPEED = Math.PI;
     public static final double MAX_TURN_ACCELERATION = 2 * Math.PI;
 
-    private final AHRSGyroEncoder GYRO;
+    /** How often odometry is sampled on its own thread (Hz), zero to update it every loop. */
+    public static final double ODOMETRY_FREQUENCY = 250.0;
+
+    /** How often the drive is controlled on its own thread (s), zero to control it every loop. */
+    public static final double CONTROL_PERIOD = 0.0;
+    /** The real-time priority of the control thread. */
+    public static final int CONTROL_PRIORITY = 20;
+
+    /** How often the pose is published to the dashboard's {@code Field2d} (s). */
+    public static final double FIELD_PERIOD = 0.1;
+
+    private static final LatencyHistogram PERIODIC_TIME = LoopProfiler.histogram("Chassis.periodic");
+    private static final LatencyHistogram FIELD_TIME = LoopProfiler.histogram("Chassis.field");
+    private static final LatencyHistogram TELEMETRY_TIME = LoopProfiler.histogram("Chassis.telemetry");
+    private static final LatencyHistogram CONTROL_TIME = LoopProfiler.histogram("Chassis.control");
+    private static final LatencyHistogram CONTROL_JITTER = LoopProfiler.histogram("Chassis.controlJitter");
+
+    // The layout of a request posted to the control loop
+    private static final int REQUEST_VX = 0;
+    private static final int REQUEST_VY = 1;
+    private static final int REQUEST_OMEGA = 2;
+    /** The raw bits of the input stamp, see {@link LatencyTracer}. */
+    private static final int REQUEST_INPUT = 3;
+    private static final int REQUEST_HEADING_GOAL = 4;
+    /** Counts heading goals, so the control loop applies each one once. */
+    private static final int REQUEST_HEADING_COUNT = 5;
+    /** Counts heading goals which reset the controller. */
+    private static final int REQUEST_HEADING_RESETS = 6;
+    /** Non-zero while module setpoints are requested instead of speeds. */
+    private static final int REQUEST_MODULES = 7;
+    private static final int REQUEST_SIZE = 8;
+
+    /** The values logged by the chassis itself, ahead of the drive's telemetry. */
+    private static final String[] TELEMETRY_COLUMNS = {
+        "timestamp", "gyroAngle", "gyroRate", "busVoltage", "desiredVx", "desiredVy", "desiredOmega",
+        "poseX", "poseY", "poseTheta"
+    };
+
+    private final Gyro GYRO;
     private final Drive DRIVE;
+    /** The same drive as {@code DRIVE}, for module setpoints. */
+    private final SwerveDrive SWERVE;
 
     private ChassisSpeeds desiredSpeeds = new ChassisSpeeds();
-    private Pose2d pose = new Pose2d();
     private Field2d field = new Field2d();
 
-    private ProfiledPIDController omegaController;
+    private final DriveState state;
+
+    // Built from state when requested, at most once per update
+    private Pose2d currentPose;
+    private long currentPoseVersion = -1;
+    private ChassisSpeeds currentSpeeds;
+    private long currentSpeedsVersion = -1;
+
+    // Owned by the field publisher, which allocates a Pose2d for each update
+    private final DriveState fieldState;
+    private long fieldVersion = -1;
+    private Notifier fieldNotifier;
+
+    private HeadingController omegaController;
+
+    // Requests, written by commands and read by the control loop
+    private final SeqLock requestLock = new SeqLock(REQUEST_SIZE);
+    private final double[] request = new double[REQUEST_SIZE];
+    /** Module setpoints: every angle, then every speed, steering rate and acceleration. */
+    private final SeqLock moduleLock;
+
+    // Owned by the control loop
+    private final double[] controlRequest = new double[REQUEST_SIZE];
+    private final double[] controlModules;
+    private final ModuleSetpointTable.Setpoint controlSetpoint;
+    private long appliedInput = 0;
+    private long appliedHeadingCount = 0;
+    private long appliedHeadingResets = 0;
+    /** The heading goal count at the last update if it was reached, otherwise -1. */
+    private volatile long reachedHeadingCount = -1;
+
+    private double controlPeriod = CONTROL_PERIOD;
+    private long controlPeriodNanos;
+    private Notifier controlNotifier;
+    private long lastControlStart = 0;
+    private volatile long controlOverruns = 0;
+
+    private final double[] robotVelocity = new double[2];
+
+    private TelemetryLog telemetry;
+    private TelemetrySource[] telemetrySources = new TelemetrySource[0];
+    private double[] telemetryRow;
+
+    /** Builds the chassis {@code RobotContainer} drives, see {@link #setRobotFactory(Supplier)}. */
+    private static Supplier<Chassis> robotFactory = Chassis::new;
+
+    /**
+     * Replaces how {@link #createRobotChassis()} builds the robot's chassis, ex. so a simulation
+     * harness can run the registered autonomous routines on simulated hardware. Must be called
+     * before {@code RobotContainer} is loaded.
+     */
+    public static void setRobotFactory(Supplier<Chassis> factory) {
+        robotFactory = factory;
+    }
+
+    /**
+     * Builds the robot's chassis, on the robot's own hardware unless replaced.
+     */
+    public static Chassis createRobotChassis() {
+        return robotFactory.get();
+    }
 
     public Chassis() {
+        this(new AHRSGyroEncoder(), createModules(PODS), getOffsets(PODS), ODOMETRY_FREQUENCY);
+    }
+
+    /**
+     * Creates a chassis on top of any gyro and set of modules (ex. simulated hardware), spaced
+     * evenly around a circle as by {@link #ringOffsets(int, double)}.
+     * 
+     * @param gyro The gyro used for heading.
+     * @param modules The modules, counter-clockwise starting from the right front.
+     */
+    public Chassis(Gyro gyro, SwerveModule[] modules) {
+        this(gyro, modules, ODOMETRY_FREQUENCY);
+    }
+
+    /**
+     * Creates a chassis on top of any gyro and set of modules (ex. simulated hardware), spaced
+     * evenly around a circle as by {@link #ringOffsets(int, double)}.
+     * 
+     * @param gyro The gyro used for heading.
+     * @param modules The modules, counter-clockwise starting from the right front.
+     * @param odometryFrequency How often odometry is sampled on its own thread (Hz), zero to
+     *        update it every loop.
+     */
+    public Chassis(Gyro gyro, SwerveModule[] modules, double odometryFrequency) {
+        this(gyro, modules, ringOffsets(modules.length, POD_RADIUS), odometryFrequency);
+    }
+
+    /**
+     * Creates a chassis on top of any gyro and set of modules.
+     * 
+     * @param gyro The gyro used for heading.
+     * @param modules Any number of modules.
+     * @param offsets Where each module is mounted, x forward and y leftward (m).
+     * @param odometryFrequency How often odometry is sampled on its own thread (Hz), zero to
+     *        update it every loop.
+     */
+    public Chassis(Gyro gyro, SwerveModule[] modules, Translation2d[] offsets, double odometryFrequency) {
         SmartDashboard.putData(field);
 
-        GYRO = new AHRSGyroEncoder();
-        GYRO.SENSOR.calibrate();
-
-        pose = new Pose2d();
-
-        DRIVE = new SwerveDrive(
-            new SwerveModule[] {
-                new SwerveModule2020(POD_1_DRIVE, POD_1_TURN, false),
-                new SwerveModule2020(POD_2_DRIVE, POD_2_TURN, false),
-                new SwerveModule2020(POD_3_DRIVE, POD_3_TURN, true),
-                new SwerveModule2020(POD_4_DRIVE, POD_4_TURN, true)
-            },
-            // x is forward 
-            // y is leftward
-            new Translation2d[] {
-                new Translation2d(1, -1),
-                new Translation2d(1, 1),
-                new Translation2d(-1, 1),
-                new Translation2d(-1, -1)
-            },
-            GYRO
-        );
-
-        omegaController = new ProfiledPIDController(0.5, 0.001, 0.0, new TrapezoidProfile.Constraints(MAX_TURN_SPEED, MAX_TURN_ACCELERATION));
+        GYRO = gyro;
+        GYRO.calibrate();
+
+        SwerveDrive swerveDrive = new SwerveDrive(modules, offsets, GYRO);
+        swerveDrive.setOdometryFrequency(odometryFrequency);
+        DRIVE = swerveDrive;
+        SWERVE = swerveDrive;
+        state = DRIVE.createState();
+        fieldState = DRIVE.createState();
+
+        moduleLock = new SeqLock(4 * modules.length);
+        controlModules = new double[4 * modules.length];
+        controlSetpoint = new ModuleSetpointTable.Setpoint(modules.length);
+
+        setControlPeriod(CONTROL_PERIOD);
+    }
+
+    /**
+     * Sets how often the drive is controlled on its own thread. Must be called before
+     * {@code init()}.
+     *
+     * @param period The control period (s), 0.005 or 0.01 is recommended. Zero or less controls
+     *        the drive from {@code periodic()} instead.
+     */
+    public void setControlPeriod(double period) {
+        controlPeriod = period;
+        controlPeriodNanos = (long) (period * 1e9);
+
+        // The controller integrates over the period it is called at
+        double controllerPeriod = period > 0.0 ? period : TimedRobot.kDefaultPeriod;
+        omegaController = new HeadingController(0.5, 0.001, 0.0, MAX_TURN_SPEED, MAX_TURN_ACCELERATION,
+            controllerPeriod);
         omegaController.setTolerance(0.2);
-        omegaController.enableContinuousInput(0, 2 * Math.PI);
+    }
+
+    public double getControlPeriod() {
+        return controlPeriod;
+    }
+
+    /**
+     * Returns the number of times the control loop took longer than its period.
+     */
+    public long getControlOverruns() {
+        return controlOverruns;
+    }
+
+    /**
+     * Creates a module for each pod, with the gain overrides loaded once from the deploy
+     * directory.
+     */
+    public static SwerveModule[] createModules(PodConfig[] pods) {
+        SwerveModule[] modules = new SwerveModule[pods.length];
+        ModuleGains gains = ModuleGains.load("SwerveModule2020", SwerveModule2020.DEFAULT_GAINS);
+        for (int i = 0; i < pods.length; i++) {
+            modules[i] = new SwerveModule2020(pods[i].DRIVE_CAN_ID, pods[i].TURN_CAN_ID, pods[i].INVERTED, gains);
+        }
+        return modules;
+    }
+
+    /**
+     * Returns where each pod is mounted.
+     */
+    public static Translation2d[] getOffsets(PodConfig[] pods) {
+        Translation2d[] offsets = new Translation2d[pods.length];
+        for (int i = 0; i < pods.length; i++) {
+            offsets[i] = new Translation2d(pods[i].X, pods[i].Y);
+        }
+        return offsets;
+    }
+
+    /**
+     * Spaces modules evenly around a circle, counter-clockwise starting from the right front. Four
+     * modules land on the corners of a square, as on the competition robot.
+     * 
+     * @param count The number of modules.
+     * @param radius The distance (m) of each module from the center of rotation.
+     */
+    public static Translation2d[] ringOffsets(int count, double radius) {
+        Translation2d[] offsets = new Translation2d[count];
+        for (int i = 0; i < count; i++) {
+            double angle = -Math.PI / 4 + 2 * Math.PI * i / count;
+            offsets[i] = new Translation2d(radius * Math.cos(angle), radius * Math.sin(angle));
+        }
+        return offsets;
     }
 
     /**
@@ -73,28 +294,210 @@ public class Chassis extends SubsystemBase {
      */
     public void init(Pose2d initialPose) {
         GYRO.setPosition(initialPose.getRotation().getRadians());
-        omegaController.reset(GYRO.getCurrentAngle());
-        omegaController.setGoal(GYRO.getCurrentAngle());
+        setHeading(GYRO.getCurrentAngle(), true);
         DRIVE.init();
         DRIVE.resetPose(initialPose);
+
+        if (controlPeriod > 0.0 && controlNotifier == null) {
+            controlNotifier = new Notifier(this::controlLoop);
+            controlNotifier.setName("Chassis Control");
+            controlNotifier.startPeriodic(controlPeriod);
+            SmartDashboard.putData(this);
+        }
+        if (fieldNotifier == null) {
+            fieldNotifier = new Notifier(this::publishField);
+            fieldNotifier.setName("Chassis Field");
+            fieldNotifier.startPeriodic(FIELD_PERIOD);
+        }
     }
 
     public void periodic() {
-        if (desiredSpeeds.omegaRadiansPerSecond == 0.0) {
-            double output = omegaController.calculate(GYRO.getCurrentAngle());
-            DRIVE.setDesiredSpeeds(
-                desiredSpeeds.vxMetersPerSecond,
-                desiredSpeeds.vyMetersPerSecond,
-                output
-            );
+        long start = System.nanoTime();
+        if (controlNotifier == null) {
+            control();
+        }
+
+        DRIVE.periodic();
+        DRIVE.readState(state);
+        if (telemetry != null) {
+            long telemetryStart = System.nanoTime();
+            getTelemetry(telemetryRow);
+            telemetry.log(telemetryRow);
+            TELEMETRY_TIME.recordSince(telemetryStart);
+        }
+        PERIODIC_TIME.recordSince(start);
+    }
+
+    /**
+     * Publishes the latest pose to the dashboard. Runs on its own low rate thread, so the
+     * {@code Pose2d} it allocates never lands on the control path.
+     */
+    private void publishField() {
+        DRIVE.readState(fieldState);
+        if (fieldState.version != fieldVersion) {
+            long start = System.nanoTime();
+            fieldVersion = fieldState.version;
+            field.setRobotPose(fieldState.toPose());
+            FIELD_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Runs the control loop on the control thread, measuring how late each run starts.
+     */
+    private void controlLoop() {
+        long start = System.nanoTime();
+        if (lastControlStart == 0) {
+            Threads.setCurrentThreadPriority(true, CONTROL_PRIORITY);
         } else {
-            DRIVE.setDesiredSpeeds(desiredSpeeds);
+            CONTROL_JITTER.record(Math.abs(start - lastControlStart - controlPeriodNanos));
         }
+        lastControlStart = start;
 
+        control();
 
-        DRIVE.periodic();
-        pose = DRIVE.getCurrentPose();
-        field.setRobotPose(pose);
+        long elapsed = System.nanoTime() - start;
+        CONTROL_TIME.record(elapsed);
+        if (elapsed > controlPeriodNanos) {
+            controlOverruns++;
+        }
+    }
+
+    /**
+     * Applies the latest request: runs the heading controller and sends the speeds to the drive.
+     */
+    private void control() {
+        requestLock.read(controlRequest);
+
+        // Only trace the first time a request is applied
+        long input = Double.doubleToRawLongBits(controlRequest[REQUEST_INPUT]);
+        LatencyTracer.enter(input != appliedInput ? input : 0);
+        appliedInput = input;
+
+        long headingCount = (long) controlRequest[REQUEST_HEADING_COUNT];
+        if (headingCount != appliedHeadingCount) {
+            appliedHeadingCount = headingCount;
+            long headingResets = (long) controlRequest[REQUEST_HEADING_RESETS];
+            if (headingResets != appliedHeadingResets) {
+                appliedHeadingResets = headingResets;
+                omegaController.reset(GYRO.getCurrentAngle(), GYRO.getCurrentSpeed());
+            }
+            omegaController.setGoal(controlRequest[REQUEST_HEADING_GOAL]);
+        }
+
+        if (controlRequest[REQUEST_MODULES] != 0.0) {
+            applyModuleSetpoints();
+            reachedHeadingCount = -1;
+            LatencyTracer.exit();
+            return;
+        }
+
+        double omega = controlRequest[REQUEST_OMEGA];
+        if (omega == 0.0) {
+            omega = omegaController.calculate(GYRO.getCurrentAngle());
+        }
+        DRIVE.setDesiredSpeeds(controlRequest[REQUEST_VX], controlRequest[REQUEST_VY], omega);
+        reachedHeadingCount = omegaController.atGoal() ? headingCount : -1;
+        LatencyTracer.exit();
+    }
+
+    /**
+     * Sends the latest module setpoints to the drive.
+     */
+    private void applyModuleSetpoints() {
+        moduleLock.read(controlModules);
+        int n = controlSetpoint.angles.length;
+        System.arraycopy(controlModules, 0, controlSetpoint.angles, 0, n);
+        System.arraycopy(controlModules, n, controlSetpoint.speeds, 0, n);
+        System.arraycopy(controlModules, 2 * n, controlSetpoint.steerRates, 0, n);
+        System.arraycopy(controlModules, 3 * n, controlSetpoint.accelerations, 0, n);
+        SWERVE.setModuleSetpoints(controlSetpoint.angles, controlSetpoint.speeds, controlSetpoint.steerRates,
+            controlSetpoint.accelerations);
+    }
+
+    /**
+     * Publishes the request to the control loop.
+     */
+    private void postRequest() {
+        double[] data = requestLock.beginWrite();
+        System.arraycopy(request, 0, data, 0, REQUEST_SIZE);
+        requestLock.endWrite();
+    }
+
+    /**
+     * Starts recording the gyro, bus voltage, pose and every module's setpoints and measurements
+     * each cycle into a {@code TelemetryLog}.
+     * 
+     * @param directory Where to write the log segments, see {@link TelemetryLog#defaultDirectory()}.
+     * @param sources Anything else to record in the same rows, ex. the operator inputs.
+     */
+    public void startTelemetry(Path directory, TelemetrySource... sources) {
+        if (telemetry != null) {
+            return;
+        }
+        telemetrySources = sources.clone();
+        String[] columns = getTelemetryColumns();
+
+        TelemetryLog log = new TelemetryLog(directory, "chassis", columns);
+        try {
+            log.start();
+        } catch (IOException e) {
+            System.err.println("Could not start chassis telemetry in " + directory + ": " + e.getMessage());
+            return;
+        }
+        telemetryRow = new double[columns.length];
+        telemetry = log;
+    }
+
+    /**
+     * Returns the names of the values written by {@link #getTelemetry(double[])}.
+     */
+    public String[] getTelemetryColumns() {
+        String[] driveColumns = DRIVE.getTelemetryColumns();
+        int count = TELEMETRY_COLUMNS.length + driveColumns.length;
+        for (TelemetrySource source : telemetrySources) {
+            count += source.getTelemetryColumns().length;
+        }
+
+        String[] columns = new String[count];
+        System.arraycopy(TELEMETRY_COLUMNS, 0, columns, 0, TELEMETRY_COLUMNS.length);
+        System.arraycopy(driveColumns, 0, columns, TELEMETRY_COLUMNS.length, driveColumns.length);
+        int offset = TELEMETRY_COLUMNS.length + driveColumns.length;
+        for (TelemetrySource source : telemetrySources) {
+            String[] sourceColumns = source.getTelemetryColumns();
+            System.arraycopy(sourceColumns, 0, columns, offset, sourceColumns.length);
+            offset += sourceColumns.length;
+        }
+        return columns;
+    }
+
+    /**
+     * Copies this cycle's telemetry into a row without allocating.
+     * 
+     * @param row A row with one value per column of {@link #getTelemetryColumns()}.
+     */
+    public void getTelemetry(double[] row) {
+        row[0] = Clock.now();
+        row[1] = GYRO.getCurrentPosition();
+        row[2] = GYRO.getCurrentSpeed();
+        row[3] = RobotController.getBatteryVoltage();
+        row[4] = desiredSpeeds.vxMetersPerSecond;
+        row[5] = desiredSpeeds.vyMetersPerSecond;
+        row[6] = desiredSpeeds.omegaRadiansPerSecond;
+        row[7] = state.x;
+        row[8] = state.y;
+        row[9] = state.theta;
+        int offset = DRIVE.getTelemetry(row, TELEMETRY_COLUMNS.length);
+        for (TelemetrySource source : telemetrySources) {
+            offset = source.getTelemetry(row, offset);
+        }
+    }
+
+    /**
+     * Returns the chassis telemetry log, or null if it was never started.
+     */
+    public TelemetryLog getTelemetry() {
+        return telemetry;
     }
 
     /**
@@ -105,6 +508,19 @@ public class Chassis extends SubsystemBase {
      * @param angular the speed in rad/s in the counter-clockwise direction
      */
     public void robotDrive(double forward, double leftward, double angular) {
+        robotDrive(forward, leftward, angular, 0);
+    }
+
+    /**
+     * Drive at the specified speeds in relation to the robot cooridate system, tracing the latency
+     * from the operator input which requested them.
+     * 
+     * @param forward the speed in m/s to drive in the robot's forward direction
+     * @param leftward the speed in m/s to drive in the robot's leftwards direction
+     * @param angular the speed in rad/s in the counter-clockwise direction
+     * @param inputNanos when the input was latched, see {@code IO.getLatchNanos()}
+     */
+    public void robotDrive(double forward, double leftward, double angular, long inputNanos) {
         double speed = forward * forward + leftward * leftward;
         if (speed > MAX_DRIVE_SPEED * MAX_DRIVE_SPEED)
         {
@@ -116,7 +532,17 @@ public class Chassis extends SubsystemBase {
             angular = Math.signum(angular) * MAX_TURN_SPEED;
         }
 
-        desiredSpeeds = new ChassisSpeeds(forward, leftward, angular);
+        desiredSpeeds.vxMetersPerSecond = forward;
+        desiredSpeeds.vyMetersPerSecond = leftward;
+        desiredSpeeds.omegaRadiansPerSecond = angular;
+        LatencyTracer.record(LatencyTracer.Stage.REQUEST, inputNanos);
+
+        request[REQUEST_MODULES] = 0.0;
+        request[REQUEST_VX] = forward;
+        request[REQUEST_VY] = leftward;
+        request[REQUEST_OMEGA] = angular;
+        request[REQUEST_INPUT] = Double.longBitsToDouble(inputNanos);
+        postRequest();
     }
 
     /**
@@ -128,23 +554,75 @@ public class Chassis extends SubsystemBase {
      * @param angular the speed in rad/s in the counter-clockwise direction
      */
     public void fieldDrive(double fieldForward, double fieldLeftward, double angular) {
-        double robotAngle = GYRO.getCurrentAngle();
-        robotDrive(
-            fieldForward * Math.cos(robotAngle) + fieldLeftward * Math.sin(robotAngle),
-            - fieldForward * Math.sin(robotAngle) + fieldLeftward * Math.cos(robotAngle),
-            angular
-        );
+        fieldDrive(fieldForward, fieldLeftward, angular, 0);
+    }
+
+    /**
+     * Drive at the specified speeds in relation to the field cooridate system, tracing the latency
+     * from the operator input which requested them.
+     *
+     * @param fieldForward the speed in m/s to drive forward
+     * @param fieldLeftward the speed in m/s to drive leftward
+     * @param angular the speed in rad/s in the counter-clockwise direction
+     * @param inputNanos when the input was latched, see {@code IO.getLatchNanos()}
+     */
+    public void fieldDrive(double fieldForward, double fieldLeftward, double angular, long inputNanos) {
+        // Rotate the field velocity into the robot's frame
+        Vectors.rotate(fieldForward, fieldLeftward, -GYRO.getCurrentPosition(), robotVelocity);
+        robotDrive(robotVelocity[0], robotVelocity[1], angular, inputNanos);
     }
 
     public void fieldDrive(ChassisSpeeds speeds) {
         fieldDrive(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
     }
 
+    /**
+     * Drives each module to a precomputed setpoint, skipping the heading controller and the
+     * kinematics, until the next call to {@code robotDrive} or {@code fieldDrive}.
+     *
+     * @param setpoint The setpoints, ex. sampled from a {@code ModuleSetpointTable} with feedback
+     *        added.
+     */
+    public void setModuleSetpoints(ModuleSetpointTable.Setpoint setpoint) {
+        int n = setpoint.angles.length;
+        double[] data = moduleLock.beginWrite();
+        System.arraycopy(setpoint.angles, 0, data, 0, n);
+        System.arraycopy(setpoint.speeds, 0, data, n, n);
+        System.arraycopy(setpoint.steerRates, 0, data, 2 * n, n);
+        System.arraycopy(setpoint.accelerations, 0, data, 3 * n, n);
+        moduleLock.endWrite();
+
+        request[REQUEST_MODULES] = 1.0;
+        postRequest();
+    }
+
+    /**
+     * Precomputes the module setpoints of a trajectory for this chassis' module layout.
+     */
+    public ModuleSetpointTable createSetpointTable(CompiledTrajectory trajectory) {
+        return ModuleSetpointTable.build(trajectory, SWERVE.getKinematics());
+    }
+
+    /**
+     * Returns the kinematics of the module layout, ex. to add feedback to module setpoints.
+     */
+    public SwerveKinematics getKinematics() {
+        return SWERVE.getKinematics();
+    }
+
+    /**
+     * Holds a heading whenever no angular speed is requested.
+     *
+     * @param angle the heading in radians, counter-clockwise
+     * @param reset whether to restart the heading profile from the current heading
+     */
     public void setHeading(double angle, boolean reset) {
+        request[REQUEST_HEADING_GOAL] = angle;
+        request[REQUEST_HEADING_COUNT]++;
         if (reset) {
-            omegaController.reset(GYRO.getCurrentAngle(), GYRO.getCurrentSpeed());
+            request[REQUEST_HEADING_RESETS]++;
         }
-        omegaController.setGoal(angle);
+        postRequest();
     }
 
     public Command headingCommand(double angle) {
@@ -163,50 +641,145 @@ public class Chassis extends SubsystemBase {
     }
     
     public void stop() {
-        DRIVE.setDesiredSpeeds(new ChassisSpeeds());
-        omegaController.setGoal(GYRO.getCurrentAngle());
+        robotDrive(0.0, 0.0, 0.0);
+        setHeading(GYRO.getCurrentAngle(), false);
     }
 
+    /**
+     * Returns the pose read during the last {@code periodic()}. Only call from the robot thread.
+     * A new {@code Pose2d} is built the first time it is called after each update, prefer
+     * {@link #getCurrentX()}, {@link #getCurrentY()} and {@link #getCurrentHeading()} on the
+     * control path and {@link #readState(DriveState)} on other threads.
+     */
     public Pose2d getCurrentPose() {
-        return pose;
+        if (currentPoseVersion != state.version) {
+            currentPose = state.toPose();
+            currentPoseVersion = state.version;
+        }
+        return currentPose;
+    }
+
+    /**
+     * Returns the chassis speeds read during the last {@code periodic()}. Only call from the robot
+     * thread. A new {@code ChassisSpeeds} is built the first time it is called after each update,
+     * prefer {@link #readState(DriveState)} on the control path and on other threads.
+     */
+    public ChassisSpeeds getCurrentSpeeds() {
+        if (currentSpeedsVersion != state.version) {
+            currentSpeeds = state.toChassisSpeeds();
+            currentSpeedsVersion = state.version;
+        }
+        return currentSpeeds;
+    }
+
+    /**
+     * Returns the forward distance (m) from the field origin as of the last {@code periodic()},
+     * without allocating. Only call from the robot thread.
+     */
+    public double getCurrentX() {
+        return state.x;
+    }
+
+    /**
+     * Returns the leftward distance (m) from the field origin as of the last {@code periodic()},
+     * without allocating. Only call from the robot thread.
+     */
+    public double getCurrentY() {
+        return state.y;
+    }
+
+    /**
+     * Returns the counter-clockwise heading (rad) as of the last {@code periodic()}, without
+     * allocating. Only call from the robot thread.
+     */
+    public double getCurrentHeading() {
+        return state.theta;
+    }
+
+    /**
+     * Looks up where odometry placed the robot at a past time, ex. when a vision frame was taken.
+     * 
+     * @param timestamp The time (s, same time base as {@code Clock}) to look up.
+     * @return The interpolated pose.
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        return DRIVE.getPoseAt(timestamp);
+    }
+
+    /**
+     * Creates a holder to be reused with {@link #readState(DriveState)}.
+     */
+    public DriveState createState() {
+        return DRIVE.createState();
+    }
+
+    /**
+     * Copies the most recently published pose, chassis speeds and module states. Safe to call from
+     * any thread without blocking the control loop.
+     * 
+     * @param state A holder created by {@link #createState()}.
+     */
+    public void readState(DriveState state) {
+        DRIVE.readState(state);
     }
 
+    /**
+     * Returns whether the last heading goal set was reached as of the last control update.
+     */
     public boolean headingReached() {
-        return omegaController.atGoal();
+        return reachedHeadingCount == (long) request[REQUEST_HEADING_COUNT];
     }
 
     public void reset() {
-        System.out.println("Resetting");
-        GYRO.SENSOR.calibrate();
+        GYRO.calibrate();
         GYRO.setPosition(0.0);
         DRIVE.reset();
-        pose = new Pose2d();
+        Pose2d pose = new Pose2d();
         DRIVE.resetPose(pose);
         field.setRobotPose(pose);
     }
 
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        super.initSendable(builder);
+        builder.addDoubleProperty("Control Period (s)", this::getControlPeriod, (value) -> {});
+        builder.addDoubleProperty("Control Overruns", this::getControlOverruns, (value) -> {});
+    }
+
+    /** Describes how a swerve pod is wired and where it is mounted. */
+    public static class PodConfig {
+        public final int DRIVE_CAN_ID;
+        public final int TURN_CAN_ID;
+        public final int THROUGHBORE_DIO;
+        /** The forward offset (m) from the center of rotation. */
+        public final double X;
+        /** The leftward offset (m) from the center of rotation. */
+        public final double Y;
+        /** Whether the drive motor is mounted inverted. */
+        public final boolean INVERTED;
+
+        public PodConfig(int driveCanId, int turnCanId, int throughboreDio, double x, double y, boolean inverted) {
+            DRIVE_CAN_ID = driveCanId;
+            TURN_CAN_ID = turnCanId;
+            THROUGHBORE_DIO = throughboreDio;
+            X = x;
+            Y = y;
+            INVERTED = inverted;
+        }
+    }
+
+    /** The distance (m) of each pod from the center of rotation. */
+    public static final double POD_RADIUS = Math.sqrt(2);
+
     // Front
     // 2 1
     // 3 4
 
-    // Swerve Pod Motor CAN IDs
-    private static final int POD_1_DRIVE = 9; // Right Front
-    private static final int POD_1_TURN = 10;
-    @SuppressWarnings("unused")
-    private static final int POD_1_THROUGHBORE = 1;
-
-    private static final int POD_2_DRIVE = 12; // Left Front
-    private static final int POD_2_TURN = 11;
-    @SuppressWarnings("unused")
-    private static final int POD_2_THROUGHBORE = 2;
-
-    private static final int POD_3_DRIVE = 20; // Left Rear
-    private static final int POD_3_TURN = 19;
-    @SuppressWarnings("unused")
-    private static final int POD_3_THROUGHBORE = 3;
-
-    private static final int POD_4_DRIVE = 1; // Right Rear
-    private static final int POD_4_TURN = 2;
-    @SuppressWarnings("unused")
-    private static final int POD_4_THROUGHBORE = 4;
+    /** The pods of the competition robot, x is forward and y is leftward. */
+    public static final PodConfig[] PODS = {
+        new PodConfig(9, 10, 1, 1, -1, false), // Right Front
+        new PodConfig(12, 11, 2, 1, 1, false), // Left Front
+        new PodConfig(20, 19, 3, -1, 1, true), // Left Rear
+        new PodConfig(1, 2, 4, -1, -1, true) // Right Rear
+    };
 }
@@ -0,0 +1,183 @@
+package frc.robot.utilities;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import frc.robot.architecture.TelemetrySource;
+
+/**
+ * Counts the bytes allocated by a thread each cycle and the garbage collections they cause.
+ *
+ * <p>
+ * Allocations are read from {@code com.sun.management.ThreadMXBean}, which HotSpot (including the
+ * roboRIO JRE) provides. Call {@link #cycle()} once per cycle from the monitored thread, ex. at
+ * the start of {@code robotPeriodic()}. The static methods measure any section of code, as the
+ * {@code AllocationHarness} does to hold each control path to a budget.
+ *
+ * <p>
+ * Reading the counter may itself allocate a few bytes on older JREs. That overhead is measured once
+ * and subtracted from every result.
+ */
+public class AllocationMonitor implements TelemetrySource, Sendable {
+
+    private static final com.sun.management.ThreadMXBean THREADS;
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final long OVERHEAD;
+
+    static {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            THREADS = (com.sun.management.ThreadMXBean) threads;
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            THREADS = null;
+        }
+
+        // The smallest difference between two back to back reads is the cost of reading
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long start = readAllocatedBytes();
+            overhead = Math.min(overhead, readAllocatedBytes() - start);
+        }
+        OVERHEAD = Math.max(overhead, 0);
+    }
+
+    /** The values logged by {@link #getTelemetry(double[], int)}. */
+    private static final String[] TELEMETRY_COLUMNS = {
+        "alloc/bytes", "alloc/gcCount", "alloc/gcTime"
+    };
+
+    private final long threadId;
+
+    private long lastBytes = -1;
+    private long cycleBytes = 0;
+    private long maxCycleBytes = 0;
+    private long totalBytes = 0;
+    private long cycles = 0;
+
+    /**
+     * Creates a monitor of the calling thread.
+     */
+    public AllocationMonitor() {
+        threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * Returns whether this JVM can count allocations per thread. If not, every count is zero.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    private static long readAllocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Returns the total bytes allocated by the calling thread so far. Subtract two readings with
+     * {@link #since(long)}.
+     */
+    public static long allocatedBytes() {
+        return readAllocatedBytes();
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread since a reading of
+     * {@link #allocatedBytes()}, not counting the cost of the readings.
+     *
+     * @param startBytes The earlier reading.
+     */
+    public static long since(long startBytes) {
+        return Math.max(readAllocatedBytes() - startBytes - OVERHEAD, 0);
+    }
+
+    /**
+     * Returns the number of garbage collections of every collector so far.
+     */
+    public static long getGcCount() {
+        long count = 0;
+        for (int i = 0; i < COLLECTORS.size(); i++) {
+            count += Math.max(COLLECTORS.get(i).getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the time spent collecting garbage by every collector so far (ms).
+     */
+    public static long getGcTime() {
+        long time = 0;
+        for (int i = 0; i < COLLECTORS.size(); i++) {
+            time += Math.max(COLLECTORS.get(i).getCollectionTime(), 0);
+        }
+        return time;
+    }
+
+    /**
+     * Ends the previous cycle and starts the next. Must be called from the monitored thread.
+     */
+    public void cycle() {
+        if (Thread.currentThread().getId() != threadId) {
+            return;
+        }
+        long bytes = readAllocatedBytes();
+        if (lastBytes >= 0) {
+            cycleBytes = Math.max(bytes - lastBytes - OVERHEAD, 0);
+            maxCycleBytes = Math.max(maxCycleBytes, cycleBytes);
+            totalBytes += cycleBytes;
+            cycles++;
+        }
+        lastBytes = bytes;
+    }
+
+    /**
+     * Returns the bytes allocated during the last complete cycle.
+     */
+    public long getCycleBytes() {
+        return cycleBytes;
+    }
+
+    public long getMaxCycleBytes() {
+        return maxCycleBytes;
+    }
+
+    public double getMeanCycleBytes() {
+        return cycles == 0 ? 0.0 : (double) totalBytes / cycles;
+    }
+
+    /**
+     * Clears the per-cycle statistics.
+     */
+    public void reset() {
+        maxCycleBytes = 0;
+        totalBytes = 0;
+        cycles = 0;
+    }
+
+    @Override
+    public String[] getTelemetryColumns() {
+        return TELEMETRY_COLUMNS.clone();
+    }
+
+    @Override
+    public int getTelemetry(double[] row, int offset) {
+        row[offset++] = cycleBytes;
+        row[offset++] = getGcCount();
+        row[offset++] = getGcTime();
+        return offset;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addDoubleProperty("Cycle (bytes)", this::getCycleBytes, (value) -> {});
+        builder.addDoubleProperty("Mean (bytes)", this::getMeanCycleBytes, (value) -> {});
+        builder.addDoubleProperty("Max (bytes)", this::getMaxCycleBytes, (value) -> {});
+        builder.addDoubleProperty("GC Count", AllocationMonitor::getGcCount, (value) -> {});
+        builder.addDoubleProperty("GC Time (ms)", AllocationMonitor::getGcTime, (value) -> {});
+        builder.addBooleanProperty("Reset", () -> false, (value) -> { if (value) reset(); });
+    }
+}
@@ -0,0 +1,289 @@
+package frc.robot.utilities;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Console logging which is safe to call from the control loop.
+ *
+ * <p>
+ * Messages are logged through a {@link Channel}, created once (usually in a static field) with a
+ * format string. Logging a message only copies up to three doubles into a preallocated, lock-free
+ * ring buffer; formatting and console writes happen on a low priority background thread. Nothing
+ * allocates or blocks on the logging thread, and if the ring is full the message is dropped and
+ * counted instead.
+ *
+ * <p>
+ * Each channel logs at most once per {@code minInterval}, and a message identical to the last one
+ * is only repeated every {@link #REPEAT_INTERVAL}. The number of messages suppressed in between is
+ * appended to the next message which is printed.
+ */
+public final class AsyncLog {
+
+    public enum Level {
+        DEBUG, INFO, WARNING, ERROR
+    }
+
+    /** The default minimum time between messages of a channel (s). */
+    public static final double DEFAULT_MIN_INTERVAL = 1.0;
+    /** How often an unchanged message is repeated (s). */
+    public static final double REPEAT_INTERVAL = 10.0;
+
+    /** The number of messages which can be waiting, must be a power of two. */
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    /** How long the background thread sleeps when there is nothing to print (ns). */
+    private static final long IDLE_PERIOD = 20_000_000;
+
+    /** A slot in the ring. */
+    private static class Entry {
+        Channel channel;
+        double time;
+        int argCount;
+        double a, b, c;
+        long suppressed;
+    }
+
+    private static final Entry[] ENTRIES = new Entry[CAPACITY];
+    /** Vyukov style sequence numbers: a slot is free for position p when its sequence is p. */
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static long head = 0;
+
+    private static volatile Level level = Level.INFO;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ENTRIES[i] = new Entry();
+            SEQUENCES.set(i, i);
+        }
+        Thread thread = new Thread(AsyncLog::run, "AsyncLog");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private AsyncLog() {}
+
+    /**
+     * Creates a channel which logs at most once per {@link #DEFAULT_MIN_INTERVAL}.
+     *
+     * @param name The name printed before each message, ex. the class logging.
+     * @param level The severity of the messages.
+     * @param format A {@code String.format} pattern for up to three doubles.
+     */
+    public static Channel channel(String name, Level level, String format) {
+        return channel(name, level, format, DEFAULT_MIN_INTERVAL);
+    }
+
+    /**
+     * Creates a channel.
+     *
+     * @param name The name printed before each message, ex. the class logging.
+     * @param level The severity of the messages.
+     * @param format A {@code String.format} pattern for up to three doubles.
+     * @param minInterval The minimum time between messages (s), zero to log every message.
+     */
+    public static Channel channel(String name, Level level, String format, double minInterval) {
+        return new Channel(name, level, format, minInterval);
+    }
+
+    /**
+     * Sets the lowest level which is printed. Defaults to {@code INFO}.
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Returns the number of messages dropped because the ring was full.
+     */
+    public static long getDropped() {
+        return DROPPED.get();
+    }
+
+    /**
+     * Prints every waiting message on the calling thread, ex. before exiting.
+     */
+    public static synchronized void flush() {
+        while (printNext()) {}
+    }
+
+    /** A source of similar messages which are rate limited together. */
+    public static class Channel {
+        private final String name;
+        private final Level level;
+        private final String format;
+        private final PrintStream stream;
+        private final long minInterval;
+
+        // Rate limiting state, only written by the logging thread(s)
+        private long lastLogged = Long.MIN_VALUE;
+        private int lastArgCount = -1;
+        private double lastA, lastB, lastC;
+        private long suppressed = 0;
+        private long totalSuppressed = 0;
+
+        private Channel(String name, Level level, String format, double minInterval) {
+            this.name = name;
+            this.level = level;
+            this.format = format;
+            this.stream = level.compareTo(Level.WARNING) >= 0 ? System.err : System.out;
+            this.minInterval = (long) (minInterval * 1e9);
+        }
+
+        /**
+         * Returns whether messages of this channel are printed at the current level.
+         */
+        public boolean isEnabled() {
+            return level.compareTo(AsyncLog.level) >= 0;
+        }
+
+        public void log() {
+            log(0, 0.0, 0.0, 0.0);
+        }
+
+        public void log(double a) {
+            log(1, a, 0.0, 0.0);
+        }
+
+        public void log(double a, double b) {
+            log(2, a, b, 0.0);
+        }
+
+        public void log(double a, double b, double c) {
+            log(3, a, b, c);
+        }
+
+        /**
+         * Returns the number of messages of this channel which were rate limited.
+         */
+        public long getSuppressed() {
+            return totalSuppressed;
+        }
+
+        private void log(int argCount, double a, double b, double c) {
+            if (!isEnabled()) {
+                return;
+            }
+            long now = System.nanoTime();
+            long sinceLast = now - lastLogged;
+            boolean repeated = argCount == lastArgCount && equal(a, lastA) && equal(b, lastB) && equal(c, lastC);
+            if (lastLogged != Long.MIN_VALUE
+                    && (sinceLast < minInterval || (repeated && sinceLast < REPEAT_INTERVAL * 1e9))) {
+                suppressed++;
+                totalSuppressed++;
+                return;
+            }
+            if (offer(this, argCount, a, b, c, suppressed)) {
+                lastLogged = now;
+                lastArgCount = argCount;
+                lastA = a;
+                lastB = b;
+                lastC = c;
+                suppressed = 0;
+            }
+        }
+
+        private static boolean equal(double x, double y) {
+            return Double.doubleToLongBits(x) == Double.doubleToLongBits(y);
+        }
+    }
+
+    /**
+     * Claims a slot in the ring and fills it. Safe for any number of threads.
+     */
+    private static boolean offer(Channel channel, int argCount, double a, double b, double c, long suppressed) {
+        long position = TAIL.get();
+        Entry entry;
+        while (true) {
+            int index = (int) position & MASK;
+            long difference = SEQUENCES.get(index) - position;
+            if (difference == 0) {
+                if (TAIL.compareAndSet(position, position + 1)) {
+                    entry = ENTRIES[index];
+                    break;
+                }
+                position = TAIL.get();
+            } else if (difference < 0) {
+                // The consumer has not freed this slot yet, the ring is full
+                DROPPED.incrementAndGet();
+                return false;
+            } else {
+                position = TAIL.get();
+            }
+        }
+        entry.channel = channel;
+        entry.time = Clock.now();
+        entry.argCount = argCount;
+        entry.a = a;
+        entry.b = b;
+        entry.c = c;
+        entry.suppressed = suppressed;
+        SEQUENCES.lazySet((int) position & MASK, position + 1);
+        return true;
+    }
+
+    /**
+     * Prints the oldest waiting message, if there is one. Only called with the class lock held.
+     *
+     * @return false if there was nothing to print.
+     */
+    private static boolean printNext() {
+        int index = (int) head & MASK;
+        if (SEQUENCES.get(index) != head + 1) {
+            return false;
+        }
+        Entry entry = ENTRIES[index];
+        Channel channel = entry.channel;
+        String message;
+        switch (entry.argCount) {
+            case 1:
+                message = String.format(channel.format, entry.a);
+                break;
+            case 2:
+                message = String.format(channel.format, entry.a, entry.b);
+                break;
+            case 3:
+                message = String.format(channel.format, entry.a, entry.b, entry.c);
+                break;
+            default:
+                message = channel.format;
+        }
+        long suppressed = entry.suppressed;
+        double time = entry.time;
+        entry.channel = null;
+        SEQUENCES.lazySet(index, head + CAPACITY);
+        head++;
+
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("[%.3f] ", time)).append(channel.level).append(' ')
+            .append(channel.name).append(": ").append(message);
+        if (suppressed > 0) {
+            line.append(" (").append(suppressed).append(" similar suppressed)");
+        }
+        channel.stream.println(line);
+        return true;
+    }
+
+    private static void run() {
+        long reportedDropped = 0;
+        while (true) {
+            boolean printed;
+            synchronized (AsyncLog.class) {
+                printed = printNext();
+            }
+            if (!printed) {
+                long dropped = DROPPED.get();
+                if (dropped != reportedDropped) {
+                    System.err.println("AsyncLog: dropped " + (dropped - reportedDropped) + " messages");
+                    reportedDropped = dropped;
+                }
+                LockSupport.parkNanos(IDLE_PERIOD);
+            }
+        }
+    }
+}
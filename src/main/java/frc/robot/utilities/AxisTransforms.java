@@ -0,0 +1,82 @@
+package frc.robot.utilities;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Factories for the shaping functions applied to operator input axes.
+ */
+public final class AxisTransforms {
+
+    /** The number of samples used by {@link #precompile(DoubleUnaryOperator)}. */
+    public static final int PRECOMPILED_SAMPLES = 401;
+
+    private AxisTransforms() {}
+
+    /** Create a transform which includes deadband.
+     *
+     * f(x) = { x if |x| >= a else 0 }
+     *
+     * @param deadband a
+     */
+    public static DoubleUnaryOperator deadbandTransform(double deadband) {
+        return (value) -> Math.abs(value) > deadband ? value : 0;
+    }
+
+    /** Create a transform which makes the magnitude exponential which retaining a range [-1, 1]
+     *
+     * f(x) = x/|x| * (a^|x| - 1) / (a - 1)
+     *
+     * @param exponent a
+     */
+    public static DoubleUnaryOperator exponentialTransform(double exponent) {
+        return (value) -> Math.signum(value) * ((Math.pow(exponent, Math.abs(value)) - 1) / (exponent - 1));
+    }
+
+    /**
+     * Samples a transform over [-1, 1] into a {@link DoubleLookupTable}, so applying it costs a
+     * table lookup instead of evaluating the chain (ex. {@code Math.pow}). Inputs outside of
+     * [-1, 1] are clamped.
+     *
+     * <p>
+     * The table interpolates linearly, so steps such as a deadband edge would be smoothed over one
+     * sample spacing (0.005 by default). Only precompile continuous transforms, and apply a
+     * deadband with {@link #precompile(double, DoubleUnaryOperator)}. The returned transform is not
+     * thread safe.
+     *
+     * @param transform The transform to sample.
+     */
+    public static DoubleUnaryOperator precompile(DoubleUnaryOperator transform) {
+        return precompile(transform, PRECOMPILED_SAMPLES);
+    }
+
+    /**
+     * Precompiles a continuous transform behind an exact deadband, the same as
+     * {@code deadbandTransform(deadband).andThen(transform)} for transforms with
+     * {@code f(0) = 0}. The deadband is a comparison before the table lookup, so every input with
+     * {@code |x| <= deadband} gives exactly 0.
+     *
+     * @param deadband The largest magnitude which is zeroed.
+     * @param transform The continuous transform applied outside of the deadband.
+     */
+    public static DoubleUnaryOperator precompile(double deadband, DoubleUnaryOperator transform) {
+        DoubleUnaryOperator table = precompile(transform);
+        return (value) -> Math.abs(value) > deadband ? table.applyAsDouble(value) : 0;
+    }
+
+    /**
+     * Samples a transform over [-1, 1] into a {@link DoubleLookupTable}.
+     *
+     * @param transform The transform to sample.
+     * @param samples The number of evenly spaced samples, at least 2.
+     */
+    public static DoubleUnaryOperator precompile(DoubleUnaryOperator transform, int samples) {
+        double[] keys = new double[samples];
+        double[] values = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            keys[i] = -1.0 + 2.0 * i / (samples - 1);
+            values[i] = transform.applyAsDouble(keys[i]);
+        }
+        DoubleLookupTable table = new DoubleLookupTable(keys, values, DoubleLookupTable.EndBehavior.CLAMP);
+        return table::get;
+    }
+}
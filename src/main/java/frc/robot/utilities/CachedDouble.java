@@ -0,0 +1,66 @@
+package frc.robot.utilities;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A sensor reading which is sampled at most once per robot cycle.
+ *
+ * <p>
+ * Encoder and gyro getters are JNI calls, and several consumers read the same sensor within a
+ * cycle. Wrapping a getter in a {@code CachedDouble} makes the first read in a cycle sample the
+ * sensor and every later read in that cycle return the same value, so all consumers see one
+ * consistent measurement.
+ *
+ * <p>
+ * The cache belongs to the thread which calls {@link #nextCycle()} (the main robot thread). Reads
+ * from any other thread, such as the odometry thread, always sample the sensor directly.
+ */
+public class CachedDouble {
+
+    private static volatile Thread owner = null;
+    private static long cycle = 0;
+
+    private final DoubleSupplier source;
+
+    private double value;
+    private long sampledCycle = -1;
+
+    /**
+     * Creates a new instance of {@code CachedDouble}.
+     *
+     * @param source The sensor getter to cache.
+     */
+    public CachedDouble(DoubleSupplier source) {
+        this.source = source;
+    }
+
+    /**
+     * Invalidates every cached value. Call at the start of each robot cycle, before the scheduler
+     * runs. The calling thread becomes the owner of the cache.
+     */
+    public static void nextCycle() {
+        owner = Thread.currentThread();
+        cycle++;
+    }
+
+    /**
+     * Returns the value sampled this cycle, sampling the sensor if this is the first read.
+     */
+    public double get() {
+        if (Thread.currentThread() != owner) {
+            return source.getAsDouble();
+        }
+        if (sampledCycle != cycle) {
+            value = source.getAsDouble();
+            sampledCycle = cycle;
+        }
+        return value;
+    }
+
+    /**
+     * Forces the next read to sample the sensor, ex. after the sensor was re-zeroed.
+     */
+    public void invalidate() {
+        sampledCycle = -1;
+    }
+}
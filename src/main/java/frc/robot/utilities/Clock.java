@@ -0,0 +1,43 @@
+package frc.robot.utilities;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The time source used by the control code. Defaults to the FPGA timestamp but can be replaced so
+ * that simulations can run faster (or slower) than real time.
+ */
+public final class Clock {
+
+    private static final DoubleSupplier FPGA = Timer::getFPGATimestamp;
+
+    private static volatile DoubleSupplier source = FPGA;
+
+    private Clock() {}
+
+    /**
+     * Returns the current time.
+     *
+     * @return The current time in seconds.
+     */
+    public static double now() {
+        return source.getAsDouble();
+    }
+
+    /**
+     * Replaces the time source.
+     *
+     * @param newSource A supplier of the current time in seconds.
+     */
+    public static void setSource(DoubleSupplier newSource) {
+        source = newSource;
+    }
+
+    /**
+     * Restores the FPGA timestamp as the time source.
+     */
+    public static void useFPGA() {
+        source = FPGA;
+    }
+}
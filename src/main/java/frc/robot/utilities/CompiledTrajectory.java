@@ -0,0 +1,231 @@
+package frc.robot.utilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.math.AngleMath;
+
+/**
+ * A trajectory precompiled by {@link TrajectoryCompiler} into fixed-size records sampled at a
+ * fixed period, read straight out of a memory-mapped file.
+ *
+ * <p>
+ * Because the records are evenly spaced in time, {@link #sample(double, State)} finds the two
+ * records around any time by division and interpolates between them, so a lookup is O(1) and
+ * neither allocates nor parses anything. Reads use absolute offsets, so one trajectory may be
+ * sampled from several threads.
+ *
+ * <pre>
+ * offset  type     field
+ * 0       int      MAGIC
+ * 4       int      VERSION
+ * 8       int      record count
+ * 12      int      fields per record
+ * 16      double   period (s)
+ * 24      double   duration (s)
+ * 32      ...      records of little-endian floats: x (m), y (m), heading (rad), velocity (m/s),
+ *                  acceleration (m/s^2), curvature (rad/m), rotation (rad), rotation rate (rad/s)
+ * </pre>
+ */
+public class CompiledTrajectory {
+
+    /** "TRAJ" */
+    public static final int MAGIC = 0x5452414A;
+    public static final int VERSION = 1;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    public static final String EXTENSION = ".traj";
+
+    static final int HEADER_SIZE = 32;
+
+    static final int X = 0;
+    static final int Y = 1;
+    static final int HEADING = 2;
+    static final int VELOCITY = 3;
+    static final int ACCELERATION = 4;
+    static final int CURVATURE = 5;
+    static final int ROTATION = 6;
+    static final int ROTATION_RATE = 7;
+    static final int FIELDS = 8;
+
+    /**
+     * A mutable holder for one sample of a trajectory. Create one per follower and reuse it.
+     */
+    public static class State {
+        /** The time since the start of the trajectory (s). */
+        public double time;
+        /** Field-relative position (m). */
+        public double x, y;
+        /** The direction of travel (rad). */
+        public double heading;
+        /** The speed along the path (m/s) and its rate of change (m/s^2). */
+        public double velocity, acceleration;
+        /** The curvature of the path (rad/m). */
+        public double curvature;
+        /** The holonomic rotation of the robot (rad) and its rate of change (rad/s). */
+        public double rotation, rotationRate;
+
+        /** Returns the field-relative x velocity (m/s). */
+        public double getVx() {
+            return velocity * Math.cos(heading);
+        }
+
+        /** Returns the field-relative y velocity (m/s). */
+        public double getVy() {
+            return velocity * Math.sin(heading);
+        }
+
+        /**
+         * Creates a {@code Pose2d} of the position and holonomic rotation. Allocates.
+         */
+        public Pose2d toPose() {
+            return new Pose2d(x, y, new Rotation2d(rotation));
+        }
+    }
+
+    private final String name;
+    private final ByteBuffer records;
+    private final int recordCount;
+    private final int recordSize;
+    private final double period;
+    private final double duration;
+
+    private CompiledTrajectory(String name, ByteBuffer buffer) throws IOException {
+        this.name = name;
+        buffer.order(ORDER);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(name + " is not a compiled trajectory");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(name + " is version " + buffer.getInt(4) + ", expected " + VERSION);
+        }
+        recordCount = buffer.getInt(8);
+        int fields = buffer.getInt(12);
+        period = buffer.getDouble(16);
+        duration = buffer.getDouble(24);
+        if (fields < FIELDS || recordCount < 1 || !(period > 0.0)) {
+            throw new IOException(name + " has an invalid header");
+        }
+        recordSize = fields * Float.BYTES;
+        if (buffer.capacity() < HEADER_SIZE + (long) recordCount * recordSize) {
+            throw new IOException(name + " is truncated");
+        }
+        records = buffer;
+    }
+
+    /**
+     * Maps a compiled trajectory file. The pages are read in here, so later samples do not wait on
+     * the file system.
+     *
+     * @param path The {@code .traj} file.
+     * @throws IOException If the file cannot be read or is not a compiled trajectory.
+     */
+    public static CompiledTrajectory map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.load();
+        String fileName = path.getFileName().toString();
+        if (fileName.endsWith(EXTENSION)) {
+            fileName = fileName.substring(0, fileName.length() - EXTENSION.length());
+        }
+        return new CompiledTrajectory(fileName, buffer);
+    }
+
+    /**
+     * Wraps a compiled trajectory already in memory, ex. one just written by
+     * {@link TrajectoryCompiler}.
+     *
+     * @param name The name of the trajectory.
+     * @param buffer The contents of a {@code .traj} file.
+     * @throws IOException If the contents are not a compiled trajectory.
+     */
+    public static CompiledTrajectory wrap(String name, ByteBuffer buffer) throws IOException {
+        return new CompiledTrajectory(name, buffer.duplicate());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Returns the total time of the trajectory (s). */
+    public double getDuration() {
+        return duration;
+    }
+
+    /** Returns the time between records (s). */
+    public double getPeriod() {
+        return period;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    private float get(int record, int field) {
+        return records.getFloat(HEADER_SIZE + record * recordSize + field * Float.BYTES);
+    }
+
+    /**
+     * Samples the trajectory, interpolating between the two nearest records. Times before the
+     * start or after the end hold the first or last record.
+     *
+     * @param time The time since the start of the trajectory (s).
+     * @param state The holder to fill.
+     * @return The holder, for chaining.
+     */
+    public State sample(double time, State state) {
+        double index = Utils.limitRange(time / period, 0.0, recordCount - 1);
+        int i = Math.min((int) index, recordCount - 2);
+        double t;
+        if (i < 0) {
+            // A single record
+            i = 0;
+            t = 0.0;
+        } else {
+            t = index - i;
+        }
+        int j = Math.min(i + 1, recordCount - 1);
+
+        state.time = Utils.limitRange(time, 0.0, duration);
+        state.x = lerp(get(i, X), get(j, X), t);
+        state.y = lerp(get(i, Y), get(j, Y), t);
+        state.heading = angleLerp(get(i, HEADING), get(j, HEADING), t);
+        state.velocity = lerp(get(i, VELOCITY), get(j, VELOCITY), t);
+        state.acceleration = lerp(get(i, ACCELERATION), get(j, ACCELERATION), t);
+        state.curvature = lerp(get(i, CURVATURE), get(j, CURVATURE), t);
+        state.rotation = angleLerp(get(i, ROTATION), get(j, ROTATION), t);
+        state.rotationRate = lerp(get(i, ROTATION_RATE), get(j, ROTATION_RATE), t);
+        return state;
+    }
+
+    /**
+     * Returns the starting position and holonomic rotation. Allocates.
+     */
+    public Pose2d getInitialPose() {
+        return new Pose2d(get(0, X), get(0, Y), new Rotation2d(get(0, ROTATION)));
+    }
+
+    /**
+     * Returns the final position and holonomic rotation. Allocates.
+     */
+    public Pose2d getFinalPose() {
+        int last = recordCount - 1;
+        return new Pose2d(get(last, X), get(last, Y), new Rotation2d(get(last, ROTATION)));
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    private static double angleLerp(double a, double b, double t) {
+        return AngleMath.normalizeSigned(a + AngleMath.shortestDelta(a, b) * t);
+    }
+}
@@ -0,0 +1,155 @@
+package frc.robot.utilities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * A {@code double -> double} specialization of {@link InterpolatedLookupTable} which linearly
+ * interpolates between samples stored in packed, sorted arrays.
+ *
+ * <p>
+ * Lookups use a binary search, but first check the segment used by the previous lookup (and its
+ * neighbours) so monotone query sequences are usually resolved in constant time. Lookups never
+ * allocate.
+ */
+public class DoubleLookupTable {
+
+    /** What to do when a lookup falls outside of the sampled range. */
+    public enum EndBehavior {
+        /** Return the value of the nearest sample. */
+        CLAMP,
+        /** Extend the first or last segment linearly. */
+        EXTRAPOLATE
+    }
+
+    private final double[] keys;
+    private final double[] values;
+    private final EndBehavior endBehavior;
+
+    /** Index of the lower sample of the last segment used. */
+    private int lastSegment = 0;
+
+    /**
+     * Creates a new instance of {@code DoubleLookupTable}.
+     *
+     * @param keys The sample keys, in any order. Must not contain duplicates.
+     * @param values The sample values, index-matched with keys.
+     * @param endBehavior How to handle lookups outside of the sampled range.
+     */
+    public DoubleLookupTable(double[] keys, double[] values, EndBehavior endBehavior) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values must be the same length");
+        }
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("A lookup table requires at least one sample");
+        }
+
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+
+        this.keys = new double[keys.length];
+        this.values = new double[values.length];
+        for (int i = 0; i < order.length; i++) {
+            this.keys[i] = keys[order[i]];
+            this.values[i] = values[order[i]];
+            if (i > 0 && this.keys[i] == this.keys[i - 1]) {
+                throw new IllegalArgumentException("Duplicate key: " + this.keys[i]);
+            }
+        }
+        this.endBehavior = endBehavior;
+    }
+
+    /**
+     * Creates a new instance of {@code DoubleLookupTable} from the samples of a map.
+     *
+     * @param samples The samples to copy.
+     * @param endBehavior How to handle lookups outside of the sampled range.
+     */
+    public static DoubleLookupTable fromMap(NavigableMap<Double, Double> samples, EndBehavior endBehavior) {
+        double[] keys = new double[samples.size()];
+        double[] values = new double[samples.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> entry : samples.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        return new DoubleLookupTable(keys, values, endBehavior);
+    }
+
+    /**
+     * Returns the interpolated value at the given key.
+     *
+     * @param key The key to look up.
+     * @return The interpolated value.
+     */
+    public double get(double key) {
+        int n = keys.length;
+        if (n == 1) {
+            return values[0];
+        }
+        if (key <= keys[0]) {
+            return endBehavior == EndBehavior.CLAMP ? values[0] : interpolate(0, key);
+        }
+        if (key >= keys[n - 1]) {
+            return endBehavior == EndBehavior.CLAMP ? values[n - 1] : interpolate(n - 2, key);
+        }
+        return interpolate(findSegment(key), key);
+    }
+
+    /**
+     * Returns the number of samples in the table.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    public double firstKey() {
+        return keys[0];
+    }
+
+    public double lastKey() {
+        return keys[keys.length - 1];
+    }
+
+    /**
+     * Finds i such that keys[i] <= key < keys[i + 1], assuming key is strictly inside the table.
+     */
+    private int findSegment(double key) {
+        int i = lastSegment;
+        if (keys[i] <= key) {
+            if (key < keys[i + 1]) {
+                return i;
+            }
+            if (i + 2 < keys.length && key < keys[i + 2]) {
+                return lastSegment = i + 1;
+            }
+        } else if (i > 0 && keys[i - 1] <= key) {
+            return lastSegment = i - 1;
+        }
+
+        int low = 0;
+        int high = keys.length - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return lastSegment = low;
+    }
+
+    private double interpolate(int segment, double key) {
+        double x1 = keys[segment];
+        double x2 = keys[segment + 1];
+        double y1 = values[segment];
+        double y2 = values[segment + 1];
+        return y1 + (y2 - y1) * (key - x1) / (x2 - x1);
+    }
+}
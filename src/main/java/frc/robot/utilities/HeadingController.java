@@ -0,0 +1,166 @@
+package frc.robot.utilities;
+
+import frc.robot.math.AngleMath;
+
+/**
+ * A profiled PID controller for a heading which does not allocate.
+ *
+ * <p>
+ * Behaves like a {@code ProfiledPIDController} with continuous input over a full turn: the goal is
+ * approached along a trapezoidal velocity profile and a PID tracks the profile's setpoint. WPILib's
+ * controller builds a new {@code TrapezoidProfile} and its states on every call, so this one keeps
+ * the profile state in primitive fields instead.
+ */
+public class HeadingController {
+
+    private final double kP, kI, kD;
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final double period;
+
+    private double tolerance = 0.05;
+
+    // The goal, always at rest
+    private double goal;
+
+    // The current setpoint of the profile
+    private double setpointPosition;
+    private double setpointVelocity;
+
+    // PID state
+    private double error;
+    private double previousError;
+    private double totalError;
+    private boolean haveMeasurement = false;
+
+    /**
+     * Creates a new instance of {@code HeadingController}.
+     *
+     * @param kP The proportional gain.
+     * @param kI The integral gain.
+     * @param kD The derivative gain.
+     * @param maxVelocity The fastest the profile turns (rad/s).
+     * @param maxAcceleration The fastest the profile accelerates (rad/s^2).
+     * @param period The period (s) {@link #calculate(double)} is called at.
+     */
+    public HeadingController(double kP, double kI, double kD, double maxVelocity, double maxAcceleration,
+            double period) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.period = period;
+    }
+
+    /**
+     * Sets how close (rad) to the goal counts as reached.
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Sets the heading to turn to.
+     *
+     * @param goal The heading (rad), counter-clockwise.
+     */
+    public void setGoal(double goal) {
+        this.goal = goal;
+    }
+
+    public double getGoal() {
+        return goal;
+    }
+
+    /**
+     * Restarts the profile from a measured heading and turn rate, and clears the PID state.
+     *
+     * @param position The measured heading (rad).
+     * @param velocity The measured turn rate (rad/s).
+     */
+    public void reset(double position, double velocity) {
+        setpointPosition = position;
+        setpointVelocity = velocity;
+        previousError = 0.0;
+        totalError = 0.0;
+        haveMeasurement = false;
+    }
+
+    /**
+     * Advances the profile by one period and returns the turn rate which tracks it.
+     *
+     * @param measurement The measured heading (rad).
+     * @return The output of the PID.
+     */
+    public double calculate(double measurement) {
+        // Unwrap the goal and setpoint to within half a turn of the measurement
+        goal = measurement + AngleMath.shortestDelta(measurement, goal);
+        setpointPosition = measurement + AngleMath.shortestDelta(measurement, setpointPosition);
+        advanceProfile();
+
+        error = AngleMath.shortestDelta(measurement, setpointPosition);
+        double derivative = haveMeasurement ? (error - previousError) / period : 0.0;
+        if (kI != 0.0) {
+            totalError = Utils.limitRange(totalError + error * period, -1.0 / kI, 1.0 / kI);
+        }
+        previousError = error;
+        haveMeasurement = true;
+        return kP * error + kI * totalError + kD * derivative;
+    }
+
+    /**
+     * Returns whether the profile reached the goal and the heading is within tolerance of it.
+     */
+    public boolean atGoal() {
+        return haveMeasurement && Math.abs(error) < tolerance && setpointPosition == goal && setpointVelocity == 0.0;
+    }
+
+    /**
+     * Moves the setpoint one period along a trapezoidal profile from the current setpoint to the
+     * goal, as {@code TrapezoidProfile.calculate()} does.
+     */
+    private void advanceProfile() {
+        // Solve the profile as if moving forward
+        double direction = setpointPosition > goal ? -1.0 : 1.0;
+        double initialPosition = setpointPosition * direction;
+        double initialVelocity = Math.min(setpointVelocity * direction, maxVelocity);
+        double goalPosition = goal * direction;
+
+        double cutoffBegin = initialVelocity / maxAcceleration;
+        double cutoffDistBegin = cutoffBegin * cutoffBegin * maxAcceleration / 2.0;
+        double fullTrapezoidDist = cutoffDistBegin + (goalPosition - initialPosition);
+
+        double accelerationTime = maxVelocity / maxAcceleration;
+        double fullSpeedDist = fullTrapezoidDist - accelerationTime * accelerationTime * maxAcceleration;
+        if (fullSpeedDist < 0.0) {
+            accelerationTime = Math.sqrt(fullTrapezoidDist / maxAcceleration);
+            fullSpeedDist = 0.0;
+        }
+
+        double endAccel = accelerationTime - cutoffBegin;
+        double endFullSpeed = endAccel + fullSpeedDist / maxVelocity;
+        double endDecel = endFullSpeed + accelerationTime;
+
+        double t = period;
+        double position;
+        double velocity;
+        if (t < endAccel) {
+            velocity = initialVelocity + t * maxAcceleration;
+            position = initialPosition + (initialVelocity + t * maxAcceleration / 2.0) * t;
+        } else if (t < endFullSpeed) {
+            velocity = maxVelocity;
+            position = initialPosition + (initialVelocity + endAccel * maxAcceleration / 2.0) * endAccel
+                + maxVelocity * (t - endAccel);
+        } else if (t <= endDecel) {
+            double timeLeft = endDecel - t;
+            velocity = timeLeft * maxAcceleration;
+            position = goalPosition - timeLeft * maxAcceleration / 2.0 * timeLeft;
+        } else {
+            velocity = 0.0;
+            position = goalPosition;
+        }
+        setpointPosition = position * direction;
+        setpointVelocity = velocity * direction;
+    }
+}
@@ -8,6 +8,13 @@ import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedMap;
 
+/**
+ * A {@code NavigableMap} which interpolates between samples when a key is not present.
+ *
+ * <p>
+ * For {@code double -> double} tables read from control loops, use {@link DoubleLookupTable}
+ * which avoids boxing and tree walks.
+ */
 public class InterpolatedLookupTable<X, Y> implements NavigableMap<X, Y> {
 
     @FunctionalInterface
@@ -19,6 +26,9 @@ public class InterpolatedLookupTable<X, Y> implements NavigableMap<X, Y> {
         }
     }
 
+    private static final AsyncLog.Channel INTERPOLATE = AsyncLog.channel("InterpolatedLookupTable",
+        AsyncLog.Level.DEBUG, "Interpolating at %s between %s and %s");
+
     private NavigableMap<X, Y> samples;
     private Interpolator<X, Y> interpolator;
 
@@ -35,9 +45,10 @@ public class InterpolatedLookupTable<X, Y> implements NavigableMap<X, Y> {
         } else {
             Entry<X, Y> lowerEntry = samples.lowerEntry((X) key);
             Entry<X, Y> higherEntry = samples.higherEntry((X) key);
-            System.out.println(key);
-            System.out.println(lowerEntry);
-            System.out.println(higherEntry);
+            if (INTERPOLATE.isEnabled()) {
+                INTERPOLATE.log(toDouble(key), lowerEntry == null ? Double.NaN : toDouble(lowerEntry.getKey()),
+                    higherEntry == null ? Double.NaN : toDouble(higherEntry.getKey()));
+            }
 
             if (lowerEntry == null || higherEntry == null) {
                 return null;
@@ -47,6 +58,10 @@ public class InterpolatedLookupTable<X, Y> implements NavigableMap<X, Y> {
         }
     }
 
+    private static double toDouble(Object key) {
+        return key instanceof Number ? ((Number) key).doubleValue() : Double.NaN;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public boolean containsKey(Object key) {
@@ -0,0 +1,155 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+
+/**
+ * A fixed-bucket histogram of durations which never allocates after construction.
+ *
+ * <p>
+ * Buckets are log-linear: exact below 16 us, then 16 buckets per power of two, so any percentile
+ * is within about 6% of the true value. Durations are recorded in nanoseconds and reported in
+ * microseconds.
+ *
+ * <p>
+ * Phases are timed from the odometry and control Notifier threads while the dashboard reads from
+ * the robot thread, so every field is atomic. A reader may see a sample counted in one field but
+ * not yet in another, which only moves a percentile by one sample.
+ */
+public class LatencyHistogram implements Sendable {
+
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * Creates a new instance of {@code LatencyHistogram}. Most code should use
+     * {@link LoopProfiler#histogram(String)} so the histogram is published.
+     *
+     * @param name The name of the timed phase.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a duration. Safe to call from any thread.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(nanos, 0) / 1000;
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        total.addAndGet(micros);
+        long previous = max.get();
+        while (micros > previous && !max.compareAndSet(previous, micros)) {
+            previous = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since a {@code System.nanoTime()} timestamp.
+     *
+     * @param startNanos The start of the phase from {@code System.nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Returns the smallest duration (us) which falls in the given bucket. */
+    private static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns an estimate of the given percentile.
+     *
+     * @param percentile The percentile [0, 100].
+     * @return The duration in microseconds, or 0 if nothing was recorded.
+     */
+    public double getPercentile(double percentile) {
+        long recorded = count.get();
+        long longest = max.get();
+        if (recorded == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * recorded);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                if (i < SUB_BUCKETS) {
+                    return i;
+                }
+                // Report the middle of the bucket, but never more than the max
+                double middle = 0.5 * (lowerBoundOf(i) + lowerBoundOf(i + 1));
+                return Math.min(middle, longest);
+            }
+        }
+        return longest;
+    }
+
+    /** Returns the longest recorded duration in microseconds. */
+    public double getMax() {
+        return max.get();
+    }
+
+    /** Returns the mean recorded duration in microseconds. */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0.0 : (double) total.get() / recorded;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Clears every recorded duration.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        max.set(0);
+        total.set(0);
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addDoubleProperty("p50 (us)", () -> getPercentile(50.0), (value) -> {});
+        builder.addDoubleProperty("p99 (us)", () -> getPercentile(99.0), (value) -> {});
+        builder.addDoubleProperty("max (us)", this::getMax, (value) -> {});
+        builder.addDoubleProperty("count", () -> count.get(), (value) -> {});
+    }
+}
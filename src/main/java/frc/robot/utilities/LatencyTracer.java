@@ -0,0 +1,116 @@
+package frc.robot.utilities;
+
+/**
+ * Measures how long operator input takes to reach the motor controllers.
+ *
+ * <p>
+ * A trace starts from the {@code System.nanoTime()} stamp taken when {@code IO} latched input.
+ * The stamp is handed along with the request it caused, and each {@link Stage} it passes through
+ * records the time since the previous stage, so the histograms show where the latency is spent
+ * (ex. waiting for the next cycle between {@link Stage#REQUEST} and {@link Stage#CHASSIS}).
+ * {@link #exit()} records the total from input to the last setpoint frame.
+ *
+ * <p>
+ * Stages after {@link Stage#CHASSIS} cannot be handed the stamp without changing the drive and
+ * motor interfaces, so they call {@link #mark(Stage)}, which only records between
+ * {@link #enter(long)} and {@link #exit()}. Setpoints sent outside of a trace (ex. by other
+ * subsystems) are ignored.
+ *
+ * <p>
+ * Stages up to {@link Stage#REQUEST} are recorded by the robot thread, the rest by whichever thread
+ * controls the chassis. When that is its own control loop, a sample may be skewed if a new trace
+ * begins while the last one is still being recorded.
+ */
+public final class LatencyTracer {
+
+    /** The stages of the drive path, in order. */
+    public enum Stage {
+        /** The drive command read the latched input. */
+        COMMAND,
+        /** The chassis accepted the requested speeds. */
+        REQUEST,
+        /** The chassis applied the requested speeds, usually on the next cycle. */
+        CHASSIS,
+        /** The module targets were computed. */
+        KINEMATICS,
+        /** A setpoint frame was sent to a motor controller. */
+        FRAME;
+
+        private final LatencyHistogram histogram = LoopProfiler.histogram("Latency/" + name().toLowerCase());
+
+        /**
+         * Returns the time from the previous stage to this one.
+         */
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    private static final LatencyHistogram TOTAL = LoopProfiler.histogram("Latency/total");
+
+    private static long origin = 0;
+    private static long last = 0;
+    private static boolean active = false;
+
+    private LatencyTracer() {}
+
+    /**
+     * Records a stage of the trace started by the given input.
+     *
+     * @param stage The stage reached.
+     * @param inputNanos The {@code System.nanoTime()} stamp of the input, zero if the request did not
+     *        come from operator input.
+     */
+    public static void record(Stage stage, long inputNanos) {
+        if (inputNanos == 0) {
+            return;
+        }
+        if (inputNanos != origin) {
+            origin = inputNanos;
+            last = inputNanos;
+        }
+        long now = System.nanoTime();
+        stage.histogram.record(now - last);
+        last = now;
+    }
+
+    /**
+     * Records the {@link Stage#CHASSIS} stage and traces the stages marked until {@link #exit()}.
+     *
+     * @param inputNanos The {@code System.nanoTime()} stamp of the input, zero to trace nothing.
+     */
+    public static void enter(long inputNanos) {
+        record(Stage.CHASSIS, inputNanos);
+        active = inputNanos != 0;
+    }
+
+    /**
+     * Records a stage of the trace entered by {@link #enter(long)}, if there is one.
+     *
+     * @param stage The stage reached.
+     */
+    public static void mark(Stage stage) {
+        if (active) {
+            long now = System.nanoTime();
+            stage.histogram.record(now - last);
+            last = now;
+        }
+    }
+
+    /**
+     * Ends the trace entered by {@link #enter(long)}, recording the total latency.
+     */
+    public static void exit() {
+        if (active) {
+            TOTAL.record(System.nanoTime() - origin);
+            active = false;
+        }
+    }
+
+    /**
+     * Returns the time from input to the last setpoint frame.
+     */
+    public static LatencyHistogram getTotal() {
+        return TOTAL;
+    }
+}
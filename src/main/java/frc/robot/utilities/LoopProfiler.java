@@ -0,0 +1,112 @@
+package frc.robot.utilities;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * A registry of the {@link LatencyHistogram}s which time each phase of the robot loop.
+ *
+ * <p>
+ * Histograms are created once (usually in a static field) with {@link #histogram(String)} and
+ * recorded into every cycle. {@link #publish()} puts each one on the dashboard along with a
+ * "Loop Timing" widget which can dump every histogram to a file or reset them.
+ */
+public final class LoopProfiler implements Sendable {
+
+    /** The name of the file {@link #dump()} writes to. */
+    public static final String DUMP_FILE = "loop-timing.txt";
+
+    private static final List<LatencyHistogram> HISTOGRAMS = new ArrayList<>();
+    private static boolean published = false;
+
+    private LoopProfiler() {}
+
+    /**
+     * Returns the histogram with the given name, creating it if needed.
+     *
+     * @param name The name of the timed phase.
+     */
+    public static synchronized LatencyHistogram histogram(String name) {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            if (histogram.getName().equals(name)) {
+                return histogram;
+            }
+        }
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        HISTOGRAMS.add(histogram);
+        if (published) {
+            SmartDashboard.putData("Timing/" + name, histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * Puts every histogram, and any created later, on the dashboard. Call once from robotInit.
+     */
+    public static synchronized void publish() {
+        if (published) {
+            return;
+        }
+        published = true;
+        SmartDashboard.putData("Loop Timing", new LoopProfiler());
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            SmartDashboard.putData("Timing/" + histogram.getName(), histogram);
+        }
+    }
+
+    /**
+     * Clears every histogram.
+     */
+    public static synchronized void resetAll() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Writes a table of every histogram to {@link #DUMP_FILE} in
+     * {@link TelemetryLog#defaultDirectory()}, so it lands next to the logs on the robot and in
+     * the working directory on a desktop.
+     */
+    public static void dump() {
+        dump(TelemetryLog.defaultDirectory().resolve(DUMP_FILE));
+    }
+
+    /**
+     * Writes a table of every histogram to a file.
+     *
+     * @param path The file to write.
+     */
+    public static synchronized void dump(Path path) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            System.err.println("Could not create " + path.getParent() + ": " + e.getMessage());
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.printf("%-40s %10s %10s %10s %10s %10s%n", "phase", "count", "mean_us", "p50_us", "p99_us", "max_us");
+            for (LatencyHistogram histogram : HISTOGRAMS) {
+                writer.printf("%-40s %10d %10.1f %10.1f %10.1f %10.1f%n", histogram.getName(), histogram.getCount(),
+                    histogram.getMean(), histogram.getPercentile(50.0), histogram.getPercentile(99.0),
+                    histogram.getMax());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write loop timing to " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        builder.addBooleanProperty("Dump", () -> false, (value) -> { if (value) dump(); });
+        builder.addBooleanProperty("Reset", () -> false, (value) -> { if (value) resetAll(); });
+    }
+}
@@ -0,0 +1,191 @@
+package frc.robot.utilities;
+
+import frc.robot.math.AngleMath;
+import frc.robot.math.Vectors;
+
+/**
+ * The setpoints of every swerve module along a {@link CompiledTrajectory}, precomputed once so a
+ * follower never runs the kinematics.
+ *
+ * <p>
+ * For each record of the trajectory the table holds the reference pose, and for each module its
+ * angle, speed, steering rate and acceleration. The rates are differences between consecutive
+ * records, so a follower can lead the module setpoints along them (see
+ * {@code SwerveModule.SETPOINT_LEAD}) without estimating them from the chassis speeds. They only
+ * describe the table's own setpoints, so a follower which corrects them adds the rate of its
+ * correction.
+ *
+ * <p>
+ * Values are stored in primitive arrays indexed by record (and module), and
+ * {@link #sample(double, Setpoint)} interpolates between the two records around a time in O(1)
+ * without allocating.
+ */
+public class ModuleSetpointTable {
+
+    /**
+     * A mutable holder for one sample of a table. Create one per follower with
+     * {@link ModuleSetpointTable#createSetpoint()} and reuse it.
+     */
+    public static class Setpoint {
+        /** The reference field-relative position (m) and holonomic rotation (rad). */
+        public double x, y, rotation;
+        /** The angle each module faces (rad). */
+        public final double[] angles;
+        /** The speed of each wheel (m/s). */
+        public final double[] speeds;
+        /** The rate each module is steering at (rad/s). */
+        public final double[] steerRates;
+        /** The acceleration of each wheel (m/s^2). */
+        public final double[] accelerations;
+
+        public Setpoint(int moduleCount) {
+            angles = new double[moduleCount];
+            speeds = new double[moduleCount];
+            steerRates = new double[moduleCount];
+            accelerations = new double[moduleCount];
+        }
+    }
+
+    private final String name;
+    private final int moduleCount;
+    private final int recordCount;
+    private final double period;
+    private final double duration;
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] rotation;
+    /** Indexed by {@code record * moduleCount + module}. */
+    private final double[] angles, speeds, steerRates, accelerations;
+
+    private ModuleSetpointTable(String name, int moduleCount, int recordCount, double period, double duration) {
+        this.name = name;
+        this.moduleCount = moduleCount;
+        this.recordCount = recordCount;
+        this.period = period;
+        this.duration = duration;
+        x = new double[recordCount];
+        y = new double[recordCount];
+        rotation = new double[recordCount];
+        angles = new double[recordCount * moduleCount];
+        speeds = new double[recordCount * moduleCount];
+        steerRates = new double[recordCount * moduleCount];
+        accelerations = new double[recordCount * moduleCount];
+    }
+
+    /**
+     * Precomputes the module setpoints of a trajectory.
+     *
+     * @param trajectory The trajectory to follow.
+     * @param kinematics The kinematics of the drive which will follow it.
+     */
+    public static ModuleSetpointTable build(CompiledTrajectory trajectory, SwerveKinematics kinematics) {
+        int moduleCount = kinematics.getModuleCount();
+        int recordCount = trajectory.getRecordCount();
+        double period = trajectory.getPeriod();
+        ModuleSetpointTable table = new ModuleSetpointTable(trajectory.getName(), moduleCount, recordCount, period,
+            trajectory.getDuration());
+
+        CompiledTrajectory.State state = new CompiledTrajectory.State();
+        double[] robotVelocity = new double[2];
+        double[] moduleAngles = new double[moduleCount];
+        double[] moduleSpeeds = new double[moduleCount];
+        int firstMoving = -1;
+        for (int k = 0; k < recordCount; k++) {
+            trajectory.sample(k * period, state);
+            table.x[k] = state.x;
+            table.y[k] = state.y;
+            table.rotation[k] = state.rotation;
+
+            // The trajectory moves in the field frame, the modules in the robot's
+            Vectors.rotate(state.getVx(), state.getVy(), -state.rotation, robotVelocity);
+            double omega = state.rotationRate;
+            kinematics.toModuleStates(robotVelocity[0], robotVelocity[1], omega, moduleAngles, moduleSpeeds);
+            System.arraycopy(moduleAngles, 0, table.angles, k * moduleCount, moduleCount);
+            System.arraycopy(moduleSpeeds, 0, table.speeds, k * moduleCount, moduleCount);
+            if (firstMoving < 0 && (robotVelocity[0] != 0.0 || robotVelocity[1] != 0.0 || omega != 0.0)) {
+                firstMoving = k;
+            }
+        }
+
+        // Face the modules where they will first drive while the trajectory is standing still
+        if (firstMoving > 0) {
+            for (int k = 0; k < firstMoving; k++) {
+                System.arraycopy(table.angles, firstMoving * moduleCount, table.angles, k * moduleCount, moduleCount);
+            }
+        }
+
+        for (int k = 0; k + 1 < recordCount; k++) {
+            for (int i = 0; i < moduleCount; i++) {
+                int index = k * moduleCount + i;
+                int next = index + moduleCount;
+                table.steerRates[index] = steerDelta(table.angles[index], table.angles[next]) / period;
+                table.accelerations[index] = (table.speeds[next] - table.speeds[index]) / period;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns how far a module steers between two angles. A module whose wheel reverses through
+     * zero speed flips its angle by PI without steering at all.
+     */
+    public static double steerDelta(double from, double to) {
+        double delta = AngleMath.shortestDelta(from, to);
+        if (Math.abs(delta) > Math.PI / 2) {
+            delta = AngleMath.shortestDelta(from, to + Math.PI);
+        }
+        return delta;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /** Returns the total time of the trajectory (s). */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * Creates a holder for {@link #sample(double, Setpoint)}.
+     */
+    public Setpoint createSetpoint() {
+        return new Setpoint(moduleCount);
+    }
+
+    /**
+     * Samples the table, interpolating between the two nearest records. Times before the start or
+     * after the end hold the first or last record.
+     *
+     * @param time The time since the start of the trajectory (s).
+     * @param setpoint The holder to fill.
+     * @return The holder, for chaining.
+     */
+    public Setpoint sample(double time, Setpoint setpoint) {
+        double index = Utils.limitRange(time / period, 0.0, recordCount - 1);
+        int k = Math.max(Math.min((int) index, recordCount - 2), 0);
+        int next = Math.min(k + 1, recordCount - 1);
+        double t = Math.min(index - k, 1.0);
+
+        setpoint.x = x[k] + (x[next] - x[k]) * t;
+        setpoint.y = y[k] + (y[next] - y[k]) * t;
+        setpoint.rotation = AngleMath.normalizeSigned(
+            rotation[k] + AngleMath.shortestDelta(rotation[k], rotation[next]) * t);
+
+        int base = k * moduleCount;
+        int nextBase = next * moduleCount;
+        for (int i = 0; i < moduleCount; i++) {
+            double a = angles[base + i];
+            setpoint.angles[i] = AngleMath.normalizeSigned(a + steerDelta(a, angles[nextBase + i]) * t);
+            setpoint.speeds[i] = speeds[base + i] + (speeds[nextBase + i] - speeds[base + i]) * t;
+            setpoint.steerRates[i] = steerRates[base + i];
+            setpoint.accelerations[i] = accelerations[base + i];
+        }
+        return setpoint;
+    }
+}
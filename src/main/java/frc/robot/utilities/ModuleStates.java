@@ -0,0 +1,49 @@
+package frc.robot.utilities;
+
+/**
+ * The states of every module of a swerve drive, stored as parallel primitive arrays (structure of
+ * arrays) so a drive with any number of modules can be processed in tight loops without
+ * allocating or chasing object references.
+ *
+ * <p>
+ * Index {@code i} of every array describes module {@code i}.
+ */
+public class ModuleStates {
+
+    /** The angle each module faces (rad). */
+    public final double[] angles;
+    /** The speed of each wheel (m/s). */
+    public final double[] speeds;
+    /** The distance each wheel has travelled (m). */
+    public final double[] positions;
+    /** When each state was set or sampled (s, same time base as {@code Clock}). */
+    public final double[] timestamps;
+
+    /**
+     * Creates a new instance of {@code ModuleStates} with every state zeroed.
+     *
+     * @param moduleCount The number of modules.
+     */
+    public ModuleStates(int moduleCount) {
+        angles = new double[moduleCount];
+        speeds = new double[moduleCount];
+        positions = new double[moduleCount];
+        timestamps = new double[moduleCount];
+    }
+
+    public int size() {
+        return angles.length;
+    }
+
+    /**
+     * Copies every state into another instance of the same size.
+     *
+     * @param other The instance to overwrite.
+     */
+    public void copyTo(ModuleStates other) {
+        System.arraycopy(angles, 0, other.angles, 0, angles.length);
+        System.arraycopy(speeds, 0, other.speeds, 0, speeds.length);
+        System.arraycopy(positions, 0, other.positions, 0, positions.length);
+        System.arraycopy(timestamps, 0, other.timestamps, 0, timestamps.length);
+    }
+}
@@ -0,0 +1,147 @@
+package frc.robot.utilities;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A preallocated ring buffer of odometry samples. Each sample holds a timestamp, the gyro position
+ * and the angle, speed and wheel position of every module.
+ *
+ * <p>
+ * There must only be a single writer. Readers on any thread copy a sample out with
+ * {@link #read(long, Sample)}. Like a {@link SeqLock}, each slot carries its own sequence number so a
+ * reader racing the writer around the ring detects the overwrite instead of returning a torn
+ * sample. Nothing is allocated after construction.
+ */
+public class OdometrySampleBuffer {
+
+    /**
+     * A mutable holder for one sample. Create one per reader with {@link #createSample()} and
+     * reuse it.
+     */
+    public static class Sample {
+        /** The time the sample was taken (s). */
+        public double timestamp;
+        /** The gyro position (rad). */
+        public double gyroPosition;
+        /** The angle of each module (rad). */
+        public final double[] angles;
+        /** The speed of each module (m/s). */
+        public final double[] speeds;
+        /** The distance each wheel has travelled (m). */
+        public final double[] positions;
+
+        public Sample(int moduleCount) {
+            angles = new double[moduleCount];
+            speeds = new double[moduleCount];
+            positions = new double[moduleCount];
+        }
+    }
+
+    private final int capacity;
+    private final int moduleCount;
+
+    private final double[] timestamps;
+    private final double[] gyroPositions;
+    private final double[] moduleAngles;
+    private final double[] moduleSpeeds;
+    private final double[] modulePositions;
+
+    /**
+     * The state of each slot: {@code 2 * sequence + 1} while sample {@code sequence} is being
+     * written into it and {@code 2 * sequence + 2} once it is complete.
+     */
+    private final AtomicLongArray slotStates;
+
+    /** The total number of samples ever written. */
+    private volatile long count = 0;
+
+    /**
+     * Creates a new instance of {@code OdometrySampleBuffer}.
+     *
+     * @param capacity The number of samples to keep.
+     * @param moduleCount The number of modules in each sample.
+     */
+    public OdometrySampleBuffer(int capacity, int moduleCount) {
+        this.capacity = capacity;
+        this.moduleCount = moduleCount;
+        this.timestamps = new double[capacity];
+        this.gyroPositions = new double[capacity];
+        this.moduleAngles = new double[capacity * moduleCount];
+        this.moduleSpeeds = new double[capacity * moduleCount];
+        this.modulePositions = new double[capacity * moduleCount];
+        this.slotStates = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one if the buffer is full.
+     *
+     * @param timestamp The time the sample was taken (s).
+     * @param gyroPosition The gyro position (rad).
+     * @param states The angle, speed and wheel position of each module.
+     */
+    public void add(double timestamp, double gyroPosition, ModuleStates states) {
+        long next = count;
+        int index = (int) (next % capacity);
+        slotStates.set(index, 2 * next + 1);
+        // Keep the data writes below from moving above the odd slot state
+        VarHandle.releaseFence();
+
+        timestamps[index] = timestamp;
+        gyroPositions[index] = gyroPosition;
+        System.arraycopy(states.angles, 0, moduleAngles, index * moduleCount, moduleCount);
+        System.arraycopy(states.speeds, 0, moduleSpeeds, index * moduleCount, moduleCount);
+        System.arraycopy(states.positions, 0, modulePositions, index * moduleCount, moduleCount);
+
+        slotStates.set(index, 2 * next + 2);
+        count = next + 1;
+    }
+
+    /**
+     * Returns the total number of samples ever added. The most recent sample has the sequence
+     * number {@code getCount() - 1}.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Creates a holder for {@link #read(long, Sample)}.
+     */
+    public Sample createSample() {
+        return new Sample(moduleCount);
+    }
+
+    /**
+     * Copies a sample without blocking the writer.
+     *
+     * @param sequence The sequence number of the sample, see {@link #getCount()}.
+     * @param sample The holder to fill.
+     * @return false if the sample was not written yet, has been overwritten, or was overwritten
+     *         while being copied, in which case the holder's contents are meaningless.
+     */
+    public boolean read(long sequence, Sample sample) {
+        if (sequence < 0) {
+            return false;
+        }
+        int index = (int) (sequence % capacity);
+        long complete = 2 * sequence + 2;
+        if (slotStates.get(index) != complete) {
+            return false;
+        }
+
+        sample.timestamp = timestamps[index];
+        sample.gyroPosition = gyroPositions[index];
+        System.arraycopy(moduleAngles, index * moduleCount, sample.angles, 0, moduleCount);
+        System.arraycopy(moduleSpeeds, index * moduleCount, sample.speeds, 0, moduleCount);
+        System.arraycopy(modulePositions, index * moduleCount, sample.positions, 0, moduleCount);
+
+        // Keep the data reads above from moving below the second slot state read
+        VarHandle.acquireFence();
+        return slotStates.get(index) == complete;
+    }
+}
@@ -0,0 +1,166 @@
+package frc.robot.utilities;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed-capacity, time-indexed history of poses which interpolates between samples. This is the
+ * time-series sibling of {@link DoubleLookupTable}, used to ask where the robot was when a delayed
+ * measurement (ex. a vision frame) was taken.
+ *
+ * <p>
+ * Samples are stored in a circular buffer of primitive arrays, so adding a sample never allocates.
+ * Lookups are a binary search over the stored samples.
+ *
+ * <p>
+ * There must only be a single writer (or writers serialized by some other means). Like a
+ * {@link SeqLock}, lookups from any thread never block the writer: a lookup which raced a write is
+ * retried.
+ */
+public class PoseHistory {
+
+    private final int capacity;
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] thetas;
+
+    /** Index of the oldest sample. */
+    private int head = 0;
+    private int size = 0;
+
+    /** Odd while a write is in progress. */
+    private volatile long sequence = 0;
+
+    /**
+     * Creates a new instance of {@code PoseHistory}.
+     *
+     * @param capacity The number of samples to keep.
+     */
+    public PoseHistory(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new double[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.thetas = new double[capacity];
+    }
+
+    /**
+     * Records a pose, overwriting the oldest one if the history is full. Samples which are not newer
+     * than the latest sample are ignored.
+     *
+     * @param timestamp The time of the pose (s).
+     * @param x The forward position (m).
+     * @param y The leftward position (m).
+     * @param theta The heading (rad), continuous rather than wrapped.
+     */
+    public void add(double timestamp, double x, double y, double theta) {
+        if (size > 0 && timestamp <= timestamps[physical(head, size - 1)]) {
+            return;
+        }
+        beginWrite();
+        int index;
+        if (size < capacity) {
+            index = physical(head, size);
+            size++;
+        } else {
+            index = head;
+            head = (head + 1) % capacity;
+        }
+        timestamps[index] = timestamp;
+        xs[index] = x;
+        ys[index] = y;
+        thetas[index] = theta;
+        endWrite();
+    }
+
+    /**
+     * Removes every sample, ex. after the pose is reset.
+     */
+    public void clear() {
+        beginWrite();
+        head = 0;
+        size = 0;
+        endWrite();
+    }
+
+    private void beginWrite() {
+        sequence = sequence + 1;
+        // Keep the writes below from moving above the odd sequence number
+        VarHandle.releaseFence();
+    }
+
+    private void endWrite() {
+        // The volatile write keeps the writes above from moving below it
+        sequence = sequence + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the pose at the given time, interpolating between the surrounding samples. Times outside
+     * of the history are clamped to the oldest or newest sample.
+     *
+     * @param timestamp The time to look up (s).
+     * @param pose Output array of {x, y, theta}.
+     * @return false if the history is empty, in which case {@code pose} is untouched.
+     */
+    public boolean sample(double timestamp, double[] pose) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                // Everything read here may be torn by a concurrent write, it is only used if the
+                // sequence number shows there was none
+                int head = this.head;
+                int size = this.size;
+                double x = 0.0, y = 0.0, theta = 0.0;
+                if (size > 0) {
+                    int a, b;
+                    double t = 0.0;
+                    int newest = physical(head, size - 1);
+                    if (timestamp <= timestamps[head]) {
+                        a = b = head;
+                    } else if (timestamp >= timestamps[newest]) {
+                        a = b = newest;
+                    } else {
+                        // Find the last logical index whose timestamp is <= timestamp
+                        int low = 0;
+                        int high = size - 1;
+                        while (high - low > 1) {
+                            int mid = (low + high) >>> 1;
+                            if (timestamps[physical(head, mid)] <= timestamp) {
+                                low = mid;
+                            } else {
+                                high = mid;
+                            }
+                        }
+                        a = physical(head, low);
+                        b = physical(head, high);
+                        t = (timestamp - timestamps[a]) / (timestamps[b] - timestamps[a]);
+                    }
+                    x = xs[a] + (xs[b] - xs[a]) * t;
+                    y = ys[a] + (ys[b] - ys[a]) * t;
+                    theta = thetas[a] + (thetas[b] - thetas[a]) * t;
+                }
+                // Keep the reads above from moving below the second sequence read
+                VarHandle.acquireFence();
+                if (sequence == before) {
+                    if (size == 0) {
+                        return false;
+                    }
+                    pose[0] = x;
+                    pose[1] = y;
+                    pose[2] = theta;
+                    return true;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int physical(int head, int logical) {
+        int index = head + logical;
+        return index >= capacity ? index - capacity : index;
+    }
+}
@@ -0,0 +1,102 @@
+package frc.robot.utilities;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A sequence lock protecting a fixed-size block of doubles.
+ *
+ * <p>
+ * A single writer (or writers serialized by some other means) publishes by filling the array
+ * returned from {@link #beginWrite()} and then calling {@link #endWrite()}. Any number of readers
+ * copy a consistent version out with {@link #read(double[])}, retrying if a write happened while
+ * they were copying. Readers never block the writer and nothing allocates.
+ */
+public class SeqLock {
+
+    private final double[] data;
+
+    /** Odd while a write is in progress. */
+    private volatile long sequence = 0;
+
+    /**
+     * Creates a new instance of {@code SeqLock}.
+     *
+     * @param size The number of doubles protected by the lock.
+     */
+    public SeqLock(int size) {
+        data = new double[size];
+    }
+
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * Starts a write. The returned array must only be written to until {@link #endWrite()}.
+     *
+     * @return The protected data.
+     */
+    public double[] beginWrite() {
+        sequence = sequence + 1;
+        // Keep the data writes below from moving above the odd sequence number
+        VarHandle.releaseFence();
+        return data;
+    }
+
+    /**
+     * Publishes the data written since {@link #beginWrite()}.
+     */
+    public void endWrite() {
+        // The volatile write keeps the data writes above from moving below it
+        sequence = sequence + 1;
+    }
+
+    /**
+     * Copies a consistent version of the data.
+     *
+     * @param destination An array at least {@link #size()} long.
+     * @return The version number of the copied data.
+     */
+    public long read(double[] destination) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                System.arraycopy(data, 0, destination, 0, data.length);
+                // Keep the data reads above from moving below the second sequence read
+                VarHandle.acquireFence();
+                if (sequence == before) {
+                    return before >>> 1;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads a single value of a consistent version of the data, without copying the rest.
+     *
+     * @param index The index of the value.
+     * @return The value.
+     */
+    public double read(int index) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                double value = data[index];
+                // Keep the data read above from moving below the second sequence read
+                VarHandle.acquireFence();
+                if (sequence == before) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the version number of the most recently published data.
+     */
+    public long getVersion() {
+        return sequence >>> 1;
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot.utilities;
+
+/**
+ * Decides whether a new setpoint is worth sending to a motor controller. A frame is only sent when
+ * the value moves by more than an epsilon, the control type or PID slot changes, or a keep-alive
+ * interval has passed since the last frame. Counts sent and suppressed frames so bus savings can be
+ * measured.
+ */
+public class SetpointFilter {
+
+    private double epsilon;
+    private double keepAlive;
+
+    private double lastValue = Double.NaN;
+    private int lastType = -1;
+    private int lastSlot = -1;
+    private double lastSendTime = Double.NEGATIVE_INFINITY;
+
+    private long framesSent = 0;
+    private long framesSuppressed = 0;
+
+    /**
+     * Creates a new instance of {@code SetpointFilter}.
+     *
+     * @param epsilon The smallest change in value worth sending.
+     * @param keepAlive The longest time (s) between frames, even if nothing changed.
+     */
+    public SetpointFilter(double epsilon, double keepAlive) {
+        this.epsilon = epsilon;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Records a setpoint request and returns whether it should be sent.
+     *
+     * @param value The requested setpoint.
+     * @param type An identifier for the control type (ex. the ordinal of the ControlType).
+     * @param slot The PID slot.
+     * @return true if a frame should be sent.
+     */
+    public boolean shouldSend(double value, int type, int slot) {
+        double now = Clock.now();
+        if (type == lastType && slot == lastSlot && Math.abs(value - lastValue) <= epsilon
+                && now - lastSendTime < keepAlive) {
+            framesSuppressed++;
+            return false;
+        }
+        lastValue = value;
+        lastType = type;
+        lastSlot = slot;
+        lastSendTime = now;
+        framesSent++;
+        return true;
+    }
+
+    /**
+     * Forces the next setpoint to be sent, ex. after the controller state was changed elsewhere.
+     */
+    public void invalidate() {
+        lastType = -1;
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public void setKeepAlive(double keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public double getKeepAlive() {
+        return keepAlive;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public long getFramesSuppressed() {
+        return framesSuppressed;
+    }
+}
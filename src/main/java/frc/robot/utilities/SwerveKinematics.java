@@ -0,0 +1,193 @@
+package frc.robot.utilities;
+
+/**
+ * Allocation-free swerve kinematics which read from and write into caller-owned primitive arrays.
+ *
+ * <p>
+ * Coordinates follow the robot convention: x is forward, y is leftward and angles are in radians
+ * increasing counter-clockwise.
+ */
+public class SwerveKinematics {
+
+    private final int moduleCount;
+    private final double[] offsetX;
+    private final double[] offsetY;
+
+    /** Rows of the 3 x 2N pseudo-inverse used for forward kinematics. */
+    private final double[] forwardVx;
+    private final double[] forwardVy;
+    private final double[] forwardOmega;
+
+    /**
+     * Creates a new instance of {@code SwerveKinematics}.
+     *
+     * @param offsetX The forward offset (m) of each module from the center of rotation.
+     * @param offsetY The leftward offset (m) of each module from the center of rotation.
+     */
+    public SwerveKinematics(double[] offsetX, double[] offsetY) {
+        if (offsetX.length != offsetY.length || offsetX.length < 2) {
+            throw new IllegalArgumentException("A swerve drive requires at least two module offsets.");
+        }
+        this.moduleCount = offsetX.length;
+        this.offsetX = offsetX.clone();
+        this.offsetY = offsetY.clone();
+
+        // The inverse kinematics are v = A * [vx, vy, omega] with two rows per module:
+        //   [1, 0, -y_i] and [0, 1, x_i]
+        // so the least-squares forward kinematics are (A^T A)^-1 A^T.
+        double sumX = 0.0, sumY = 0.0, sumR2 = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            sumX += this.offsetX[i];
+            sumY += this.offsetY[i];
+            sumR2 += this.offsetX[i] * this.offsetX[i] + this.offsetY[i] * this.offsetY[i];
+        }
+        double n = moduleCount;
+        // A^T A = [[n, 0, -sumY], [0, n, sumX], [-sumY, sumX, sumR2]]
+        double[][] ata = {
+            {n, 0.0, -sumY},
+            {0.0, n, sumX},
+            {-sumY, sumX, sumR2}
+        };
+        double[][] inv = invert3x3(ata);
+
+        forwardVx = new double[2 * moduleCount];
+        forwardVy = new double[2 * moduleCount];
+        forwardOmega = new double[2 * moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            double x = this.offsetX[i];
+            double y = this.offsetY[i];
+            // Column 2i of A^T is [1, 0, -y], column 2i + 1 is [0, 1, x]
+            forwardVx[2 * i] = inv[0][0] - inv[0][2] * y;
+            forwardVx[2 * i + 1] = inv[0][1] + inv[0][2] * x;
+            forwardVy[2 * i] = inv[1][0] - inv[1][2] * y;
+            forwardVy[2 * i + 1] = inv[1][1] + inv[1][2] * x;
+            forwardOmega[2 * i] = inv[2][0] - inv[2][2] * y;
+            forwardOmega[2 * i + 1] = inv[2][1] + inv[2][2] * x;
+        }
+    }
+
+    /**
+     * Returns the number of modules these kinematics were built for.
+     */
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /**
+     * Converts chassis speeds into module angles and speeds.
+     *
+     * <p>
+     * When every chassis speed is zero the module angles are left untouched so the modules do not
+     * snap back to zero when the robot stops.
+     *
+     * @param vx The velocity (m/s) in the forwards direction.
+     * @param vy The velocity (m/s) in the left direction.
+     * @param omega The angular velocity (rad/s) in the counterclockwise direction.
+     * @param angles Output module angles in radians (-PI, PI].
+     * @param speeds Output module speeds in m/s.
+     */
+    public void toModuleStates(double vx, double vy, double omega, double[] angles, double[] speeds) {
+        if (vx == 0.0 && vy == 0.0 && omega == 0.0) {
+            for (int i = 0; i < moduleCount; i++) {
+                speeds[i] = 0.0;
+            }
+            return;
+        }
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = vx - omega * offsetY[i];
+            double moduleVy = vy + omega * offsetX[i];
+            speeds[i] = Math.sqrt(moduleVx * moduleVx + moduleVy * moduleVy);
+            angles[i] = Math.atan2(moduleVy, moduleVx);
+        }
+    }
+
+    /**
+     * Converts chassis speeds into module targets, stamping each with the given time.
+     *
+     * @param vx The velocity (m/s) in the forwards direction.
+     * @param vy The velocity (m/s) in the left direction.
+     * @param omega The angular velocity (rad/s) in the counterclockwise direction.
+     * @param timestamp The time (s) the targets were set.
+     * @param targets Output module angles, speeds and timestamps. Positions are untouched.
+     */
+    public void toModuleStates(double vx, double vy, double omega, double timestamp, ModuleStates targets) {
+        toModuleStates(vx, vy, omega, targets.angles, targets.speeds);
+        double[] timestamps = targets.timestamps;
+        for (int i = 0; i < moduleCount; i++) {
+            timestamps[i] = timestamp;
+        }
+    }
+
+    /**
+     * Adds chassis speeds to module states in place, ex. a feedback correction on top of
+     * precomputed setpoints. A module left with no speed keeps its angle.
+     *
+     * @param vx The velocity (m/s) in the forwards direction.
+     * @param vy The velocity (m/s) in the left direction.
+     * @param omega The angular velocity (rad/s) in the counterclockwise direction.
+     * @param angles Module angles in radians, replaced by the angles of the sums.
+     * @param speeds Module speeds in m/s, replaced by the speeds of the sums.
+     */
+    public void addChassisSpeeds(double vx, double vy, double omega, double[] angles, double[] speeds) {
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = speeds[i] * Math.cos(angles[i]) + vx - omega * offsetY[i];
+            double moduleVy = speeds[i] * Math.sin(angles[i]) + vy + omega * offsetX[i];
+            double speed = Math.sqrt(moduleVx * moduleVx + moduleVy * moduleVy);
+            if (speed > 1e-9) {
+                angles[i] = Math.atan2(moduleVy, moduleVx);
+            }
+            speeds[i] = speed;
+        }
+    }
+
+    /**
+     * Converts measured module states into the least-squares chassis speeds.
+     *
+     * @param measurements The measured angle and speed of each module.
+     * @param chassisSpeeds Output array of {vx, vy, omega}.
+     */
+    public void toChassisSpeeds(ModuleStates measurements, double[] chassisSpeeds) {
+        toChassisSpeeds(measurements.angles, measurements.speeds, chassisSpeeds);
+    }
+
+    /**
+     * Converts module angles and speeds into the least-squares chassis speeds.
+     *
+     * @param angles Module angles in radians.
+     * @param speeds Module speeds in m/s.
+     * @param chassisSpeeds Output array of {vx, vy, omega}.
+     */
+    public void toChassisSpeeds(double[] angles, double[] speeds, double[] chassisSpeeds) {
+        double vx = 0.0, vy = 0.0, omega = 0.0;
+        for (int i = 0; i < moduleCount; i++) {
+            double moduleVx = speeds[i] * Math.cos(angles[i]);
+            double moduleVy = speeds[i] * Math.sin(angles[i]);
+            vx += forwardVx[2 * i] * moduleVx + forwardVx[2 * i + 1] * moduleVy;
+            vy += forwardVy[2 * i] * moduleVx + forwardVy[2 * i + 1] * moduleVy;
+            omega += forwardOmega[2 * i] * moduleVx + forwardOmega[2 * i + 1] * moduleVy;
+        }
+        chassisSpeeds[0] = vx;
+        chassisSpeeds[1] = vy;
+        chassisSpeeds[2] = omega;
+    }
+
+    private static double[][] invert3x3(double[][] m) {
+        double a = m[0][0], b = m[0][1], c = m[0][2];
+        double d = m[1][0], e = m[1][1], f = m[1][2];
+        double g = m[2][0], h = m[2][1], k = m[2][2];
+
+        double A = e * k - f * h;
+        double B = -(d * k - f * g);
+        double C = d * h - e * g;
+        double det = a * A + b * B + c * C;
+        if (Math.abs(det) < 1e-12) {
+            throw new IllegalArgumentException("Module offsets must not all be collinear.");
+        }
+
+        return new double[][] {
+            {A / det, -(b * k - c * h) / det, (b * f - c * e) / det},
+            {B / det, (a * k - c * g) / det, -(a * f - c * d) / det},
+            {C / det, -(a * h - b * g) / det, (a * e - b * d) / det}
+        };
+    }
+}
@@ -0,0 +1,338 @@
+package frc.robot.utilities;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records fixed-layout rows of doubles into memory-mapped segment files.
+ *
+ * <p>
+ * Every segment starts with a header describing the columns, followed by records of
+ * {@code columns.length} little-endian doubles. The control thread only copies a row into the
+ * mapped segment, so {@link #log(double[])} never allocates, blocks or touches the file system.
+ * Segments are created, mapped, flushed and deleted by a low priority background thread, which
+ * always keeps the next segment mapped and ready. If the next segment is not ready when the
+ * current one fills up the record is dropped and counted rather than waiting.
+ *
+ * <p>
+ * Before mapping a segment the background thread checks that the file system keeps
+ * {@link #RESERVED_SPACE} free afterwards, deleting this log's oldest segments to make room. The
+ * roboRIO's internal flash is small and shared with deploys, so logs there keep far fewer segments
+ * by default, see {@link #defaultMaxSegments(Path)}.
+ *
+ * <p>
+ * Segments are read back on the desktop with {@link TelemetryLogReader}.
+ *
+ * <pre>
+ * offset  type     field
+ * 0       int      MAGIC
+ * 4       int      VERSION
+ * 8       int      column count
+ * 12      int      header size (bytes, multiple of 8)
+ * 16      long     segment index
+ * 24      long     record count
+ * 32      ...      column names, each a short length followed by UTF-8 bytes
+ * </pre>
+ */
+public class TelemetryLog {
+
+    /** "TLOG" */
+    public static final int MAGIC = 0x544C4F47;
+    public static final int VERSION = 1;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    public static final String EXTENSION = ".tlog";
+
+    static final int RECORD_COUNT_OFFSET = 24;
+    static final int COLUMNS_OFFSET = 32;
+
+    /** 8 MB segments hold about 2 minutes of drive telemetry at 50 Hz. */
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    /** Older segments are deleted beyond this many, 512 MB at the default size. */
+    public static final int DEFAULT_MAX_SEGMENTS = 64;
+    /** The segments kept on the roboRIO's internal flash, 32 MB at the default size. */
+    public static final int INTERNAL_MAX_SEGMENTS = 4;
+    /** The space (bytes) always left free, ex. for deploys. */
+    public static final long RESERVED_SPACE = 64L * 1024 * 1024;
+
+    /** Where logs go on the roboRIO without a USB stick, the internal flash. */
+    public static final Path INTERNAL_DIRECTORY = Path.of("/home/lvuser/logs");
+
+    /** How often the background thread flushes the current segment to disk (s). */
+    private static final double FLUSH_PERIOD = 1.0;
+
+    private final Path directory;
+    private final String baseName;
+    private final String[] columns;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int recordSize;
+    private final int headerSize;
+
+    // Owned by the writing thread
+    private MappedByteBuffer segment;
+    private long segmentRecords;
+
+    // Hand-offs with the background thread
+    private final AtomicReference<MappedByteBuffer> nextSegment = new AtomicReference<>();
+    private final AtomicReference<MappedByteBuffer> retiredSegment = new AtomicReference<>();
+    private volatile MappedByteBuffer currentSegment;
+
+    private final Deque<Path> segmentFiles = new ArrayDeque<>();
+    private long nextSegmentIndex = 0;
+    private Thread thread;
+    private volatile boolean running = false;
+    private boolean reportedError = false;
+
+    private volatile long recordsWritten = 0;
+    private volatile long recordsDropped = 0;
+
+    /**
+     * Creates a new instance of {@code TelemetryLog} with the default segment size and the default
+     * segment count for the directory, see {@link #defaultMaxSegments(Path)}.
+     *
+     * @param directory The directory to write segments into, created if needed.
+     * @param name A name for the log, used as the prefix of each segment file.
+     * @param columns The name of each column, in the order they are logged.
+     */
+    public TelemetryLog(Path directory, String name, String[] columns) {
+        this(directory, name, columns, DEFAULT_SEGMENT_SIZE, defaultMaxSegments(directory));
+    }
+
+    /**
+     * Creates a new instance of {@code TelemetryLog}.
+     *
+     * @param directory The directory to write segments into, created if needed.
+     * @param name A name for the log, used as the prefix of each segment file.
+     * @param columns The name of each column, in the order they are logged.
+     * @param segmentSize The size of each segment file (bytes).
+     * @param maxSegments The number of segments to keep before deleting the oldest.
+     */
+    public TelemetryLog(Path directory, String name, String[] columns, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        this.baseName = name + "_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        this.columns = columns.clone();
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(maxSegments, 3);
+        this.recordSize = columns.length * Double.BYTES;
+
+        int size = COLUMNS_OFFSET;
+        for (String column : columns) {
+            size += Short.BYTES + column.getBytes(StandardCharsets.UTF_8).length;
+        }
+        this.headerSize = (size + 7) & ~7;
+        if (headerSize + recordSize > segmentSize) {
+            throw new IllegalArgumentException("A segment must hold at least one record");
+        }
+    }
+
+    /**
+     * Returns where logs should be written on this machine: a USB stick if one is mounted on the
+     * roboRIO, otherwise the home directory of the robot program, or a local directory when
+     * running on a desktop.
+     */
+    public static Path defaultDirectory() {
+        if (Files.isDirectory(Path.of("/u"))) {
+            return Path.of("/u/logs");
+        }
+        if (Files.isDirectory(INTERNAL_DIRECTORY.getParent())) {
+            return INTERNAL_DIRECTORY;
+        }
+        return Path.of("logs");
+    }
+
+    /**
+     * Returns how many segments to keep in a directory: {@link #INTERNAL_MAX_SEGMENTS} on the
+     * roboRIO's internal flash, otherwise {@link #DEFAULT_MAX_SEGMENTS}.
+     */
+    public static int defaultMaxSegments(Path directory) {
+        return directory.toAbsolutePath().normalize().startsWith(INTERNAL_DIRECTORY.getParent())
+            ? INTERNAL_MAX_SEGMENTS : DEFAULT_MAX_SEGMENTS;
+    }
+
+    /**
+     * Maps the first segment and starts the background thread.
+     *
+     * @throws IOException If the first segment cannot be created.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(directory);
+        segment = openSegment();
+        segmentRecords = 0;
+        currentSegment = segment;
+
+        running = true;
+        thread = new Thread(this::run, "TelemetryLog");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Appends a record. Never allocates or blocks, so it is safe to call from the control loop.
+     * Must only be called from one thread.
+     *
+     * @param row One value per column.
+     * @return false if the record was dropped because no segment was ready.
+     */
+    public boolean log(double[] row) {
+        MappedByteBuffer buffer = segment;
+        if (buffer == null) {
+            recordsDropped++;
+            return false;
+        }
+        if (buffer.remaining() < recordSize) {
+            buffer = nextSegment.getAndSet(null);
+            if (buffer == null) {
+                recordsDropped++;
+                return false;
+            }
+            retiredSegment.set(segment);
+            segment = buffer;
+            segmentRecords = 0;
+            currentSegment = buffer;
+            LockSupport.unpark(thread);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            buffer.putDouble(row[i]);
+        }
+        buffer.putLong(RECORD_COUNT_OFFSET, ++segmentRecords);
+        recordsWritten++;
+        return true;
+    }
+
+    /**
+     * Stops the background thread and flushes the current segment.
+     */
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Returns the number of records dropped because the next segment was not ready in time.
+     */
+    public long getRecordsDropped() {
+        return recordsDropped;
+    }
+
+    /**
+     * Prepares segments and flushes written data. Runs on the background thread.
+     */
+    private void run() {
+        long flushPeriod = (long) (FLUSH_PERIOD * 1e9);
+        while (running) {
+            try {
+                MappedByteBuffer retired = retiredSegment.getAndSet(null);
+                if (retired != null) {
+                    retired.force();
+                }
+                if (nextSegment.get() == null) {
+                    nextSegment.set(openSegment());
+                }
+                MappedByteBuffer current = currentSegment;
+                if (current != null) {
+                    current.force();
+                }
+                reportedError = false;
+            } catch (IOException e) {
+                // Report once until a segment can be prepared again, the records are counted as dropped
+                if (!reportedError) {
+                    System.err.println("TelemetryLog could not prepare a segment: " + e.getMessage());
+                    reportedError = true;
+                }
+            }
+            LockSupport.parkNanos(flushPeriod);
+        }
+    }
+
+    /**
+     * Creates, maps and writes the header of a new segment, deleting the oldest one if there are
+     * too many.
+     */
+    private MappedByteBuffer openSegment() throws IOException {
+        reserveSpace();
+        Path path = directory.resolve(String.format("%s_%04d%s", baseName, nextSegmentIndex, EXTENSION));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.order(ORDER);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(columns.length);
+        buffer.putInt(headerSize);
+        buffer.putLong(nextSegmentIndex);
+        buffer.putLong(0L);
+        for (String column : columns) {
+            byte[] bytes = column.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+        buffer.position(headerSize);
+        // The usable size is a whole number of records, so a partially written record never fits
+        buffer.limit(headerSize + (segmentSize - headerSize) / recordSize * recordSize);
+        nextSegmentIndex++;
+
+        segmentFiles.addLast(path);
+        while (segmentFiles.size() > maxSegments) {
+            Files.deleteIfExists(segmentFiles.removeFirst());
+        }
+        return buffer;
+    }
+
+    /**
+     * Makes sure a new segment leaves {@link #RESERVED_SPACE} free, deleting the oldest segments
+     * which are no longer written to if needed.
+     *
+     * @throws IOException If there is not enough space even so.
+     */
+    private void reserveSpace() throws IOException {
+        FileStore store = Files.getFileStore(directory);
+        // Keep the current and the retired segment, which may still be flushing
+        while (store.getUsableSpace() < segmentSize + RESERVED_SPACE && segmentFiles.size() > 2) {
+            Files.deleteIfExists(segmentFiles.removeFirst());
+        }
+        long usable = store.getUsableSpace();
+        if (usable < segmentSize + RESERVED_SPACE) {
+            throw new IOException(String.format("only %d MB free in %s, %d MB are kept free", usable >> 20,
+                directory, RESERVED_SPACE >> 20));
+        }
+    }
+}
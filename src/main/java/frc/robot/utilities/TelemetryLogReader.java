@@ -0,0 +1,210 @@
+package frc.robot.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Desktop tool which converts {@link TelemetryLog} segments into files for analysis.
+ *
+ * <p>
+ * Segments from the same run are joined in order. Each run is written as a CSV file and as a
+ * directory holding one raw little-endian {@code .f64} file per column, which numpy
+ * ({@code np.fromfile(path, '<f8')}), pandas or MATLAB can load without parsing.
+ *
+ * <pre>
+ * ./gradlew readTelemetry -Plogs=path/to/logs -Pout=path/to/output
+ * </pre>
+ */
+public final class TelemetryLogReader {
+
+    private TelemetryLogReader() {}
+
+    /** The contents of one segment file. */
+    public static class Segment {
+        public final Path path;
+        public final String[] columns;
+        public final long index;
+        public final long recordCount;
+        /** Positioned at the first record, limited to the last complete record. */
+        public final ByteBuffer records;
+
+        private Segment(Path path, String[] columns, long index, long recordCount, ByteBuffer records) {
+            this.path = path;
+            this.columns = columns;
+            this.index = index;
+            this.recordCount = recordCount;
+            this.records = records;
+        }
+
+        /**
+         * Returns one value of a record.
+         *
+         * @param record The record number within this segment.
+         * @param column The column number.
+         */
+        public double get(long record, int column) {
+            return records.getDouble((int) ((record * columns.length + column) * Double.BYTES));
+        }
+    }
+
+    /**
+     * Reads a segment file.
+     *
+     * @param path The segment to read.
+     * @throws IOException If the file cannot be read or is not a telemetry segment.
+     */
+    public static Segment read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(TelemetryLog.ORDER);
+
+        if (buffer.getInt() != TelemetryLog.MAGIC) {
+            throw new IOException(path + " is not a telemetry log");
+        }
+        int version = buffer.getInt();
+        if (version != TelemetryLog.VERSION) {
+            throw new IOException(path + " has unsupported version " + version);
+        }
+        int columnCount = buffer.getInt();
+        int headerSize = buffer.getInt();
+        long index = buffer.getLong();
+        long recordCount = buffer.getLong();
+
+        String[] columns = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            byte[] bytes = new byte[buffer.getShort()];
+            buffer.get(bytes);
+            columns[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        long available = (buffer.capacity() - headerSize) / ((long) columnCount * Double.BYTES);
+        recordCount = Math.min(recordCount, available);
+        buffer.position(headerSize);
+        buffer.limit(headerSize + (int) (recordCount * columnCount * Double.BYTES));
+        ByteBuffer records = buffer.slice().order(TelemetryLog.ORDER);
+        return new Segment(path, columns, index, recordCount, records);
+    }
+
+    /**
+     * Reads every segment found under the given paths, grouped by run.
+     *
+     * @param inputs Segment files, or directories to search for them.
+     * @return The segments of each run in order, keyed by the name of the run.
+     * @throws IOException If a segment cannot be read.
+     */
+    public static Map<String, List<Segment>> readRuns(List<Path> inputs) throws IOException {
+        Map<String, List<Segment>> runs = new TreeMap<>();
+        for (Path input : inputs) {
+            List<Path> files;
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> stream = Files.list(input)) {
+                    files = stream.filter(p -> p.toString().endsWith(TelemetryLog.EXTENSION)).collect(Collectors.toList());
+                }
+            } else {
+                files = List.of(input);
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String run = name.substring(0, name.lastIndexOf('_'));
+                runs.computeIfAbsent(run, k -> new ArrayList<>()).add(read(file));
+            }
+        }
+        for (List<Segment> segments : runs.values()) {
+            segments.sort((a, b) -> Long.compare(a.index, b.index));
+            for (Segment segment : segments) {
+                if (!Arrays.equals(segments.get(0).columns, segment.columns)) {
+                    throw new IOException(segment.path + " has different columns than the rest of its run");
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Converts every segment found under the given paths.
+     *
+     * @param inputs Segment files, or directories to search for them.
+     * @param output The directory to write into.
+     * @throws IOException If reading or writing fails.
+     */
+    public static void convert(List<Path> inputs, Path output) throws IOException {
+        Files.createDirectories(output);
+        for (Map.Entry<String, List<Segment>> run : readRuns(inputs).entrySet()) {
+            long records = writeRun(run.getValue(), output, run.getKey());
+            System.out.println(run.getKey() + ": " + run.getValue().size() + " segments, " + records + " records");
+        }
+    }
+
+    private static long writeRun(List<Segment> segments, Path output, String name) throws IOException {
+        String[] columns = segments.get(0).columns;
+
+        Path columnDirectory = output.resolve(name);
+        Files.createDirectories(columnDirectory);
+        Files.write(columnDirectory.resolve("columns.txt"), Arrays.asList(columns));
+
+        DataOutputStream[] columnFiles = new DataOutputStream[columns.length];
+        long total = 0;
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(output.resolve(name + ".csv")))) {
+            for (int c = 0; c < columns.length; c++) {
+                OutputStream stream = Files.newOutputStream(columnDirectory.resolve(columns[c].replace('/', '_') + ".f64"));
+                columnFiles[c] = new DataOutputStream(new BufferedOutputStream(stream));
+            }
+            csv.println(String.join(",", columns));
+
+            StringBuilder line = new StringBuilder();
+            for (Segment segment : segments) {
+                for (long r = 0; r < segment.recordCount; r++) {
+                    line.setLength(0);
+                    for (int c = 0; c < columns.length; c++) {
+                        double value = segment.get(r, c);
+                        if (c > 0) {
+                            line.append(',');
+                        }
+                        line.append(value);
+                        // DataOutputStream is big-endian, write the bits reversed to stay little-endian
+                        columnFiles[c].writeLong(Long.reverseBytes(Double.doubleToRawLongBits(value)));
+                    }
+                    csv.println(line);
+                }
+                total += segment.recordCount;
+            }
+        } finally {
+            for (DataOutputStream file : columnFiles) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TelemetryLogReader <output directory> <segment or directory>...");
+            System.exit(1);
+        }
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            inputs.add(Path.of(args[i]));
+        }
+        convert(inputs, Path.of(args[0]));
+    }
+}
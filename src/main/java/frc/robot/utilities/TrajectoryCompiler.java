@@ -0,0 +1,284 @@
+package frc.robot.utilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.spline.CubicHermiteSpline;
+import edu.wpi.first.math.spline.PoseWithCurvature;
+import edu.wpi.first.math.spline.Spline;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.TrajectoryParameterizer;
+import frc.robot.math.AngleMath;
+import frc.robot.subsystems.Chassis;
+
+/**
+ * Desktop tool which compiles PathPlanner {@code .path} files into {@link CompiledTrajectory}
+ * files, so the robot never parses JSON or generates trajectories.
+ *
+ * <p>
+ * Each segment between two anchors is the cubic Bezier PathPlanner draws through their control
+ * points, written as the equivalent cubic Hermite spline. The segments are time parameterized by
+ * WPILib with the path's velocity and acceleration limits (or the chassis limits when the path has
+ * none) and then sampled at a fixed period. The holonomic rotation is interpolated by distance
+ * between the angles set at each waypoint. Paths with velocity overrides, stop points or reversals
+ * are rejected rather than compiled into something else, split those paths instead.
+ *
+ * <pre>
+ * ./gradlew compileTrajectories
+ * </pre>
+ *
+ * <p>
+ * The task compiles {@code src/main/deploy/pathplanner} into {@code build/trajectories}, which is
+ * deployed to {@link TrajectoryLibrary#DIRECTORY} under the deploy directory.
+ */
+public final class TrajectoryCompiler {
+
+    private TrajectoryCompiler() {}
+
+    /** The time between records (s), one robot period. */
+    public static final double DEFAULT_PERIOD = 0.02;
+
+    /** Where PathPlanner saves paths. */
+    public static final String DEFAULT_INPUT = "src/main/deploy/pathplanner";
+    /** Where compiled trajectories are written, the deploy picks them up from here. */
+    public static final String DEFAULT_OUTPUT = "build/" + TrajectoryLibrary.DIRECTORY;
+
+    /** A waypoint of a PathPlanner path. */
+    private static class Waypoint {
+        Translation2d anchor;
+        Translation2d previousControl;
+        Translation2d nextControl;
+        double rotation;
+    }
+
+    private static Translation2d point(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        return new Translation2d(node.get("x").asDouble(), node.get("y").asDouble());
+    }
+
+    private static List<Waypoint> readWaypoints(Path path, JsonNode root) throws IOException {
+        JsonNode nodes = root.get("waypoints");
+        if (nodes == null || nodes.size() < 2) {
+            throw new IOException(path + " needs at least two waypoints");
+        }
+        List<Waypoint> waypoints = new ArrayList<>();
+        for (JsonNode node : nodes) {
+            int index = waypoints.size();
+            if (node.path("isReversal").asBoolean(false)) {
+                throw new IOException(path + " has a reversal at waypoint " + index + ", split it into two paths");
+            }
+            if (node.hasNonNull("velOverride")) {
+                throw new IOException(path + " overrides the velocity at waypoint " + index
+                    + ", which is not supported, split it or lower its maxVelocity instead");
+            }
+            if (node.path("isStopPoint").asBoolean(false)) {
+                throw new IOException(path + " stops at waypoint " + index + ", split it into two paths");
+            }
+            Waypoint waypoint = new Waypoint();
+            waypoint.anchor = point(node.get("anchorPoint"));
+            waypoint.previousControl = point(node.get("prevControl"));
+            waypoint.nextControl = point(node.get("nextControl"));
+            waypoint.rotation = Math.toRadians(node.path("holonomicAngle").asDouble(0.0));
+            waypoints.add(waypoint);
+        }
+        return waypoints;
+    }
+
+    /**
+     * Returns the cubic Hermite control vector at an anchor, whose derivative is the derivative of
+     * the Bezier segment leaving (or entering) it.
+     */
+    private static Spline.ControlVector controlVector(Translation2d anchor, Translation2d control, boolean leaving)
+            throws IOException {
+        if (control == null) {
+            throw new IOException("Missing control point at " + anchor);
+        }
+        double sign = leaving ? 3.0 : -3.0;
+        return new Spline.ControlVector(
+            new double[] { anchor.getX(), sign * (control.getX() - anchor.getX()) },
+            new double[] { anchor.getY(), sign * (control.getY() - anchor.getY()) });
+    }
+
+    /**
+     * Compiles one PathPlanner path.
+     *
+     * @param path The {@code .path} file.
+     * @param maxVelocity The velocity limit (m/s) if the path does not set one.
+     * @param maxAcceleration The acceleration limit (m/s^2) if the path does not set one.
+     * @param period The time between records (s).
+     * @return The contents of the {@code .traj} file.
+     * @throws IOException If the path cannot be read or compiled.
+     */
+    public static ByteBuffer compile(Path path, double maxVelocity, double maxAcceleration, double period)
+            throws IOException {
+        JsonNode root = new ObjectMapper().readTree(path.toFile());
+        if (root.hasNonNull("maxVelocity")) {
+            maxVelocity = root.get("maxVelocity").asDouble();
+        }
+        if (root.hasNonNull("maxAcceleration")) {
+            maxAcceleration = root.get("maxAcceleration").asDouble();
+        }
+        List<Waypoint> waypoints = readWaypoints(path, root);
+
+        // A cubic Bezier is the cubic Hermite spline with the same end derivatives
+        Spline[] splines = new Spline[waypoints.size() - 1];
+        for (int i = 0; i < splines.length; i++) {
+            Spline.ControlVector start = controlVector(waypoints.get(i).anchor, waypoints.get(i).nextControl, true);
+            Spline.ControlVector end = controlVector(waypoints.get(i + 1).anchor,
+                waypoints.get(i + 1).previousControl, false);
+            splines[i] = new CubicHermiteSpline(start.x, end.x, start.y, end.y);
+        }
+        Trajectory trajectory;
+        try {
+            List<PoseWithCurvature> points = TrajectoryGenerator.splinePointsFromSplines(splines);
+            trajectory = TrajectoryParameterizer.timeParameterizeTrajectory(points, List.of(), 0.0, 0.0,
+                maxVelocity, maxAcceleration, false);
+        } catch (RuntimeException e) {
+            throw new IOException("Could not generate " + path + ": " + e.getMessage(), e);
+        }
+
+        double duration = trajectory.getTotalTimeSeconds();
+        int recordCount = (int) Math.ceil(duration / period) + 1;
+        double[] distances = new double[recordCount];
+        Trajectory.State[] states = new Trajectory.State[recordCount];
+        for (int k = 0; k < recordCount; k++) {
+            states[k] = trajectory.sample(Math.min(k * period, duration));
+            if (k > 0) {
+                distances[k] = distances[k - 1] + states[k].poseMeters.getTranslation()
+                    .getDistance(states[k - 1].poseMeters.getTranslation());
+            }
+        }
+
+        // The distance at each waypoint is where the samples pass closest to its anchor
+        double[] waypointDistances = new double[waypoints.size()];
+        int from = 0;
+        for (int w = 1; w < waypoints.size(); w++) {
+            Translation2d anchor = waypoints.get(w).anchor;
+            int closest = from;
+            for (int k = from; k < recordCount; k++) {
+                if (states[k].poseMeters.getTranslation().getDistance(anchor)
+                        < states[closest].poseMeters.getTranslation().getDistance(anchor)) {
+                    closest = k;
+                }
+            }
+            waypointDistances[w] = distances[closest];
+            from = closest;
+        }
+        waypointDistances[waypoints.size() - 1] = distances[recordCount - 1];
+
+        double[] rotations = new double[recordCount];
+        int segment = 0;
+        for (int k = 0; k < recordCount; k++) {
+            while (segment < waypoints.size() - 2 && distances[k] > waypointDistances[segment + 1]) {
+                segment++;
+            }
+            double start = waypointDistances[segment];
+            double length = waypointDistances[segment + 1] - start;
+            double t = length > 1e-9 ? Utils.limitRange((distances[k] - start) / length, 0.0, 1.0) : 1.0;
+            double a = waypoints.get(segment).rotation;
+            double b = waypoints.get(segment + 1).rotation;
+            rotations[k] = AngleMath.normalizeSigned(a + AngleMath.shortestDelta(a, b) * t);
+        }
+
+        int recordSize = CompiledTrajectory.FIELDS * Float.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(CompiledTrajectory.HEADER_SIZE + recordCount * recordSize);
+        buffer.order(CompiledTrajectory.ORDER);
+        buffer.putInt(CompiledTrajectory.MAGIC);
+        buffer.putInt(CompiledTrajectory.VERSION);
+        buffer.putInt(recordCount);
+        buffer.putInt(CompiledTrajectory.FIELDS);
+        buffer.putDouble(period);
+        buffer.putDouble(duration);
+        for (int k = 0; k < recordCount; k++) {
+            Trajectory.State state = states[k];
+            double rotationRate = k + 1 < recordCount
+                ? AngleMath.shortestDelta(rotations[k], rotations[k + 1]) / period
+                : 0.0;
+            buffer.putFloat((float) state.poseMeters.getX());
+            buffer.putFloat((float) state.poseMeters.getY());
+            buffer.putFloat((float) state.poseMeters.getRotation().getRadians());
+            buffer.putFloat((float) state.velocityMetersPerSecond);
+            buffer.putFloat((float) state.accelerationMetersPerSecondSq);
+            buffer.putFloat((float) state.curvatureRadPerMeter);
+            buffer.putFloat((float) rotations[k]);
+            buffer.putFloat((float) rotationRate);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Compiles every PathPlanner path in a directory.
+     *
+     * <p>
+     * Arguments are the input directory (default {@link #DEFAULT_INPUT}), the output directory
+     * (default {@link #DEFAULT_OUTPUT}) and optionally
+     * {@code --max-velocity <m/s>}, {@code --max-acceleration <m/s^2>} and {@code --period <s>}.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> paths = new ArrayList<>();
+        double maxVelocity = Chassis.MAX_DRIVE_SPEED;
+        double maxAcceleration = Chassis.MAX_DRIVE_ACCELERATION;
+        double period = DEFAULT_PERIOD;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max-velocity":
+                    maxVelocity = Double.parseDouble(args[++i]);
+                    break;
+                case "--max-acceleration":
+                    maxAcceleration = Double.parseDouble(args[++i]);
+                    break;
+                case "--period":
+                    period = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    paths.add(args[i]);
+            }
+        }
+        Path input = Path.of(paths.size() > 0 ? paths.get(0) : DEFAULT_INPUT);
+        Path output = Path.of(paths.size() > 1 ? paths.get(1) : DEFAULT_OUTPUT);
+
+        List<Path> sources;
+        if (!Files.isDirectory(input)) {
+            System.err.println("No path directory " + input.toAbsolutePath());
+            System.exit(1);
+        }
+        try (Stream<Path> files = Files.list(input)) {
+            sources = files.filter((path) -> path.toString().endsWith(".path")).sorted().collect(Collectors.toList());
+        }
+        Files.createDirectories(output);
+
+        boolean failed = false;
+        for (Path source : sources) {
+            String fileName = source.getFileName().toString();
+            String name = fileName.substring(0, fileName.length() - ".path".length());
+            try {
+                ByteBuffer buffer = compile(source, maxVelocity, maxAcceleration, period);
+                // Read it back the way the robot will before replacing the old file
+                CompiledTrajectory trajectory = CompiledTrajectory.wrap(name, buffer);
+                Files.write(output.resolve(name + CompiledTrajectory.EXTENSION), buffer.array());
+                System.out.printf("%-24s %5d records %6.2f s %7d bytes%n", name, trajectory.getRecordCount(),
+                    trajectory.getDuration(), buffer.limit());
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
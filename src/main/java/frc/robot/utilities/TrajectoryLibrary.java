@@ -0,0 +1,130 @@
+package frc.robot.utilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * The {@link CompiledTrajectory}s in a directory, mapped on a background thread.
+ *
+ * <p>
+ * Creating a library does not read the directory, so it is cheap to create in a static
+ * initializer. Trajectories are mapped the first time they are asked for, or all at once after
+ * {@link #preload()}, on a low priority daemon thread. {@link #get(String)} only waits if the
+ * trajectory has not been mapped yet.
+ */
+public class TrajectoryLibrary {
+
+    /** The directory of compiled trajectories under the deploy directory. */
+    public static final String DIRECTORY = "trajectories";
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, CompletableFuture<CompiledTrajectory>> trajectories =
+        new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "TrajectoryLibrary");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Creates a library of the trajectories in a directory.
+     *
+     * @param directory The directory holding {@code .traj} files.
+     */
+    public TrajectoryLibrary(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a library of the trajectories in {@link #DIRECTORY} under the deploy directory. On a
+     * desktop nothing is deployed, so the trajectories are read from where
+     * {@code compileTrajectories} writes them instead.
+     */
+    public static TrajectoryLibrary deployed() {
+        Path deployed = Filesystem.getDeployDirectory().toPath().resolve(DIRECTORY);
+        Path compiled = Path.of(TrajectoryCompiler.DEFAULT_OUTPUT);
+        return new TrajectoryLibrary(!Files.isDirectory(deployed) && Files.isDirectory(compiled) ? compiled : deployed);
+    }
+
+    /**
+     * Returns the names of every trajectory in the directory. Reads the directory.
+     */
+    public Set<String> getNames() {
+        Set<String> names = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return names;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map((path) -> path.getFileName().toString())
+                .filter((name) -> name.endsWith(CompiledTrajectory.EXTENSION))
+                .forEach((name) -> names.add(
+                    name.substring(0, name.length() - CompiledTrajectory.EXTENSION.length())));
+        } catch (IOException e) {
+            System.err.println("Could not list trajectories in " + directory + ": " + e.getMessage());
+        }
+        return names;
+    }
+
+    /**
+     * Starts mapping every trajectory in the background, ex. from {@code robotInit()}. Returns
+     * immediately.
+     */
+    public void preload() {
+        loader.execute(() -> {
+            for (String name : getNames()) {
+                load(name);
+            }
+        });
+    }
+
+    /**
+     * Starts mapping a trajectory in the background, unless it already has been.
+     *
+     * @param name The name of the trajectory, without the extension.
+     * @return The pending trajectory.
+     */
+    public CompletableFuture<CompiledTrajectory> load(String name) {
+        return trajectories.computeIfAbsent(name, (key) -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return CompiledTrajectory.map(directory.resolve(key + CompiledTrajectory.EXTENSION));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, loader));
+    }
+
+    /**
+     * Returns whether a trajectory has been mapped, so {@link #get(String)} will not wait.
+     */
+    public boolean isLoaded(String name) {
+        CompletableFuture<CompiledTrajectory> trajectory = trajectories.get(name);
+        return trajectory != null && trajectory.isDone();
+    }
+
+    /**
+     * Returns a trajectory, waiting for it to be mapped if it has not been yet.
+     *
+     * @param name The name of the trajectory, without the extension.
+     * @return The trajectory, or null if it is missing or cannot be read.
+     */
+    public CompiledTrajectory get(String name) {
+        try {
+            return load(name).join();
+        } catch (CompletionException e) {
+            System.err.println("Could not load trajectory " + name + ": " + e.getCause().getMessage());
+            return null;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package frc.robot.utilities;
 import com.pathplanner.lib.PathPlannerTrajectory;
 
 import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.math.AngleMath;
+import frc.robot.math.Vectors;
 
 public class Utils {
     public static double map(final double value, final double input_min, final double input_max,
@@ -34,29 +36,12 @@ public class Utils {
      * @param v1 a vector in the form [theta, magnitude]
      * @param v2 another vector in the form [theta, magnitude]
      * @return the vector sum, in the form [theta, magnitude]
+     * @apiNote This allocates the result, use {@link Vectors#addPolar} in loops.
      */
     public static double[] addVectors(double[] v1, double[] v2) {
-        // Seperate the vectors into variables
-        double vector1Angle = v1[0];
-        double vector1Mag = v1[1];
-        double vector2Angle = v2[0];
-        double vector2Mag = v2[1];
-
-        // Then seperate into their components
-        double vector1x = vector1Mag * Math.cos(vector1Angle);
-        double vector1y = vector1Mag * Math.sin(vector1Angle);
-        double vector2x = vector2Mag * Math.cos(vector2Angle);
-        double vector2y = vector2Mag * Math.sin(vector2Angle);
-
-        // Add the components
-        double vectorRx = vector1x + vector2x;
-        double vectorRy = vector1y + vector2y;
-
-        // Turn it back into a polar vector
-        double vectorRAngle = Utils.angle(vectorRx, vectorRy);
-        double vectorRMag = Utils.magnitude(vectorRx, vectorRy);
-
-        return new double[] {vectorRAngle, vectorRMag};
+        double[] result = new double[2];
+        Vectors.addPolar(v1[0], v1[1], v2[0], v2[1], result);
+        return result;
     }
 
     /**
@@ -66,13 +51,7 @@ public class Utils {
      * @return angle in the range [0, 2PI)
      */
     public static double normalizeAngle(double angle) {
-        while (angle < 0) {
-            angle += 2 * Math.PI;
-        }
-        while (angle >= 2 * Math.PI) {
-            angle -= 2 * Math.PI;
-        }
-        return angle;
+        return AngleMath.normalize(angle);
     }
 
     /**
@@ -0,0 +1,219 @@
+package frc.robot.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.IO;
+import frc.robot.commands.DriveWithJoysticks;
+import frc.robot.utilities.AllocationMonitor;
+
+/**
+ * Drives the chassis on simulated hardware for thousands of cycles and fails if a control path
+ * allocates more than its budget.
+ *
+ * <p>
+ * Each cycle runs in the order the scheduler runs it: {@code IO.latch()},
+ * {@code Chassis.periodic()} (which runs {@code SwerveDrive}), then
+ * {@code DriveWithJoysticks.execute()}, while scripted stick inputs sweep through driving, turning
+ * and heading hold. Bytes allocated on the calling thread are counted separately for each path
+ * with {@link AllocationMonitor}, after a warm up so class loading and JIT compilation are not
+ * counted. Only the calling thread is measured: the dashboard notifier, NetworkTables and the log
+ * drain allocate on their own threads. For the same reason garbage collections are reported but
+ * never fail the run.
+ *
+ * <p>
+ * {@code AllocationHarnessTest} runs it with the default budgets as part of {@code ./gradlew test},
+ * so a change which adds garbage to a control path fails the build. To try other budgets:
+ *
+ * <pre>
+ * ./gradlew allocationHarness [-Pcycles=5000] [-Pbudgets=Chassis.periodic=512,...]
+ * </pre>
+ */
+public class AllocationHarness {
+
+    /**
+     * The bytes each path may allocate per cycle on average. None of them allocate once warmed
+     * up: the dashboard pose is published off the control path and the heading is held by a
+     * {@code HeadingController}.
+     */
+    public static final Map<String, Long> DEFAULT_BUDGETS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_BUDGETS.put("IO.latch", 0L);
+        DEFAULT_BUDGETS.put("Chassis.periodic", 0L);
+        DEFAULT_BUDGETS.put("DriveWithJoysticks.execute", 0L);
+    }
+
+    /** The allocations of one path. */
+    public static class Path {
+        public final String name;
+        public final long budget;
+        private long bytes = 0;
+        private long maxCycleBytes = 0;
+        private long cycles = 0;
+
+        private Path(String name, long budget) {
+            this.name = name;
+            this.budget = budget;
+        }
+
+        private void add(long cycleBytes) {
+            bytes += cycleBytes;
+            maxCycleBytes = Math.max(maxCycleBytes, cycleBytes);
+            cycles++;
+        }
+
+        public double getMeanCycleBytes() {
+            return cycles == 0 ? 0.0 : (double) bytes / cycles;
+        }
+
+        public long getMaxCycleBytes() {
+            return maxCycleBytes;
+        }
+
+        public boolean isOverBudget() {
+            return getMeanCycleBytes() > budget;
+        }
+    }
+
+    private final Map<String, Long> budgets;
+
+    private final SimulatedChassis sim = new SimulatedChassis();
+    private final DriveWithJoysticks command = new DriveWithJoysticks(sim.chassis, true);
+    private final Runnable controlCycle = this::cycle;
+
+    // The paths being measured, null while warming up
+    private Path latch;
+    private Path periodic;
+    private Path execute;
+
+    /**
+     * Creates a new instance of {@code AllocationHarness}. {@code IO} must already be constructed.
+     *
+     * @param budgets The bytes each path may allocate per cycle, see {@link #DEFAULT_BUDGETS}.
+     */
+    public AllocationHarness(Map<String, Long> budgets) {
+        this.budgets = budgets;
+        script();
+    }
+
+    /**
+     * Sweeps the driver sticks: a figure eight while turning, then straight lines in heading hold.
+     */
+    private void script() {
+        IO.Axis.DriverLeftX.setSource(() -> 0.8 * Math.sin(0.5 * sim.getTime()));
+        IO.Axis.DriverLeftY.setSource(() -> -0.8 * Math.sin(sim.getTime()));
+        IO.Axis.DriverRightX.setSource(() -> (sim.getTime() % 10.0) < 5.0 ? 0.5 * Math.cos(0.3 * sim.getTime()) : 0.0);
+        IO.Axis.DriverRightY.setSource(() -> 0.0);
+    }
+
+    private void cycle() {
+        long start = AllocationMonitor.allocatedBytes();
+        IO.latch();
+        long cycleBytes = AllocationMonitor.since(start);
+        if (latch != null) {
+            latch.add(cycleBytes);
+        }
+
+        start = AllocationMonitor.allocatedBytes();
+        sim.chassis.periodic();
+        cycleBytes = AllocationMonitor.since(start);
+        if (periodic != null) {
+            periodic.add(cycleBytes);
+        }
+
+        start = AllocationMonitor.allocatedBytes();
+        command.execute();
+        cycleBytes = AllocationMonitor.since(start);
+        if (execute != null) {
+            execute.add(cycleBytes);
+        }
+    }
+
+    /**
+     * Runs the harness.
+     *
+     * @param warmup The cycles to run before measuring.
+     * @param cycles The cycles to measure.
+     * @return Whether every path stayed within budget.
+     */
+    public boolean run(int warmup, int cycles) {
+        try {
+            sim.chassis.init(new Pose2d());
+            command.initialize();
+            sim.warmUp(warmup, controlCycle);
+
+            latch = new Path("IO.latch", budgets.getOrDefault("IO.latch", 0L));
+            periodic = new Path("Chassis.periodic", budgets.getOrDefault("Chassis.periodic", 0L));
+            execute = new Path("DriveWithJoysticks.execute", budgets.getOrDefault("DriveWithJoysticks.execute", 0L));
+            long gcCount = AllocationMonitor.getGcCount();
+            long gcTime = AllocationMonitor.getGcTime();
+            for (int i = 0; i < cycles; i++) {
+                sim.cycle(controlCycle);
+            }
+            gcCount = AllocationMonitor.getGcCount() - gcCount;
+            gcTime = AllocationMonitor.getGcTime() - gcTime;
+
+            boolean passed = true;
+            System.out.printf("%d cycles after %d warm up cycles%n", cycles, warmup);
+            System.out.printf("  %-28s %14s %14s %14s%n", "path", "mean (B/cycle)", "max (B/cycle)", "budget");
+            for (Path path : new Path[] { latch, periodic, execute }) {
+                System.out.printf("  %-28s %14.1f %14d %14d%s%n", path.name, path.getMeanCycleBytes(),
+                    path.getMaxCycleBytes(), path.budget, path.isOverBudget() ? "  OVER BUDGET" : "");
+                passed &= !path.isOverBudget();
+            }
+            // Every thread allocates towards these, so they are only reported
+            System.out.printf("  %-28s %14d %14s%n", "gc collections (all threads)", gcCount, gcTime + " ms");
+            return passed;
+        } finally {
+            sim.close();
+            for (IO.Axis axis : IO.Axis.values()) {
+                axis.useController();
+            }
+        }
+    }
+
+    /**
+     * Runs the harness and exits with an error if anything is over budget.
+     *
+     * <p>
+     * Arguments are {@code --cycles <n>}, {@code --warmup <n>} and
+     * {@code --budget <path>=<bytes>}, which may be repeated.
+     */
+    public static void main(String[] args) {
+        int cycles = 5000;
+        int warmup = 2000;
+        Map<String, Long> budgets = new LinkedHashMap<>(DEFAULT_BUDGETS);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cycles":
+                    cycles = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--budget":
+                    for (String budget : args[++i].split(",")) {
+                        String[] parts = budget.split("=");
+                        budgets.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        if (!AllocationMonitor.isSupported()) {
+            System.err.println("This JVM cannot count allocations per thread.");
+            System.exit(2);
+        }
+
+        SimulatedChassis.initializeHal();
+        @SuppressWarnings("unused")
+        IO io = new IO();
+
+        boolean passed = new AllocationHarness(budgets).run(warmup, cycles);
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,406 @@
+package frc.robot.simulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import frc.robot.components.ModuleGains;
+import frc.robot.components.SwerveModule;
+import frc.robot.components.SwerveModule2020;
+import frc.robot.components.SwerveModule2022;
+import frc.robot.math.AngleMath;
+
+/**
+ * Tunes swerve module gains offline by simulating thousands of candidates in parallel.
+ *
+ * <p>
+ * Each candidate runs as one task on a {@code ForkJoinPool}. The task builds a fresh module on its
+ * own {@link SimMotor}s and steps them directly (not through {@code Clock}), so tasks share
+ * nothing. Setpoints are sent every robot period, as on the robot, while the motors run their
+ * 1 kHz PID. Each candidate runs three trials:
+ * <ul>
+ * <li>a turn step of {@link #TURN_STEP}, scored on settle time and overshoot</li>
+ * <li>a drive step to {@link #DRIVE_STEP}, scored on settle time and overshoot</li>
+ * <li>a sinusoidal angle and speed trajectory, scored on RMS tracking error</li>
+ * </ul>
+ *
+ * <p>
+ * Candidates are a log-spaced grid or a random sample of each gain from a quarter to four times
+ * its hand-tuned default. Gains which default to zero or are not set (NaN) are not swept. The ranked candidates are
+ * written as a CSV file and the best are stored as overrides in {@link ModuleGains#FILE_NAME},
+ * which the robot loads from the deploy directory.
+ *
+ * <pre>
+ * ./gradlew gainSweep [-Pmodule=2020|2022] [-Psamples=4000 | -Pgrid=5]
+ * </pre>
+ */
+public class GainSweep {
+
+    /** How often setpoints are sent (s). */
+    public static final double COMMAND_PERIOD = 0.02;
+    /** The simulation step (s), matching the SparkMax PID loop. */
+    public static final double STEP = SimMotor.CONTROL_PERIOD;
+
+    /** The turn step (rad), under a quarter turn so the module does not flip. */
+    public static final double TURN_STEP = 1.0;
+    /** The drive step (m/s). */
+    public static final double DRIVE_STEP = 3.0;
+    /** The fraction of a step the response must stay within to be settled. */
+    public static final double SETTLE_BAND = 0.02;
+    /** How long each step is simulated (s). */
+    public static final double STEP_DURATION = 1.0;
+    /** How long the trajectory is simulated (s). */
+    public static final double TRAJECTORY_DURATION = 3.0;
+    /** Tracking error is not counted while the module first catches up (s). */
+    public static final double TRAJECTORY_LEAD_IN = 0.2;
+
+    // Score weights, lower scores are better
+    public static final double SETTLE_WEIGHT = 1.0; // per s
+    public static final double OVERSHOOT_WEIGHT = 2.0; // per fraction of the step
+    public static final double ANGLE_TRACKING_WEIGHT = 5.0; // per rad RMS
+    public static final double SPEED_TRACKING_WEIGHT = 1.0; // per m/s RMS
+
+    /** The lowest and highest multiple of a default gain which is tried. */
+    public static final double RANGE = 4.0;
+
+    /** The result of one candidate. */
+    public static class Trial {
+        public final ModuleGains gains;
+        public double turnSettle, turnOvershoot;
+        public double driveSettle, driveOvershoot;
+        public double angleRms, speedRms;
+        public double score;
+
+        private Trial(ModuleGains gains) {
+            this.gains = gains;
+        }
+    }
+
+    /** The kinds of module which can be tuned. */
+    public enum Module {
+        SwerveModule2020(frc.robot.components.SwerveModule2020.DEFAULT_GAINS),
+        SwerveModule2022(frc.robot.components.SwerveModule2022.DEFAULT_GAINS);
+
+        public final ModuleGains defaults;
+
+        Module(ModuleGains defaults) {
+            this.defaults = defaults;
+        }
+    }
+
+    private final Module module;
+
+    /**
+     * Creates a new instance of {@code GainSweep}.
+     *
+     * @param module The kind of module to tune.
+     */
+    public GainSweep(Module module) {
+        this.module = module;
+    }
+
+    /**
+     * Creates every combination of {@code levels} log-spaced multiples of each swept gain.
+     */
+    public List<ModuleGains> grid(int levels) {
+        double[] defaults = module.defaults.toArray();
+        List<ModuleGains> candidates = new ArrayList<>();
+        candidates.add(module.defaults);
+        int swept = 0;
+        for (double gain : defaults) {
+            if (isSwept(gain)) {
+                swept++;
+            }
+        }
+        long count = (long) Math.pow(levels, swept);
+        for (long index = 0; index < count; index++) {
+            double[] gains = defaults.clone();
+            long remaining = index;
+            for (int i = 0; i < gains.length; i++) {
+                if (isSwept(gains[i])) {
+                    int level = (int) (remaining % levels);
+                    remaining /= levels;
+                    double exponent = levels > 1 ? -1.0 + 2.0 * level / (levels - 1) : 0.0;
+                    gains[i] *= Math.pow(RANGE, exponent);
+                }
+            }
+            candidates.add(ModuleGains.fromArray(gains));
+        }
+        return candidates;
+    }
+
+    private static boolean isSwept(double gain) {
+        return gain != 0.0 && !Double.isNaN(gain);
+    }
+
+    /**
+     * Samples each swept gain log-uniformly.
+     */
+    public List<ModuleGains> sample(int samples, long seed) {
+        double[] defaults = module.defaults.toArray();
+        Random random = new Random(seed);
+        List<ModuleGains> candidates = new ArrayList<>();
+        candidates.add(module.defaults);
+        for (int n = 0; n < samples; n++) {
+            double[] gains = defaults.clone();
+            for (int i = 0; i < gains.length; i++) {
+                gains[i] *= Math.pow(RANGE, 2.0 * random.nextDouble() - 1.0);
+            }
+            candidates.add(ModuleGains.fromArray(gains));
+        }
+        return candidates;
+    }
+
+    /**
+     * Simulates every candidate in parallel.
+     *
+     * @param candidates The gains to try.
+     * @param pool The pool to run the trials on.
+     * @return The trials, best first.
+     */
+    public List<Trial> run(List<ModuleGains> candidates, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        List<Callable<Trial>> tasks = new ArrayList<>();
+        for (ModuleGains gains : candidates) {
+            tasks.add(() -> evaluate(gains));
+        }
+        List<Trial> trials = new ArrayList<>();
+        for (Future<Trial> future : pool.invokeAll(tasks)) {
+            trials.add(future.get());
+        }
+        trials.sort(Comparator.comparingDouble(trial -> trial.score));
+        return trials;
+    }
+
+    /** A module on its own simulated motors. */
+    private class SimModule {
+        final SimMotor drive = SimMotor.neo(SimulatedRobot.DRIVE_INERTIA);
+        final SimMotor turn = SimMotor.neo550(SimulatedRobot.TURN_INERTIA);
+        final SwerveModule module;
+
+        SimModule(ModuleGains gains) {
+            if (GainSweep.this.module == Module.SwerveModule2022) {
+                module = new SwerveModule2022(drive, turn, new SimAbsoluteEncoder(turn), false, gains);
+            } else {
+                module = new SwerveModule2020(drive, turn, false, gains);
+            }
+            module.init();
+        }
+
+        void step() {
+            drive.step(STEP);
+            turn.step(STEP);
+        }
+    }
+
+    /**
+     * Runs every trial of one candidate.
+     */
+    public Trial evaluate(ModuleGains gains) {
+        Trial trial = new Trial(gains);
+
+        // Turn step
+        SimModule sim = new SimModule(gains);
+        double[] response = new double[(int) Math.round(STEP_DURATION / STEP)];
+        for (int k = 0; k < response.length; k++) {
+            if (k % commandSteps() == 0) {
+                sim.module.setDesiredState(TURN_STEP, 0.0);
+            }
+            sim.step();
+            response[k] = AngleMath.shortestDelta(0.0, sim.module.getCurrentAngle());
+        }
+        trial.turnSettle = settleTime(response, TURN_STEP);
+        trial.turnOvershoot = overshoot(response, TURN_STEP);
+
+        // Drive step
+        sim = new SimModule(gains);
+        for (int k = 0; k < response.length; k++) {
+            if (k % commandSteps() == 0) {
+                sim.module.setDesiredState(0.0, DRIVE_STEP);
+            }
+            sim.step();
+            response[k] = sim.module.getCurrentSpeed();
+        }
+        trial.driveSettle = settleTime(response, DRIVE_STEP);
+        trial.driveOvershoot = overshoot(response, DRIVE_STEP);
+
+        // Trajectory
+        sim = new SimModule(gains);
+        double angleSquares = 0.0, speedSquares = 0.0;
+        long samples = 0;
+        double angle = 0.0, speed = 0.0;
+        int steps = (int) Math.round(TRAJECTORY_DURATION / STEP);
+        for (int k = 0; k < steps; k++) {
+            double t = k * STEP;
+            if (k % commandSteps() == 0) {
+                angle = 0.8 * Math.sin(2 * Math.PI * 0.5 * t);
+                speed = 2.0 + 1.5 * Math.sin(2 * Math.PI * 0.7 * t);
+                sim.module.setDesiredState(angle, speed);
+            }
+            sim.step();
+            if (t >= TRAJECTORY_LEAD_IN) {
+                double angleError = AngleMath.shortestDelta(angle, sim.module.getCurrentAngle());
+                double speedError = speed - sim.module.getCurrentSpeed();
+                angleSquares += angleError * angleError;
+                speedSquares += speedError * speedError;
+                samples++;
+            }
+        }
+        trial.angleRms = Math.sqrt(angleSquares / samples);
+        trial.speedRms = Math.sqrt(speedSquares / samples);
+
+        trial.score = SETTLE_WEIGHT * (trial.turnSettle + trial.driveSettle)
+            + OVERSHOOT_WEIGHT * (trial.turnOvershoot + trial.driveOvershoot)
+            + ANGLE_TRACKING_WEIGHT * trial.angleRms
+            + SPEED_TRACKING_WEIGHT * trial.speedRms;
+        if (!Double.isFinite(trial.score)) {
+            trial.score = Double.MAX_VALUE;
+        }
+        return trial;
+    }
+
+    private static int commandSteps() {
+        return (int) Math.round(COMMAND_PERIOD / STEP);
+    }
+
+    /**
+     * Returns the time after which the response stays within the settle band, or the whole
+     * duration if it never settles.
+     */
+    private static double settleTime(double[] response, double target) {
+        double band = SETTLE_BAND * Math.abs(target);
+        for (int k = response.length - 1; k >= 0; k--) {
+            if (Math.abs(response[k] - target) > band) {
+                return (k + 1) * STEP;
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Returns how far the response passed the target, as a fraction of the step.
+     */
+    private static double overshoot(double[] response, double target) {
+        double peak = 0.0;
+        for (double value : response) {
+            peak = Math.max(peak, Math.signum(target) * value);
+        }
+        return Math.max(peak - Math.abs(target), 0.0) / Math.abs(target);
+    }
+
+    /**
+     * Writes every trial, best first.
+     */
+    public void writeTable(List<Trial> trials, Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.print("rank,score");
+            for (String name : ModuleGains.getNames()) {
+                writer.print("," + name);
+            }
+            writer.println(",turnSettle,turnOvershoot,driveSettle,driveOvershoot,angleRms,speedRms");
+            for (int rank = 0; rank < trials.size(); rank++) {
+                Trial trial = trials.get(rank);
+                writer.print((rank + 1) + "," + trial.score);
+                for (double gain : trial.gains.toArray()) {
+                    writer.print("," + gain);
+                }
+                writer.printf(",%f,%f,%f,%f,%f,%f%n", trial.turnSettle, trial.turnOvershoot, trial.driveSettle,
+                    trial.driveOvershoot, trial.angleRms, trial.speedRms);
+            }
+        }
+    }
+
+    private static void print(String label, Trial trial) {
+        System.out.printf("%-9s %8.4f  turn %.3f s %5.1f%%  drive %.3f s %5.1f%%  rms %.4f rad %.4f m/s  %s%n",
+            label, trial.score, trial.turnSettle, 100 * trial.turnOvershoot, trial.driveSettle,
+            100 * trial.driveOvershoot, trial.angleRms, trial.speedRms, trial.gains);
+    }
+
+    /**
+     * Runs a sweep and stores the best gains.
+     *
+     * <p>
+     * Arguments are {@code --module 2020|2022}, {@code --samples <n>} (the default, 4000) or
+     * {@code --grid <levels>}, {@code --seed <n>}, {@code --threads <n>}, {@code --table <csv>} and
+     * {@code --out <properties>} (default {@code src/main/deploy/module-gains.properties}).
+     */
+    public static void main(String[] args) throws Exception {
+        Module module = Module.SwerveModule2020;
+        int samples = 4000;
+        int grid = 0;
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path table = null;
+        Path out = Path.of("src", "main", "deploy", ModuleGains.FILE_NAME);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--module":
+                    module = Module.valueOf("SwerveModule" + args[++i]);
+                    break;
+                case "--samples":
+                    samples = Integer.parseInt(args[++i]);
+                    break;
+                case "--grid":
+                    grid = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--table":
+                    table = Path.of(args[++i]);
+                    break;
+                case "--out":
+                    out = Path.of(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        if (table == null) {
+            table = Path.of("build", "gain-sweep", module.name() + ".csv");
+        }
+
+        GainSweep sweep = new GainSweep(module);
+        List<ModuleGains> candidates = grid > 0 ? sweep.grid(grid) : sweep.sample(samples, seed);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Trial> trials;
+        try {
+            trials = sweep.run(candidates, pool);
+        } finally {
+            pool.shutdown();
+        }
+        double elapsed = (System.nanoTime() - start) * 1e-9;
+        System.out.printf("%s: %d candidates on %d threads in %.1f s (%.0f candidates/s)%n", module,
+            trials.size(), threads, elapsed, trials.size() / elapsed);
+
+        for (int rank = 0; rank < Math.min(10, trials.size()); rank++) {
+            print("#" + (rank + 1), trials.get(rank));
+        }
+        for (Trial trial : trials) {
+            if (trial.gains == module.defaults) {
+                print("default", trial);
+            }
+        }
+
+        sweep.writeTable(trials, table);
+        Trial best = trials.get(0);
+        best.gains.store(out, module.name(), String.format("Best of %d candidates from GainSweep, score %.4f",
+            trials.size(), best.score));
+        System.out.println("Ranked table written to " + table + ", best gains to " + out);
+    }
+}
@@ -0,0 +1,366 @@
+package frc.robot.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.IO;
+import frc.robot.commands.DriveWithJoysticks;
+import frc.robot.components.SwerveModule;
+import frc.robot.components.SwerveModule2020;
+import frc.robot.math.AngleMath;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.CachedDouble;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.TelemetryLogReader;
+import frc.robot.utilities.TelemetryLogReader.Segment;
+
+/**
+ * Replays a chassis {@code TelemetryLog} through the real control code as fast as possible.
+ *
+ * <p>
+ * Each record drives one cycle. The recorded gyro and module measurements are returned by
+ * {@link ReplayGyro} and {@link ReplayMotor}s behind the usual encoder interfaces, the recorded
+ * raw axes are fed into {@code IO.Axis} (so the transforms still apply), and {@code Clock} reads
+ * the recorded timestamp. The cycle then runs in the order the scheduler runs it:
+ * {@code Chassis.periodic()} followed by {@code DriveWithJoysticks.execute()}.
+ *
+ * <p>
+ * Odometry integrates how far each wheel travelled, so the drive motors replay the recorded
+ * {@code distance} of each module. Logs from before that column was recorded integrate the
+ * recorded speed instead.
+ *
+ * <p>
+ * After each cycle the chassis telemetry is compared with the recorded row. Every setpoint
+ * ({@code desired*}) and pose ({@code pose*}) column is tracked, so a control change can be
+ * checked against real runs.
+ *
+ * <pre>
+ * ./gradlew replay -Plogs=path/to/logs [-Ptolerance=0.01]
+ * </pre>
+ */
+public class LogReplay {
+
+    /** Columns compared between the replay and the recording start with one of these. */
+    private static final String[] COMPARED_PREFIXES = { "desired", "pose" };
+    private static final String[] COMPARED_MODULE_COLUMNS = { "desiredAngle", "desiredSpeed" };
+
+    /** How far the replay and the recording differ in one column. */
+    public static class Divergence {
+        public final String column;
+        private final boolean angular;
+        private long count = 0;
+        private double sumSquares = 0.0;
+        private double max = 0.0;
+        private double maxTimestamp = Double.NaN;
+
+        private Divergence(String column, boolean angular) {
+            this.column = column;
+            this.angular = angular;
+        }
+
+        private void add(double replayed, double recorded, double timestamp) {
+            double error = angular ? AngleMath.shortestDelta(recorded, replayed) : replayed - recorded;
+            error = Math.abs(error);
+            count++;
+            sumSquares += error * error;
+            if (error > max) {
+                max = error;
+                maxTimestamp = timestamp;
+            }
+        }
+
+        public double getRms() {
+            return count > 0 ? Math.sqrt(sumSquares / count) : 0.0;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the recorded timestamp (s) of the largest error.
+         */
+        public double getMaxTimestamp() {
+            return maxTimestamp;
+        }
+    }
+
+    /** The outcome of a replay. */
+    public static class Result {
+        public final String run;
+        public final long cycles;
+        /** The recorded duration (s). */
+        public final double duration;
+        /** The time taken to replay (s). */
+        public final double elapsed;
+        public final List<Divergence> divergences;
+        /** The replayed pose after the last record. */
+        public final Pose2d finalPose;
+
+        private Result(String run, long cycles, double duration, double elapsed, List<Divergence> divergences,
+                Pose2d finalPose) {
+            this.run = run;
+            this.cycles = cycles;
+            this.duration = duration;
+            this.elapsed = elapsed;
+            this.divergences = divergences;
+            this.finalPose = finalPose;
+        }
+
+        public double getCyclesPerSecond() {
+            return cycles / elapsed;
+        }
+
+        /**
+         * Returns how many times faster than real time the replay ran.
+         */
+        public double getSpeedup() {
+            return duration / elapsed;
+        }
+
+        /**
+         * Returns the largest RMS error of any compared column.
+         */
+        public double getWorstRms() {
+            double worst = 0.0;
+            for (Divergence divergence : divergences) {
+                worst = Math.max(worst, divergence.getRms());
+            }
+            return worst;
+        }
+
+        public void print() {
+            System.out.printf("%s: %d cycles, %.1f s recorded, replayed in %.3f s (%.0f cycles/s, %.0fx real time)%n",
+                run, cycles, duration, elapsed, getCyclesPerSecond(), getSpeedup());
+            System.out.printf("  %-28s %12s %12s %12s%n", "column", "rms", "max", "max at (s)");
+            for (Divergence divergence : divergences) {
+                System.out.printf("  %-28s %12.6f %12.6f %12.3f%n", divergence.column, divergence.getRms(),
+                    divergence.getMax(), divergence.getMaxTimestamp());
+            }
+        }
+    }
+
+    private final String run;
+    private final List<Segment> segments;
+    private final String[] columns;
+    private final boolean fieldOrient;
+
+    /**
+     * Creates a new instance of {@code LogReplay}.
+     *
+     * @param run The name of the run.
+     * @param segments The segments of the run, in order.
+     * @param fieldOrient Whether the driver was driving field oriented.
+     */
+    public LogReplay(String run, List<Segment> segments, boolean fieldOrient) {
+        this.run = run;
+        this.segments = segments;
+        this.columns = segments.get(0).columns;
+        this.fieldOrient = fieldOrient;
+    }
+
+    /**
+     * Replays every record of the run.
+     *
+     * @return The throughput and divergence of the replay.
+     */
+    public Result run() {
+        int moduleCount = 0;
+        while (column("module" + moduleCount + "/angle") >= 0) {
+            moduleCount++;
+        }
+
+        double[] recorded = new double[columns.length];
+        int timestamp = requireColumn("timestamp");
+        int gyroAngle = requireColumn("gyroAngle");
+        int gyroRate = column("gyroRate");
+
+        // Build the drive stack on top of the recorded sensors
+        ReplayGyro gyro = new ReplayGyro();
+        ReplayMotor[] driveMotors = new ReplayMotor[moduleCount];
+        ReplayMotor[] turnMotors = new ReplayMotor[moduleCount];
+        SwerveModule[] modules = new SwerveModule[moduleCount];
+        int[] angleColumns = new int[moduleCount];
+        int[] speedColumns = new int[moduleCount];
+        int[] distanceColumns = new int[moduleCount];
+        // Integrated from the recorded speed when the log has no distance column (m, m/s)
+        double[] distances = new double[moduleCount];
+        double[] lastSpeeds = new double[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            driveMotors[i] = new ReplayMotor();
+            turnMotors[i] = new ReplayMotor();
+            // Inversion is already reflected in the recorded measurements
+            modules[i] = new SwerveModule2020(driveMotors[i], turnMotors[i], false);
+            angleColumns[i] = requireColumn("module" + i + "/angle");
+            speedColumns[i] = requireColumn("module" + i + "/speed");
+            distanceColumns[i] = column("module" + i + "/distance");
+        }
+
+        Clock.setSource(() -> recorded[timestamp]);
+        for (IO.Axis axis : IO.Axis.values()) {
+            int axisColumn = column("axis/" + axis.name());
+            axis.setSource(axisColumn >= 0 ? () -> recorded[axisColumn] : () -> 0.0);
+        }
+
+        Chassis chassis = new Chassis(gyro, modules, 0.0);
+        // Control each record in step with the recording
+        chassis.setControlPeriod(0.0);
+        DriveWithJoysticks command = new DriveWithJoysticks(chassis, fieldOrient);
+
+        // Pair up the columns to compare
+        String[] replayColumns = chassis.getTelemetryColumns();
+        double[] replayed = new double[replayColumns.length];
+        List<Divergence> divergences = new ArrayList<>();
+        List<int[]> pairs = new ArrayList<>();
+        for (int r = 0; r < replayColumns.length; r++) {
+            int c = column(replayColumns[r]);
+            if (c >= 0 && isCompared(replayColumns[r])) {
+                String name = replayColumns[r];
+                divergences.add(new Divergence(name, name.endsWith("Angle") || name.endsWith("Theta")));
+                pairs.add(new int[] { r, c });
+            }
+        }
+        int[] replayIndex = pairs.stream().mapToInt(p -> p[0]).toArray();
+        int[] recordedIndex = pairs.stream().mapToInt(p -> p[1]).toArray();
+        Divergence[] divergenceIndex = divergences.toArray(new Divergence[0]);
+
+        long cycles = 0;
+        double firstTimestamp = Double.NaN;
+        double lastTimestamp = Double.NaN;
+        boolean initialized = false;
+        long start = System.nanoTime();
+        try {
+            for (Segment segment : segments) {
+                for (long record = 0; record < segment.recordCount; record++) {
+                    for (int c = 0; c < recorded.length; c++) {
+                        recorded[c] = segment.get(record, c);
+                    }
+                    gyro.setMeasurement(recorded[gyroAngle], gyroRate >= 0 ? recorded[gyroRate] : 0.0);
+                    double dt = Double.isNaN(lastTimestamp) ? 0.0 : recorded[timestamp] - lastTimestamp;
+                    lastTimestamp = recorded[timestamp];
+                    for (int i = 0; i < moduleCount; i++) {
+                        double speed = recorded[speedColumns[i]];
+                        distances[i] += 0.5 * (lastSpeeds[i] + speed) * dt;
+                        lastSpeeds[i] = speed;
+                        double distance = distanceColumns[i] >= 0 ? recorded[distanceColumns[i]] : distances[i];
+                        double metersPerRad = modules[i].getMetersPerRad();
+                        turnMotors[i].setMeasurement(recorded[angleColumns[i]], 0.0);
+                        driveMotors[i].setMeasurement(distance / metersPerRad, speed / metersPerRad);
+                    }
+
+                    if (!initialized) {
+                        chassis.init(initialPose(recorded));
+                        command.initialize();
+                        firstTimestamp = recorded[timestamp];
+                        initialized = true;
+                    }
+
+                    CachedDouble.nextCycle();
+                    IO.latch();
+                    chassis.periodic();
+                    chassis.getTelemetry(replayed);
+                    for (int k = 0; k < divergenceIndex.length; k++) {
+                        divergenceIndex[k].add(replayed[replayIndex[k]], recorded[recordedIndex[k]], recorded[timestamp]);
+                    }
+                    command.execute();
+                    cycles++;
+                }
+            }
+        } finally {
+            Clock.useFPGA();
+            for (IO.Axis axis : IO.Axis.values()) {
+                axis.useController();
+            }
+        }
+        double elapsed = (System.nanoTime() - start) * 1e-9;
+
+        return new Result(run, cycles, recorded[timestamp] - firstTimestamp, elapsed, divergences,
+            chassis.getCurrentPose());
+    }
+
+    /**
+     * Returns the recorded pose if the log has one, otherwise the recorded gyro heading.
+     */
+    private Pose2d initialPose(double[] recorded) {
+        int x = column("poseX");
+        int y = column("poseY");
+        int theta = column("poseTheta");
+        if (x < 0 || y < 0 || theta < 0) {
+            return new Pose2d(0.0, 0.0, new Rotation2d(recorded[column("gyroAngle")]));
+        }
+        return new Pose2d(recorded[x], recorded[y], new Rotation2d(recorded[theta]));
+    }
+
+    private static boolean isCompared(String name) {
+        for (String prefix : COMPARED_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        String moduleColumn = name.substring(name.indexOf('/') + 1);
+        return name.startsWith("module") && Arrays.asList(COMPARED_MODULE_COLUMNS).contains(moduleColumn);
+    }
+
+    private int column(String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int requireColumn(String name) {
+        int index = column(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(run + " has no " + name + " column");
+        }
+        return index;
+    }
+
+    /**
+     * Replays every run found under the given paths.
+     *
+     * <p>
+     * Arguments are segment files or directories, optionally preceded by {@code --tolerance <rms>}
+     * to exit with an error if any compared column diverges by more than that, and
+     * {@code --robot-oriented} if the driver was not driving field oriented.
+     */
+    public static void main(String[] args) throws IOException {
+        double tolerance = Double.POSITIVE_INFINITY;
+        boolean fieldOrient = true;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--tolerance")) {
+                tolerance = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--robot-oriented")) {
+                fieldOrient = false;
+            } else {
+                inputs.add(Path.of(args[i]));
+            }
+        }
+
+        // IO latches buttons through the Driver Station
+        HAL.initialize(500, 0);
+        @SuppressWarnings("unused")
+        IO io = new IO();
+
+        boolean diverged = false;
+        for (Map.Entry<String, List<Segment>> run : TelemetryLogReader.readRuns(inputs).entrySet()) {
+            Result result = new LogReplay(run.getKey(), run.getValue(), fieldOrient).run();
+            result.print();
+            if (result.getWorstRms() > tolerance) {
+                System.out.printf("%s diverged: worst rms %.6f > %.6f%n", run.getKey(), result.getWorstRms(), tolerance);
+                diverged = true;
+            }
+        }
+        System.exit(diverged ? 1 : 0);
+    }
+}
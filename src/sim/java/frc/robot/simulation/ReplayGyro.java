@@ -0,0 +1,39 @@
+package frc.robot.simulation;
+
+import frc.robot.architecture.Gyro;
+
+/**
+ * A gyro whose measurements are played back from a log, see {@link LogReplay}.
+ */
+public class ReplayGyro implements Gyro {
+
+    private double angle = 0.0;
+    private double rate = 0.0;
+    private double offset = 0.0;
+
+    /**
+     * Sets the measurements returned until the next call.
+     *
+     * @param angle The recorded angle (rad).
+     * @param rate The recorded angular velocity (rad/s).
+     */
+    public void setMeasurement(double angle, double rate) {
+        this.angle = angle;
+        this.rate = rate;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return angle + offset;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        offset = newPosition - angle;
+    }
+
+    @Override
+    public double getCurrentSpeed() {
+        return rate;
+    }
+}
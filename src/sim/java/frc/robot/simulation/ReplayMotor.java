@@ -0,0 +1,144 @@
+package frc.robot.simulation;
+
+import frc.robot.architecture.ConfigurableMotor;
+
+/**
+ * A motor whose measurements are played back from a log, see {@link LogReplay}.
+ *
+ * <p>
+ * Commands are remembered rather than acted on, and configuration is ignored since the recorded
+ * measurements already reflect it.
+ */
+public class ReplayMotor implements ConfigurableMotor {
+
+    private double position = 0.0;
+    private double speed = 0.0;
+    private double appliedOutput = 0.0;
+    private double current = 0.0;
+    private double offset = 0.0;
+
+    private double desiredPosition = 0.0;
+    private double desiredSpeed = 0.0;
+    private double gearRatio = 1.0;
+
+    /**
+     * Sets the measurements returned until the next call.
+     *
+     * @param position The position of the output shaft (rad).
+     * @param speed The speed of the output shaft (rad/s).
+     */
+    public void setMeasurement(double position, double speed) {
+        this.position = position;
+        this.speed = speed;
+    }
+
+    /**
+     * Sets the electrical measurements returned until the next call.
+     *
+     * @param appliedOutput The applied duty cycle [-1, 1].
+     * @param current The current drawn (Amps).
+     */
+    public void setElectrical(double appliedOutput, double current) {
+        this.appliedOutput = appliedOutput;
+        this.current = current;
+    }
+
+    /**
+     * Returns the last speed commanded (rad/s).
+     */
+    public double getDesiredSpeed() {
+        return desiredSpeed;
+    }
+
+    /**
+     * Returns the last position commanded (rad).
+     */
+    public double getDesiredPosition() {
+        return desiredPosition;
+    }
+
+    @Override
+    public void setDesiredSpeed(double speed) {
+        desiredSpeed = speed;
+    }
+
+    @Override
+    public double getCurrentSpeed() {
+        return speed;
+    }
+
+    @Override
+    public void setDesiredPosition(double position) {
+        desiredPosition = position;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return position + offset;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        offset = newPosition - position;
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return appliedOutput;
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return current;
+    }
+
+    @Override
+    public void setP(double gain, int pidSlot) {}
+
+    @Override
+    public void setI(double gain, int pidSlot) {}
+
+    @Override
+    public void setD(double gain, int pidSlot) {}
+
+    @Override
+    public void setFF(double gain, int pidSlot) {}
+
+    @Override
+    public void setIZone(double iZone, int pidSlot) {}
+
+    @Override
+    public void setIMaxAccum(double iMaxAccum, int pidSlot) {}
+
+    @Override
+    public void setOutputRange(double min, double max, int pidSlot) {}
+
+    @Override
+    public void setGearRatio(double gearRatio) {
+        this.gearRatio = gearRatio;
+    }
+
+    @Override
+    public double getGearRatio() {
+        return gearRatio;
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {}
+
+    @Override
+    public void setBrakeMode(boolean brake) {}
+
+    @Override
+    public void setCurrentLimit(int stallLimit, int freeLimit) {}
+
+    @Override
+    public int getSpeedPid() {
+        return 0;
+    }
+
+    @Override
+    public int getPositionPid() {
+        return 1;
+    }
+}
@@ -0,0 +1,29 @@
+package frc.robot.simulation;
+
+import frc.robot.architecture.PositionEncoder;
+import frc.robot.utilities.Utils;
+
+/**
+ * A simulated absolute encoder (ex. a Throughbore) mounted on the output shaft of a
+ * {@link SimMotor}.
+ */
+public class SimAbsoluteEncoder implements PositionEncoder {
+
+    private final SimMotor motor;
+
+    private double offset = 0.0;
+
+    public SimAbsoluteEncoder(SimMotor motor) {
+        this.motor = motor;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return Utils.normalizeAngle(motor.getShaftPosition() + offset);
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        offset = newPosition - motor.getShaftPosition();
+    }
+}
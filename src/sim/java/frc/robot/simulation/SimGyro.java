@@ -0,0 +1,63 @@
+package frc.robot.simulation;
+
+import java.util.function.DoubleSupplier;
+
+import frc.robot.architecture.Gyro;
+import frc.robot.utilities.Clock;
+
+/**
+ * A simulated gyro which integrates the angular velocity of the chassis.
+ */
+public class SimGyro implements Gyro {
+
+    private DoubleSupplier rateSource = () -> 0.0;
+
+    private double angle = 0.0;
+    private double rate = 0.0;
+    private double lastTime = Double.NaN;
+
+    /**
+     * Sets where the gyro reads the angular velocity of the chassis from.
+     *
+     * @param rateSource A supplier of the counter-clockwise angular velocity (rad/s).
+     */
+    public void setRateSource(DoubleSupplier rateSource) {
+        this.rateSource = rateSource;
+    }
+
+    /**
+     * Integrates the chassis angular velocity up to the current {@link Clock} time.
+     */
+    public void update() {
+        double now = Clock.now();
+        if (!Double.isNaN(lastTime)) {
+            update(now - lastTime);
+        }
+        lastTime = now;
+    }
+
+    /**
+     * Integrates the chassis angular velocity over a fixed amount of time.
+     *
+     * @param dt The time to integrate over (s).
+     */
+    public void update(double dt) {
+        rate = rateSource.getAsDouble();
+        angle += rate * dt;
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return angle;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        angle = newPosition;
+    }
+
+    @Override
+    public double getCurrentSpeed() {
+        return rate;
+    }
+}
@@ -0,0 +1,342 @@
+package frc.robot.simulation;
+
+import frc.robot.architecture.ConfigurableMotor;
+import frc.robot.components.Neo;
+import frc.robot.components.Neo550;
+import frc.robot.utilities.Clock;
+import frc.robot.utilities.Utils;
+
+/**
+ * A physics-based stand-in for a brushless motor on a SparkMax.
+ *
+ * <p>
+ * The motor is modelled as a DC motor driving a pure inertia (plus viscous friction) through a
+ * gearbox. The onboard PID controller is modelled the way the SparkMax runs it: at 1 kHz, in the
+ * converted output units, with per-slot P, I, D, FF, IZone, IMaxAccum and output range, and with a
+ * smart current limit.
+ */
+public class SimMotor implements ConfigurableMotor {
+
+    /** The SparkMax runs its PID loop at 1 kHz. */
+    public static final double CONTROL_PERIOD = 0.001;
+
+    private static final double NOMINAL_VOLTAGE = 12.0;
+    /** The speed (motor RPM) at which the smart current limit reaches the free limit. */
+    private static final double CURRENT_LIMIT_RPM = 20000.0;
+
+    private enum Mode { DUTY_CYCLE, VELOCITY, POSITION }
+
+    // Motor constants, in motor shaft units
+    private final double freeSpeed; // rad/s
+    private final double torqueConstant; // Nm/A
+    private final double resistance; // Ohms
+    private final double velocityConstant; // (rad/s)/V
+
+    // Load, in output shaft units
+    private final double inertia; // kg m^2
+    private final double damping; // Nm/(rad/s)
+
+    private double gearRatio = 1.0;
+    private boolean inverted = false;
+    private boolean brake = false;
+    private double stallLimit, freeLimit;
+
+    // PID slots
+    private final double[] p = new double[4];
+    private final double[] i = new double[4];
+    private final double[] d = new double[4];
+    private final double[] ff = new double[4];
+    private final double[] iZone = new double[4];
+    private final double[] iMaxAccum = new double[4];
+    private final double[] outputMin = {-1.0, -1.0, -1.0, -1.0};
+    private final double[] outputMax = {1.0, 1.0, 1.0, 1.0};
+    private int speedPid = 0, positionPid = 1;
+
+    // Controller state
+    private Mode mode = Mode.DUTY_CYCLE;
+    private double setpoint = 0.0;
+    private int slot = 0;
+    private double iAccum = 0.0;
+    private double lastError = 0.0;
+    private double appliedOutput = 0.0;
+    private double current = 0.0;
+
+    // Physical state of the output shaft
+    private double position = 0.0;
+    private double velocity = 0.0;
+    private double encoderOffset = 0.0;
+
+    private double lastTime = Double.NaN;
+    private double remainder = 0.0;
+
+    /**
+     * Creates a new simulated motor.
+     *
+     * @param freeSpeed The free speed of the motor (rad/s).
+     * @param stallTorque The stall torque of the motor (Nm).
+     * @param stallCurrent The stall current of the motor (Amps).
+     * @param currentLimit The default current limit (Amps).
+     * @param inertia The moment of inertia of the load at the output shaft (kg m^2).
+     * @param damping The viscous friction of the load at the output shaft (Nm/(rad/s)).
+     */
+    public SimMotor(double freeSpeed, double stallTorque, double stallCurrent, double currentLimit,
+            double inertia, double damping) {
+        this.freeSpeed = freeSpeed;
+        this.torqueConstant = stallTorque / stallCurrent;
+        this.resistance = NOMINAL_VOLTAGE / stallCurrent;
+        this.velocityConstant = freeSpeed / NOMINAL_VOLTAGE;
+        this.inertia = inertia;
+        this.damping = damping;
+        this.stallLimit = currentLimit;
+        this.freeLimit = currentLimit;
+    }
+
+    /**
+     * Creates a simulated Neo.
+     *
+     * @param inertia The moment of inertia of the load at the output shaft (kg m^2).
+     */
+    public static SimMotor neo(double inertia) {
+        // Neo.MAX_SPEED is in RPM
+        return new SimMotor(Neo.MAX_SPEED * 2 * Math.PI / 60.0, Neo.STALL_TORQUE, Neo.STALL_CURRENT,
+            40, inertia, 1e-4);
+    }
+
+    /**
+     * Creates a simulated Neo550.
+     *
+     * @param inertia The moment of inertia of the load at the output shaft (kg m^2).
+     */
+    public static SimMotor neo550(double inertia) {
+        // Neo550.MAX_SPEED is already in rad/s
+        return new SimMotor(Neo550.MAX_SPEED, Neo550.STALL_TORQUE, Neo550.STALL_CURRENT,
+            30, inertia, 1e-4);
+    }
+
+    /**
+     * Advances the simulation to the current {@link Clock} time.
+     */
+    @Override
+    public void periodic() {
+        double now = Clock.now();
+        if (!Double.isNaN(lastTime)) {
+            step(now - lastTime);
+        }
+        lastTime = now;
+    }
+
+    /**
+     * Advances the simulation by a fixed amount of time, running the PID controller at 1 kHz.
+     *
+     * @param dt The time to advance (s).
+     */
+    public void step(double dt) {
+        remainder += dt;
+        while (remainder >= CONTROL_PERIOD) {
+            remainder -= CONTROL_PERIOD;
+            stepOnce(CONTROL_PERIOD);
+        }
+    }
+
+    private void stepOnce(double dt) {
+        appliedOutput = computeOutput();
+
+        double motorSpeed = velocity * gearRatio;
+        double voltage = appliedOutput * NOMINAL_VOLTAGE;
+        double current = (voltage - motorSpeed / velocityConstant) / resistance;
+
+        double rpm = Math.abs(motorSpeed) * 60.0 / (2 * Math.PI);
+        double limit = stallLimit + (freeLimit - stallLimit) * Math.min(rpm / CURRENT_LIMIT_RPM, 1.0);
+        current = Utils.limitRange(current, -limit, limit);
+        if (appliedOutput == 0.0 && !brake) {
+            // Coasting, the windings are open
+            current = 0.0;
+        }
+        this.current = current;
+
+        double torque = torqueConstant * current * gearRatio - damping * velocity;
+        velocity += torque / inertia * dt;
+        position += velocity * dt;
+    }
+
+    private double computeOutput() {
+        if (mode == Mode.DUTY_CYCLE) {
+            return Utils.limitRange(setpoint, -1.0, 1.0);
+        }
+
+        double measurement = mode == Mode.VELOCITY ? getCurrentSpeed() : getCurrentPosition();
+        double error = setpoint - measurement;
+
+        if (iZone[slot] != 0.0 && Math.abs(error) > iZone[slot]) {
+            iAccum = 0.0;
+        } else {
+            iAccum += error;
+        }
+        if (iMaxAccum[slot] != 0.0) {
+            iAccum = Utils.limitRange(iAccum, -iMaxAccum[slot], iMaxAccum[slot]);
+        }
+
+        double output = p[slot] * error + i[slot] * iAccum + d[slot] * (error - lastError)
+            + ff[slot] * setpoint;
+        lastError = error;
+        return Utils.limitRange(output, outputMin[slot], outputMax[slot]);
+    }
+
+    private void setReference(Mode mode, double setpoint, int slot) {
+        if (this.mode != mode || this.slot != slot) {
+            iAccum = 0.0;
+            lastError = 0.0;
+        }
+        this.mode = mode;
+        this.setpoint = setpoint;
+        this.slot = slot;
+    }
+
+    /**
+     * Duty Cycle control 
+     * 
+     * @param power approximate speed [-1.0, 1.0]
+     */
+    public void setPower(double power) {
+        setReference(Mode.DUTY_CYCLE, power, 0);
+    }
+
+    @Override
+    public void setDesiredSpeed(double speed) {
+        double maxSpeed = getMaxSpeed();
+        speed = Utils.limitRange(speed, -maxSpeed, maxSpeed);
+        setReference(Mode.VELOCITY, speed, speedPid);
+    }
+
+    @Override
+    public double getCurrentSpeed() {
+        return velocity;
+    }
+
+    @Override
+    public void setDesiredPosition(double position) {
+        setReference(Mode.POSITION, position, positionPid);
+    }
+
+    @Override
+    public double getCurrentPosition() {
+        return position + encoderOffset;
+    }
+
+    @Override
+    public void setPosition(double newPosition) {
+        encoderOffset = newPosition - position;
+        setReference(Mode.POSITION, newPosition, positionPid);
+    }
+
+    /**
+     * Returns the true position of the output shaft, unaffected by re-zeroing the encoder.
+     *
+     * @return The position in radians.
+     */
+    public double getShaftPosition() {
+        return position;
+    }
+
+    public double getMaxSpeed() {
+        return freeSpeed / gearRatio;
+    }
+
+    /**
+     * Returns the duty cycle the controller is currently applying.
+     */
+    @Override
+    public double getAppliedOutput() {
+        return appliedOutput;
+    }
+
+    /**
+     * Returns the current drawn by the motor (Amps).
+     */
+    @Override
+    public double getOutputCurrent() {
+        return current;
+    }
+
+    @Override
+    public void setP(double gain, int pidSlot) {
+        p[pidSlot] = gain;
+    }
+
+    @Override
+    public void setI(double gain, int pidSlot) {
+        i[pidSlot] = gain;
+    }
+
+    @Override
+    public void setD(double gain, int pidSlot) {
+        d[pidSlot] = gain;
+    }
+
+    @Override
+    public void setFF(double gain, int pidSlot) {
+        ff[pidSlot] = gain;
+    }
+
+    @Override
+    public void setIZone(double iZone, int pidSlot) {
+        this.iZone[pidSlot] = iZone;
+    }
+
+    @Override
+    public void setIMaxAccum(double iMaxAccum, int pidSlot) {
+        this.iMaxAccum[pidSlot] = iMaxAccum;
+    }
+
+    @Override
+    public void setOutputRange(double min, double max, int pidSlot) {
+        outputMin[pidSlot] = min;
+        outputMax[pidSlot] = max;
+    }
+
+    @Override
+    public void setGearRatio(double gearRatio) {
+        // Keep the reported output position continuous, like the SparkMax conversion factor
+        double scale = this.gearRatio / gearRatio;
+        position *= scale;
+        velocity *= scale;
+        encoderOffset *= scale;
+        this.gearRatio = gearRatio;
+    }
+
+    @Override
+    public double getGearRatio() {
+        return gearRatio;
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {
+        // The SparkMax inverts the motor and encoder together, so this is invisible to the PID.
+        this.inverted = inverted;
+    }
+
+    public boolean getInverted() {
+        return inverted;
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        this.brake = brake;
+    }
+
+    @Override
+    public void setCurrentLimit(int stallLimit, int freeLimit) {
+        this.stallLimit = stallLimit;
+        this.freeLimit = freeLimit;
+    }
+
+    @Override
+    public int getSpeedPid() {
+        return speedPid;
+    }
+
+    @Override
+    public int getPositionPid() {
+        return positionPid;
+    }
+}
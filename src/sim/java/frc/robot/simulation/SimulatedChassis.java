@@ -0,0 +1,96 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.CachedDouble;
+import frc.robot.utilities.Clock;
+
+/**
+ * A chassis on simulated hardware which is controlled on the calling thread against a simulated
+ * clock, so the control path can be stepped and measured deterministically.
+ *
+ * <p>
+ * Each {@link #cycle(Runnable)} advances the clock by {@link #PERIOD}, starts a new
+ * {@code CachedDouble} cycle, runs the given control code and then integrates the simulated gyro.
+ * Close it to give the clock back to the FPGA.
+ */
+public class SimulatedChassis implements AutoCloseable {
+
+    /** The cycle period (s). */
+    public static final double PERIOD = 0.02;
+
+    private static boolean halInitialized = false;
+
+    public final SimGyro gyro = new SimGyro();
+    public final Chassis chassis;
+
+    private final double[] time = new double[1];
+    private long cycles = 0;
+
+    /**
+     * Initializes the HAL once, the chassis needs it for its dashboard and notifiers.
+     */
+    public static synchronized void initializeHal() {
+        if (!halInitialized) {
+            HAL.initialize(500, 0);
+            halInitialized = true;
+        }
+    }
+
+    /**
+     * Creates a new instance of {@code SimulatedChassis} on four simulated modules, see
+     * {@link SimulatedRobot#chassis(SimGyro)}.
+     */
+    public SimulatedChassis() {
+        initializeHal();
+        Clock.setSource(() -> time[0]);
+        chassis = SimulatedRobot.chassis(gyro);
+        // Control every cycle on the calling thread, so its allocations are counted
+        chassis.setControlPeriod(0.0);
+    }
+
+    /**
+     * Returns the simulated time (s).
+     */
+    public double getTime() {
+        return time[0];
+    }
+
+    /**
+     * Returns the number of cycles run so far.
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Runs one cycle.
+     *
+     * @param control The control code for the cycle, ex. {@code chassis::periodic}.
+     */
+    public void cycle(Runnable control) {
+        time[0] += PERIOD;
+        CachedDouble.nextCycle();
+        control.run();
+        // Simulation only, not a control path
+        gyro.update();
+        cycles++;
+    }
+
+    /**
+     * Runs cycles before measuring, so class loading and JIT compilation are not measured.
+     *
+     * @param count The number of cycles.
+     * @param control The control code for each cycle.
+     */
+    public void warmUp(int count, Runnable control) {
+        for (int i = 0; i < count; i++) {
+            cycle(control);
+        }
+    }
+
+    @Override
+    public void close() {
+        Clock.useFPGA();
+    }
+}
@@ -0,0 +1,94 @@
+package frc.robot.simulation;
+
+import frc.robot.architecture.DriveState;
+import frc.robot.components.ModuleGains;
+import frc.robot.components.SwerveModule;
+import frc.robot.components.SwerveModule2020;
+import frc.robot.components.SwerveModule2022;
+import frc.robot.subsystems.Chassis;
+
+/**
+ * Builds the drive stack on top of simulated hardware so it can run headless.
+ */
+public final class SimulatedRobot {
+
+    /** Inertia of a quarter of a 60 kg robot on a 4 in wheel (kg m^2). */
+    public static final double DRIVE_INERTIA = 15.0 * 0.0508 * 0.0508;
+    /** Inertia of the steering assembly of a module (kg m^2). */
+    public static final double TURN_INERTIA = 0.004;
+
+    private SimulatedRobot() {}
+
+    /**
+     * Creates a 2020 swerve module with the default gains on simulated motors.
+     *
+     * @param inverted Whether the drive motor is mounted inverted.
+     */
+    public static SwerveModule2020 module2020(boolean inverted) {
+        return module2020(inverted, SwerveModule2020.DEFAULT_GAINS);
+    }
+
+    /**
+     * Creates a 2020 swerve module on simulated motors.
+     *
+     * @param inverted Whether the drive motor is mounted inverted.
+     * @param gains The drive and turn PID gains.
+     */
+    public static SwerveModule2020 module2020(boolean inverted, ModuleGains gains) {
+        return new SwerveModule2020(SimMotor.neo(DRIVE_INERTIA), SimMotor.neo550(TURN_INERTIA), inverted, gains);
+    }
+
+    /**
+     * Creates a 2022 swerve module on simulated motors and a simulated absolute encoder.
+     *
+     * @param inverted Whether the drive motor is mounted inverted.
+     */
+    public static SwerveModule2022 module2022(boolean inverted) {
+        SimMotor turnMotor = SimMotor.neo550(TURN_INERTIA);
+        return new SwerveModule2022(SimMotor.neo(DRIVE_INERTIA), turnMotor,
+            new SimAbsoluteEncoder(turnMotor), inverted);
+    }
+
+    /**
+     * Creates a {@code Chassis} on four simulated 2020 modules and a simulated gyro.
+     *
+     * <p>
+     * The gyro integrates the angular velocity measured by the modules, so call
+     * {@code gyro.update()} once per cycle after {@code Chassis.periodic()}.
+     *
+     * @param gyro The gyro to use, its rate source is connected to the chassis.
+     */
+    public static Chassis chassis(SimGyro gyro) {
+        return chassis(gyro, 4);
+    }
+
+    /**
+     * Creates a {@code Chassis} on any number of simulated 2020 modules spaced evenly around the
+     * robot, ex. to try 2, 6 or 8 pod configurations. The modules use the same gain overrides as
+     * the robot.
+     *
+     * @param gyro The gyro to use, its rate source is connected to the chassis.
+     * @param moduleCount The number of modules.
+     */
+    public static Chassis chassis(SimGyro gyro, int moduleCount) {
+        SwerveModule[] modules = new SwerveModule[moduleCount];
+        ModuleGains gains = ModuleGains.load("SwerveModule2020", SwerveModule2020.DEFAULT_GAINS);
+        for (int i = 0; i < moduleCount; i++) {
+            // The rear half is mounted inverted, as on the competition robot
+            modules[i] = module2020(i >= moduleCount / 2, gains);
+        }
+        Chassis chassis = new Chassis(
+            gyro,
+            modules,
+            // Sample odometry on the simulation thread so runs are deterministic
+            0.0
+        );
+        // Read the published snapshot, the modules belong to the control loop
+        DriveState state = chassis.createState();
+        gyro.setRateSource(() -> {
+            chassis.readState(state);
+            return state.omega;
+        });
+        return chassis;
+    }
+}
@@ -0,0 +1,311 @@
+package frc.robot.simulation;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants;
+import frc.robot.IO;
+import frc.robot.RobotContainer;
+import frc.robot.architecture.DriveState;
+import frc.robot.math.AngleMath;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.CachedDouble;
+import frc.robot.utilities.Clock;
+
+/**
+ * Runs autonomous routines headless on simulated hardware as fast as the CPU allows.
+ *
+ * <p>
+ * Time only advances when the runner steps it. Each cycle moves {@code Clock} (and the simulated
+ * FPGA time, so WPILib {@code Timer}s and {@code Notifier}s follow) forward one robot period, then
+ * runs the {@code CommandScheduler} exactly like {@code Robot.robotPeriodic()}, which runs
+ * {@code Chassis.periodic()}, {@code SwerveDrive} and the simulated motors, then integrates the
+ * simulated gyro. Call {@code HAL.initialize(500, 0)} before creating a runner.
+ *
+ * <p>
+ * {@code AutonomousRoutineTest} runs the registered routines end to end under
+ * {@code ./gradlew test}. To try a routine or a drive by hand:
+ *
+ * <pre>
+ * ./gradlew simulateAuto [-Proutine=name] [-Pfrom=x,y,degrees] [-Pto=x,y,degrees]
+ * </pre>
+ */
+public class SimulationRunner {
+
+    /** The cycle period (s). */
+    public static final double PERIOD = TimedRobot.kDefaultPeriod;
+
+    /** The outcome of a run. */
+    public static class Result {
+        public final boolean finished;
+        public final long cycles;
+        /** The simulated time taken (s). */
+        public final double simTime;
+        /** The wall time taken (s). */
+        public final double elapsed;
+        public final Pose2d finalPose;
+        /** The distance from the expected final pose (m). */
+        public final double translationError;
+        /** The heading error from the expected final pose (rad). */
+        public final double headingError;
+
+        private Result(boolean finished, long cycles, double simTime, double elapsed, Pose2d finalPose,
+                Pose2d expectedPose) {
+            this.finished = finished;
+            this.cycles = cycles;
+            this.simTime = simTime;
+            this.elapsed = elapsed;
+            this.finalPose = finalPose;
+            this.translationError = finalPose.getTranslation().getDistance(expectedPose.getTranslation());
+            this.headingError = Math.abs(AngleMath.shortestDelta(expectedPose.getRotation().getRadians(),
+                finalPose.getRotation().getRadians()));
+        }
+
+        public double getCyclesPerSecond() {
+            return cycles / elapsed;
+        }
+
+        /**
+         * Returns how many times faster than real time the run was.
+         */
+        public double getSpeedup() {
+            return simTime / elapsed;
+        }
+
+        public void print() {
+            System.out.printf("%s after %.2f s of sim time (%d cycles)%n", finished ? "Finished" : "Timed out",
+                simTime, cycles);
+            System.out.printf("  final pose %.3f m, %.3f m, %.1f deg%n", finalPose.getX(), finalPose.getY(),
+                finalPose.getRotation().getDegrees());
+            System.out.printf("  pose error %.3f m, %.2f deg%n", translationError, Math.toDegrees(headingError));
+            System.out.printf("  %.3f s wall time, %.0f cycles/s, %.0fx real time%n", elapsed,
+                getCyclesPerSecond(), getSpeedup());
+        }
+    }
+
+    private static SimulationRunner robotRunner;
+
+    private final double[] time = new double[1];
+    private final Chassis chassis;
+    private final SimGyro gyro;
+
+    /**
+     * Creates a runner for {@code RobotContainer}'s chassis, which the registered autonomous
+     * routines drive, on simulated hardware. The first call must come before anything loads
+     * {@code RobotContainer}, including building a routine.
+     */
+    public static synchronized SimulationRunner forRobot() {
+        if (robotRunner == null) {
+            SimGyro gyro = new SimGyro();
+            boolean[] simulated = new boolean[1];
+            Chassis.setRobotFactory(() -> {
+                simulated[0] = true;
+                return SimulatedRobot.chassis(gyro);
+            });
+            Chassis chassis = RobotContainer.CHASSIS;
+            if (!simulated[0]) {
+                throw new IllegalStateException("RobotContainer was loaded before its chassis could be simulated.");
+            }
+            robotRunner = new SimulationRunner(chassis, gyro);
+        }
+        return robotRunner;
+    }
+
+    /**
+     * Creates a runner for a four module simulated chassis.
+     */
+    public SimulationRunner() {
+        this(new SimGyro());
+    }
+
+    private SimulationRunner(SimGyro gyro) {
+        this(SimulatedRobot.chassis(gyro), gyro);
+    }
+
+    /**
+     * Creates a runner for a chassis on simulated hardware, ex. the one built by
+     * {@code RobotContainer} in simulation.
+     *
+     * @param chassis The chassis to drive.
+     * @param gyro The simulated gyro of the chassis.
+     */
+    public SimulationRunner(Chassis chassis, SimGyro gyro) {
+        this.chassis = chassis;
+        this.gyro = gyro;
+        // Control every cycle in step with the simulation
+        chassis.setControlPeriod(0.0);
+    }
+
+    public Chassis getChassis() {
+        return chassis;
+    }
+
+    /**
+     * Runs one of {@link Constants#AUTO_ROUTINES} from its initial pose.
+     *
+     * @param routine The routine to run.
+     * @param expectedPose Where the routine should leave the robot.
+     * @param timeout The most simulated time to run for (s).
+     */
+    public Result run(Constants.AutonomousRoutine routine, Pose2d expectedPose, double timeout) {
+        return run(routine.COMMAND, routine.INITIAL_POSE, expectedPose, timeout);
+    }
+
+    /**
+     * Runs a command until it finishes or times out.
+     *
+     * @param routine The command to run.
+     * @param initialPose Where the robot starts.
+     * @param expectedPose Where the routine should leave the robot.
+     * @param timeout The most simulated time to run for (s).
+     */
+    public Result run(Command routine, Pose2d initialPose, Pose2d expectedPose, double timeout) {
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        DriveState state = chassis.createState();
+
+        time[0] = 0.0;
+        Clock.setSource(() -> time[0]);
+        SimHooks.pauseTiming();
+        DriverStationSim.setAutonomous(true);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+
+        long cycles = 0;
+        long start = System.nanoTime();
+        try {
+            chassis.init(initialPose);
+            scheduler.schedule(routine);
+            while (time[0] < timeout && scheduler.isScheduled(routine)) {
+                time[0] += PERIOD;
+                SimHooks.stepTiming(PERIOD);
+                CachedDouble.nextCycle();
+                IO.latch();
+                scheduler.run();
+                gyro.update();
+                cycles++;
+            }
+        } finally {
+            scheduler.cancel(routine);
+            DriverStationSim.setEnabled(false);
+            DriverStationSim.notifyNewData();
+            SimHooks.resumeTiming();
+            Clock.useFPGA();
+        }
+        double elapsed = (System.nanoTime() - start) * 1e-9;
+
+        chassis.readState(state);
+        return new Result(!scheduler.isScheduled(routine) && time[0] < timeout, cycles, time[0], elapsed,
+            state.toPose(), expectedPose);
+    }
+
+    /**
+     * Creates a command which drives the chassis field oriented to a pose and holds its heading.
+     *
+     * @param chassis The chassis to drive.
+     * @param target The pose to drive to.
+     * @param tolerance How close (m) to get before finishing.
+     */
+    public static Command driveTo(Chassis chassis, Pose2d target, double tolerance) {
+        DriveState state = chassis.createState();
+        var command = new CommandBase() {
+
+            @Override
+            public void initialize() {
+                chassis.setHeading(AngleMath.normalize(target.getRotation().getRadians()), true);
+            }
+
+            @Override
+            public void execute() {
+                chassis.readState(state);
+                double dx = target.getX() - state.x;
+                double dy = target.getY() - state.y;
+                double distance = Math.hypot(dx, dy);
+                // Slow down over the last meter
+                double speed = Math.min(Chassis.MAX_DRIVE_SPEED, 2.0 * distance);
+                if (distance > 1e-9) {
+                    chassis.fieldDrive(dx / distance * speed, dy / distance * speed, 0.0);
+                }
+            }
+
+            @Override
+            public boolean isFinished() {
+                chassis.readState(state);
+                return Math.hypot(target.getX() - state.x, target.getY() - state.y) < tolerance
+                    && chassis.headingReached();
+            }
+
+            @Override
+            public void end(boolean interrupted) {
+                chassis.stop();
+            }
+        };
+        command.addRequirements(chassis);
+        return command;
+    }
+
+    private static Pose2d parsePose(String value) {
+        String[] parts = value.split(",");
+        return new Pose2d(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+            Rotation2d.fromDegrees(Double.parseDouble(parts[2])));
+    }
+
+    /**
+     * Runs a registered autonomous routine, or drives the simulated chassis between two poses, and
+     * reports how it did.
+     *
+     * <p>
+     * Arguments are {@code --routine name}, {@code --from x,y,degrees}, {@code --to x,y,degrees}
+     * and {@code --timeout seconds}. A routine starts from its own initial pose and its error is
+     * measured from {@code --to}. The defaults are the drive of the first autonomous routine.
+     */
+    public static void main(String[] args) {
+        String routineName = null;
+        Pose2d from = new Pose2d(6.09, 4.09, new Rotation2d(0.0));
+        Pose2d to = new Pose2d(4.39, 4.09, new Rotation2d(0.0));
+        double timeout = 15.0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--routine":
+                    routineName = args[++i];
+                    break;
+                case "--from":
+                    from = parsePose(args[++i]);
+                    break;
+                case "--to":
+                    to = parsePose(args[++i]);
+                    break;
+                case "--timeout":
+                    timeout = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        HAL.initialize(500, 0);
+
+        Result result;
+        if (routineName != null) {
+            SimulationRunner runner = forRobot();
+            Constants.AutonomousRoutine routine = Constants.AUTO_ROUTINES.get(routineName);
+            if (routine == null) {
+                throw new IllegalArgumentException("No autonomous routine named " + routineName + ", try one of "
+                    + Constants.AUTO_ROUTINES.getNames());
+            }
+            result = runner.run(routine, to, timeout);
+        } else {
+            @SuppressWarnings("unused")
+            IO io = new IO();
+            SimulationRunner runner = new SimulationRunner();
+            result = runner.run(driveTo(runner.getChassis(), to, 0.05), from, to, timeout);
+        }
+        result.print();
+        System.exit(result.finished ? 0 : 1);
+    }
+}
@@ -0,0 +1,33 @@
+package frc.robot.simulation;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import frc.robot.IO;
+import frc.robot.utilities.AllocationMonitor;
+
+/**
+ * Holds the control paths to the {@link AllocationHarness} default budgets.
+ */
+public class AllocationHarnessTest {
+
+    private static final int WARMUP = 2000;
+    private static final int CYCLES = 5000;
+
+    @BeforeClass
+    public static void initialize() {
+        assumeTrue("This JVM cannot count allocations per thread", AllocationMonitor.isSupported());
+        SimulatedChassis.initializeHal();
+        new IO();
+    }
+
+    @Test
+    public void controlPathsStayWithinBudget() {
+        AllocationHarness harness = new AllocationHarness(AllocationHarness.DEFAULT_BUDGETS);
+        assertTrue("A control path went over its allocation budget, see the report above",
+            harness.run(WARMUP, CYCLES));
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.IO;
+import frc.robot.commands.FollowTrajectory;
+import frc.robot.subsystems.Chassis;
+import frc.robot.utilities.CompiledTrajectory;
+import frc.robot.utilities.TrajectoryCompiler;
+
+/**
+ * Runs autonomous routines built from the drive commands end to end on a simulated chassis,
+ * faster than real time.
+ */
+public class AutonomousRoutineTest {
+
+    /** The most simulated time a routine may take, the length of the autonomous period (s). */
+    private static final double TIMEOUT = 15.0;
+    /** How far (m) from its target a routine may leave the robot. */
+    private static final double POSITION_TOLERANCE = 0.15;
+    /** How far (rad) from its target heading a routine may leave the robot. */
+    private static final double HEADING_TOLERANCE = 0.1;
+
+    /** The path the "Taxi Path" routine follows, from the start of the taxi to its end. */
+    private static final Path TAXI_PATH = Path.of(TrajectoryCompiler.DEFAULT_INPUT, "Taxi.path");
+    private static final Pose2d TAXI_START = new Pose2d(6.09, 4.09, new Rotation2d(0.0));
+    private static final Pose2d TAXI_END = new Pose2d(4.39, 4.09, new Rotation2d(0.0));
+
+    private static SimulationRunner runner;
+
+    @BeforeClass
+    public static void initialize() {
+        SimulatedChassis.initializeHal();
+        new IO();
+        runner = new SimulationRunner();
+    }
+
+    /**
+     * Runs a routine, then checks it finished in time at the pose it drives to.
+     */
+    private static SimulationRunner.Result runRoutine(String name, Command routine, Pose2d start, Pose2d target) {
+        SimulationRunner.Result result = runner.run(routine, start, target, TIMEOUT);
+        result.print();
+        assertTrue(name + " did not finish within " + TIMEOUT + " s of sim time", result.finished);
+        assertEquals(name + " final position error (m)", 0.0, result.translationError, POSITION_TOLERANCE);
+        assertEquals(name + " final heading error (rad)", 0.0, result.headingError, HEADING_TOLERANCE);
+        return result;
+    }
+
+    @Test
+    public void taxiThenTurn() {
+        Chassis chassis = runner.getChassis();
+        Command routine = SimulationRunner.driveTo(chassis, TAXI_END, 0.05)
+            .andThen(chassis.headingCommand(Math.PI / 2));
+        runRoutine("Taxi then turn", routine, TAXI_START,
+            new Pose2d(TAXI_END.getTranslation(), new Rotation2d(Math.PI / 2)));
+    }
+
+    @Test
+    public void followsCompiledTaxiPath() throws IOException {
+        CompiledTrajectory trajectory = CompiledTrajectory.wrap("Taxi", TrajectoryCompiler.compile(TAXI_PATH,
+            Chassis.MAX_DRIVE_SPEED, Chassis.MAX_DRIVE_ACCELERATION, TrajectoryCompiler.DEFAULT_PERIOD));
+        runRoutine("Taxi Path", new FollowTrajectory(runner.getChassis(), trajectory), TAXI_START, TAXI_END);
+    }
+}
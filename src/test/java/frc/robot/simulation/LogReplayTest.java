@@ -0,0 +1,118 @@
+package frc.robot.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.IO;
+import frc.robot.utilities.TelemetryLog;
+import frc.robot.utilities.TelemetryLogReader;
+import frc.robot.utilities.TelemetryLogReader.Segment;
+
+/**
+ * Replays synthetic logs of the robot driving straight ahead and checks the replayed odometry
+ * follows them.
+ */
+public class LogReplayTest {
+
+    private static final int MODULES = 4;
+    private static final double PERIOD = 0.02;
+    private static final int RECORDS = 100;
+    private static final double SPEED = 1.5;
+
+    private Path directory;
+
+    @BeforeClass
+    public static void initialize() {
+        HAL.initialize(500, 0);
+        new IO();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replay");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Writes a run of the robot driving forward at {@link #SPEED} with every wheel pointing ahead,
+     * and replays it.
+     *
+     * @param withDistance Whether to record how far each wheel travelled, as current logs do.
+     */
+    private LogReplay.Result replayStraightLine(boolean withDistance) throws IOException {
+        List<String> columns = new ArrayList<>(List.of("timestamp", "gyroAngle"));
+        for (int i = 0; i < MODULES; i++) {
+            columns.add("module" + i + "/angle");
+            columns.add("module" + i + "/speed");
+            if (withDistance) {
+                columns.add("module" + i + "/distance");
+            }
+        }
+        TelemetryLog log = new TelemetryLog(directory, "straight", columns.toArray(new String[0]), 64 * 1024, 3);
+        log.start();
+        double[] row = new double[columns.size()];
+        for (int record = 0; record < RECORDS; record++) {
+            double time = record * PERIOD;
+            int c = 0;
+            row[c++] = time;
+            row[c++] = 0.0;
+            for (int i = 0; i < MODULES; i++) {
+                row[c++] = 0.0;
+                row[c++] = SPEED;
+                if (withDistance) {
+                    row[c++] = SPEED * time;
+                }
+            }
+            assertTrue(log.log(row));
+        }
+        log.close();
+
+        Map<String, List<Segment>> runs = TelemetryLogReader.readRuns(List.of(directory));
+        assertEquals(1, runs.size());
+        Map.Entry<String, List<Segment>> run = runs.entrySet().iterator().next();
+        return new LogReplay(run.getKey(), run.getValue(), true).run();
+    }
+
+    private static void assertDroveStraight(LogReplay.Result result) {
+        assertEquals(RECORDS, result.cycles);
+        Pose2d pose = result.finalPose;
+        double expected = SPEED * (RECORDS - 1) * PERIOD;
+        assertEquals("Distance driven forward", expected, pose.getX(), 0.01);
+        assertEquals("Distance drifted sideways", 0.0, pose.getY(), 1e-6);
+        assertEquals(0.0, pose.getRotation().getRadians(), 1e-6);
+    }
+
+    @Test
+    public void replaysRecordedDistance() throws IOException {
+        assertDroveStraight(replayStraightLine(true));
+    }
+
+    @Test
+    public void integratesSpeedWithoutDistance() throws IOException {
+        assertDroveStraight(replayStraightLine(false));
+    }
+}
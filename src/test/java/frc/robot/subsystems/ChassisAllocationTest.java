@@ -0,0 +1,77 @@
+package frc.robot.subsystems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.simulation.SimulatedChassis;
+import frc.robot.utilities.AllocationMonitor;
+
+/**
+ * Checks that {@code Chassis.periodic()}, including the heading controller and the swerve
+ * kinematics and odometry it runs, does not allocate once warmed up.
+ */
+public class ChassisAllocationTest {
+
+    private static final int WARMUP = 2000;
+    private static final int CYCLES = 2000;
+
+    private SimulatedChassis sim;
+    private Chassis chassis;
+    private long maxCycleBytes = 0;
+
+    @BeforeClass
+    public static void initializeHal() {
+        assumeTrue("This JVM cannot count allocations per thread", AllocationMonitor.isSupported());
+        SimulatedChassis.initializeHal();
+    }
+
+    @Before
+    public void setUp() {
+        sim = new SimulatedChassis();
+        chassis = sim.chassis;
+        chassis.init(new Pose2d());
+    }
+
+    @After
+    public void tearDown() {
+        sim.close();
+    }
+
+    /** Drives and turns, then holds headings, so both paths through the control loop run. */
+    private void drive() {
+        long i = sim.getCycles();
+        if (i % 500 == 0) {
+            chassis.setHeading(i % 1000 == 0 ? 0.5 * Math.PI : 0.0, true);
+        }
+        double t = sim.getTime();
+        chassis.robotDrive(2.0 * Math.sin(t), 2.0 * Math.cos(0.5 * t), (i / 250) % 2 == 0 ? Math.cos(t) : 0.0);
+    }
+
+    private void measuredCycle() {
+        drive();
+        long start = AllocationMonitor.allocatedBytes();
+        chassis.periodic();
+        maxCycleBytes = Math.max(maxCycleBytes, AllocationMonitor.since(start));
+    }
+
+    @Test
+    public void periodicDoesNotAllocate() {
+        sim.warmUp(WARMUP, () -> {
+            drive();
+            chassis.periodic();
+        });
+
+        maxCycleBytes = 0;
+        Runnable cycle = this::measuredCycle;
+        for (int i = 0; i < CYCLES; i++) {
+            sim.cycle(cycle);
+        }
+        assertEquals("Bytes allocated by the worst Chassis.periodic() cycle", 0, maxCycleBytes);
+    }
+}
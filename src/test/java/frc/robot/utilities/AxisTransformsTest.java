@@ -0,0 +1,46 @@
+package frc.robot.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Test;
+
+public class AxisTransformsTest {
+
+    private static final double DEADBAND = 0.1;
+    private static final int STEPS = 100000;
+
+    /** Sweeps every input with |x| <= DEADBAND, including both edges. */
+    private static void assertZeroInsideDeadband(DoubleUnaryOperator transform) {
+        for (int i = -STEPS; i <= STEPS; i++) {
+            double value = DEADBAND * i / STEPS;
+            assertEquals("f(" + value + ")", 0.0, transform.applyAsDouble(value), 0.0);
+        }
+        assertEquals(0.0, transform.applyAsDouble(Math.nextDown(DEADBAND)), 0.0);
+        assertEquals(0.0, transform.applyAsDouble(-Math.nextDown(DEADBAND)), 0.0);
+    }
+
+    @Test
+    public void deadbandIsExactlyZero() {
+        assertZeroInsideDeadband(AxisTransforms.deadbandTransform(DEADBAND));
+    }
+
+    @Test
+    public void precompiledDeadbandIsExactlyZero() {
+        assertZeroInsideDeadband(AxisTransforms.precompile(DEADBAND, AxisTransforms.exponentialTransform(30)));
+    }
+
+    @Test
+    public void precompiledDeadbandPassesLargerInputs() {
+        DoubleUnaryOperator exact = AxisTransforms.deadbandTransform(DEADBAND)
+            .andThen(AxisTransforms.exponentialTransform(30));
+        DoubleUnaryOperator precompiled = AxisTransforms.precompile(DEADBAND, AxisTransforms.exponentialTransform(30));
+        assertNotEquals(0.0, precompiled.applyAsDouble(Math.nextUp(DEADBAND)), 0.0);
+        for (int i = 0; i <= 1000; i++) {
+            double value = -1.0 + 2.0 * i / 1000;
+            assertEquals("f(" + value + ")", exact.applyAsDouble(value), precompiled.applyAsDouble(value), 1e-3);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package frc.robot.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.robot.math.AngleMath;
+
+public class HeadingControllerTest {
+
+    private static final double PERIOD = 0.02;
+    private static final double MAX_VELOCITY = Math.PI;
+    private static final double MAX_ACCELERATION = 2 * Math.PI;
+    private static final double TOLERANCE = 0.02;
+
+    /** Long enough for any turn of up to half a circle to finish and settle (s). */
+    private static final double DURATION = 5.0;
+
+    private static HeadingController createController() {
+        HeadingController controller = new HeadingController(5.0, 0.0, 0.0, MAX_VELOCITY, MAX_ACCELERATION,
+            PERIOD);
+        controller.setTolerance(TOLERANCE);
+        return controller;
+    }
+
+    /**
+     * Turns a chassis which follows the commanded turn rate exactly, and returns its unbounded
+     * heading. Also checks the heading never moves further from the start than the shortest turn.
+     */
+    private static double turn(HeadingController controller, double start, double goal) {
+        controller.reset(start, 0.0);
+        controller.setGoal(goal);
+        double heading = start;
+        double shortest = Math.abs(AngleMath.shortestDelta(start, goal));
+        for (int i = 0; i < DURATION / PERIOD; i++) {
+            heading += controller.calculate(heading) * PERIOD;
+            assertTrue("Turned " + (heading - start) + " rad for a " + shortest + " rad turn",
+                Math.abs(heading - start) < shortest + TOLERANCE);
+        }
+        return heading;
+    }
+
+    @Test
+    public void convergesToGoal() {
+        HeadingController controller = createController();
+        double heading = turn(controller, 0.0, 2.0);
+        assertEquals(2.0, heading, TOLERANCE);
+        assertTrue(controller.atGoal());
+    }
+
+    @Test
+    public void turnsBackwardsAcrossZero() {
+        HeadingController controller = createController();
+        // 0.1 rad to 2PI - 0.1 rad is a 0.2 rad clockwise turn, not most of a circle
+        double heading = turn(controller, 0.1, AngleMath.TWO_PI - 0.1);
+        assertEquals(-0.1, heading, TOLERANCE);
+        assertTrue(controller.atGoal());
+    }
+
+    @Test
+    public void turnsFromWoundUpHeading() {
+        HeadingController controller = createController();
+        // The gyro has turned five times around, the goal is given in (-PI, PI]
+        double start = 10 * Math.PI + 3.0;
+        double heading = turn(controller, start, -3.0);
+        assertEquals(0.0, AngleMath.shortestDelta(heading, -3.0), TOLERANCE);
+        assertEquals(start + AngleMath.shortestDelta(3.0, -3.0), heading, TOLERANCE);
+        assertTrue(controller.atGoal());
+    }
+
+    @Test
+    public void notAtGoalUntilProfileFinishes() {
+        HeadingController controller = createController();
+        controller.reset(0.0, 0.0);
+        controller.setGoal(Math.PI / 2);
+        // A quarter turn takes the profile over a second
+        double heading = 0.0;
+        for (int i = 0; i < 10; i++) {
+            heading += controller.calculate(heading) * PERIOD;
+            assertFalse(controller.atGoal());
+        }
+    }
+}